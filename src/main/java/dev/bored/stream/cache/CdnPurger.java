@@ -0,0 +1,54 @@
+package dev.bored.stream.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Purges CDN copies of public reads by surrogate key.
+ *
+ * <p>The services call it at the same points where they evict their own
+ * caches, with the keys from {@link EdgeCacheHeaders}. Implementations
+ * talk to the CDN's purge API; a deployment plugs in its own by
+ * declaring a bean of this type. Without one, {@link LocalCdnPurger}
+ * stands in and purges nothing, so the edge policies must not let a
+ * shared cache keep responses.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@FunctionalInterface
+public interface CdnPurger {
+
+    /**
+     * Purges every cached response tagged with any of {@code keys}.
+     * Failures are the implementation's to log; a purge that doesn't
+     * land only means the edge serves stale until its {@code s-maxage}.
+     *
+     * @param keys surrogate keys
+     */
+    void purge(Collection<String> keys);
+
+    /**
+     * Purges {@code keys} once the surrounding transaction commits, or
+     * right away outside one. Purging earlier would let the CDN refetch
+     * and cache the old row again before the write lands.
+     *
+     * @param keys surrogate keys
+     */
+    default void purgeAfterCommit(String... keys) {
+        List<String> toPurge = List.of(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    purge(toPurge);
+                }
+            });
+        } else {
+            purge(toPurge);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package dev.bored.stream.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Decorates the Redis cache so every call goes through a
+ * {@link RedisCircuitBreaker}.
+ *
+ * <p>While the breaker lets calls through, they reach Redis and their
+ * outcome is reported to it; failures still propagate, to
+ * {@code CacheConfig.FailOpenCacheErrorHandler} as before. While it is
+ * open, reads are misses — {@link #get(Object, Callable)} runs the loader
+ * directly — and writes are skipped.</p>
+ *
+ * <p>An eviction that was skipped or failed would leave Redis serving
+ * the old value once it is back, for up to the entry TTL. Those keys are
+ * remembered, up to {@value #MAX_PENDING} of them before falling back to
+ * a clear of the whole cache, and replayed ahead of the next call Redis
+ * accepts.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public class CircuitBreakingCache implements Cache {
+
+    /** Skipped evictions remembered per cache before a full clear is owed instead. */
+    static final int MAX_PENDING = 1_000;
+
+    private final Cache delegate;
+    private final RedisCircuitBreaker breaker;
+
+    private final Set<Object> pendingEvictions = ConcurrentHashMap.newKeySet();
+    private volatile boolean pendingClear;
+
+    /**
+     * @param delegate the Redis cache
+     * @param breaker  shared breaker of the Redis tier
+     */
+    public CircuitBreakingCache(Cache delegate, RedisCircuitBreaker breaker) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+    }
+
+    /** Runs {@code call} against Redis if the breaker allows, else returns {@code fallback}. */
+    private <T> T guarded(Supplier<T> call, Supplier<T> fallback) {
+        if (!breaker.tryAcquire()) {
+            return fallback.get();
+        }
+        T result;
+        try {
+            replayPending();
+            result = call.get();
+        } catch (ValueRetrievalException e) {
+            // The loader failed, not Redis.
+            breaker.onSuccess();
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.onFailure(e);
+            throw e;
+        }
+        breaker.onSuccess();
+        return result;
+    }
+
+    /** Applies evictions owed from while Redis was unreachable. */
+    private void replayPending() {
+        if (pendingClear) {
+            pendingClear = false;
+            pendingEvictions.clear();
+            try {
+                delegate.clear();
+            } catch (RuntimeException e) {
+                pendingClear = true;
+                throw e;
+            }
+            return;
+        }
+        if (pendingEvictions.isEmpty()) {
+            return;
+        }
+        List<Object> keys = new ArrayList<>(pendingEvictions);
+        for (Object key : keys) {
+            delegate.evict(key);
+            pendingEvictions.remove(key);
+        }
+    }
+
+    private void owe(Object key) {
+        if (pendingEvictions.size() >= MAX_PENDING) {
+            pendingClear = true;
+        } else {
+            pendingEvictions.add(key);
+        }
+    }
+
+    /** Whether evictions are waiting for Redis, for tests and diagnostics. */
+    boolean hasPending() {
+        return pendingClear || !pendingEvictions.isEmpty();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return guarded(() -> delegate.get(key), () -> null);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return guarded(() -> delegate.get(key, type), () -> null);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return guarded(() -> delegate.get(key, valueLoader), () -> load(key, valueLoader));
+    }
+
+    private static <T> T load(Object key, Callable<T> valueLoader) {
+        try {
+            return valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        guarded(() -> {
+            delegate.put(key, value);
+            return null;
+        }, () -> null);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return guarded(() -> delegate.putIfAbsent(key, value), () -> null);
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictGuarded(key, () -> {
+            delegate.evict(key);
+            return false;
+        });
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return evictGuarded(key, () -> delegate.evictIfPresent(key));
+    }
+
+    private boolean evictGuarded(Object key, Supplier<Boolean> call) {
+        try {
+            return guarded(call, () -> {
+                owe(key);
+                return false;
+            });
+        } catch (RuntimeException e) {
+            owe(key);
+            throw e;
+        }
+    }
+
+    @Override
+    public void clear() {
+        clearGuarded(() -> {
+            delegate.clear();
+            return false;
+        });
+    }
+
+    @Override
+    public boolean invalidate() {
+        return clearGuarded(delegate::invalidate);
+    }
+
+    private boolean clearGuarded(Supplier<Boolean> call) {
+        try {
+            return guarded(call, () -> {
+                pendingClear = true;
+                return false;
+            });
+        } catch (RuntimeException e) {
+            pendingClear = true;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package dev.bored.stream.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Decorates a shared cache so concurrent misses for one key across the
+ * cluster run the loader once.
+ *
+ * <p>Only {@link #get(Object, Callable)} — what
+ * {@code @Cacheable(sync = true)} calls — changes. On a miss the caller
+ * takes the key's {@link LoadLock}, runs the loader and puts the value.
+ * A caller that finds the lock held polls, backing off from
+ * {@value #FIRST_POLL_MS} ms to {@value #MAX_POLL_MS} ms, until either
+ * the holder's value shows up or the lock is free again. A free lock
+ * with no value means the holder's load failed or found nothing, so the
+ * caller takes the lock and loads right away. Only if the lock is still
+ * held after {@code maxWait} (the holder hung or died) does it load
+ * without the lock. Within one
+ * instance, {@link TwoTierCache}'s L1 already funnels concurrent misses
+ * into one call here.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public class CoalescingCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingCache.class);
+
+    static final long FIRST_POLL_MS = 10;
+    static final long MAX_POLL_MS = 200;
+
+    private final Cache delegate;
+    private final LoadLock lock;
+    private final Duration maxWait;
+
+    /**
+     * @param delegate the shared cache
+     * @param lock     cluster-wide per-key lock
+     * @param maxWait  how long to wait on another instance's load
+     */
+    public CoalescingCache(Cache delegate, LoadLock lock, Duration maxWait) {
+        this.delegate = delegate;
+        this.lock = lock;
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper hit = delegate.get(key);
+        if (hit != null) {
+            return (T) hit.get();
+        }
+        String lockKey = delegate.getName() + "::" + key;
+        String token = UUID.randomUUID().toString();
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        long pauseMs = FIRST_POLL_MS;
+        while (!lock.tryAcquire(lockKey, token)) {
+            // Someone else is loading. Wait for their value; if the lock
+            // goes away without one (the load failed or found nothing),
+            // the next tryAcquire takes it and this caller loads at once.
+            if (System.nanoTime() >= deadline) {
+                log.debug("No value for {} after waiting {} — loading without the lock", lockKey, maxWait);
+                return load(key, valueLoader);
+            }
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return load(key, valueLoader);
+            }
+            hit = delegate.get(key);
+            if (hit != null) {
+                return (T) hit.get();
+            }
+            pauseMs = Math.min(pauseMs * 2, MAX_POLL_MS);
+        }
+        try {
+            return load(key, valueLoader);
+        } finally {
+            lock.release(lockKey, token);
+        }
+    }
+
+    /**
+     * Runs the loader and shares its value. The caller has just missed
+     * on the delegate, so this doesn't ask it again. A {@code null}
+     * result is returned but not stored.
+     */
+    private <T> T load(Object key, Callable<T> valueLoader) {
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null) {
+            delegate.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,102 @@
+package dev.bored.stream.cache;
+
+import dev.bored.stream.config.StreamProperties;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Builds the CDN-facing headers of a public read: the route's
+ * {@code Cache-Control} and the response's surrogate keys.
+ *
+ * <p>Policies come from {@code stream.edge-caching.routes}, keyed by the
+ * route names below, so max-age, {@code s-maxage} and the
+ * {@code stale-while-revalidate}/{@code stale-if-error} windows can be
+ * tuned per deployment. A route without a policy gets no
+ * {@code Cache-Control}, which leaves the response uncached by shared
+ * caches as before.</p>
+ *
+ * <p>Surrogate keys name what a response contains, so a write can purge
+ * exactly the responses it made stale through {@link CdnPurger}. They
+ * are derived from post ids and shared with the purge calls through the
+ * static helpers here, so the two can't drift apart.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component
+public class EdgeCacheHeaders {
+
+    /** Route of {@code GET /api/v1/feed}. */
+    public static final String FEED_ROUTE = "feed";
+
+    /** Route of {@code GET /api/v1/feed/{id}}. */
+    public static final String FEED_POST_ROUTE = "feed-post";
+
+    /** Route of {@code GET /api/v1/feed/v2}. */
+    public static final String POSTS_ROUTE = "posts";
+
+    /** Route of {@code GET /api/v1/feed/v2/{id}}. */
+    public static final String POST_ROUTE = "post";
+
+    /** Surrogate key of the whole v1 feed. */
+    public static final String FEED_KEY = "feed";
+
+    /** Surrogate key of every page of the v2 post list. */
+    public static final String POSTS_KEY = "posts";
+
+    private final StreamProperties.EdgeCaching config;
+
+    public EdgeCacheHeaders(StreamProperties streamProperties) {
+        this.config = streamProperties.getEdgeCaching();
+    }
+
+    /** Surrogate key of one v1 feed post. */
+    public static String feedPostKey(Long id) {
+        return "feed-post-" + id;
+    }
+
+    /** Surrogate key of one v2 post. */
+    public static String postKey(Long postId) {
+        return "post-" + postId;
+    }
+
+    /**
+     * Headers for a response on {@code route} that contains {@code keys}.
+     *
+     * @param route one of the {@code *_ROUTE} names
+     * @param keys  the response's surrogate keys
+     * @return {@code Cache-Control} if the route has a policy, plus the surrogate-key header
+     */
+    public HttpHeaders headers(String route, String... keys) {
+        HttpHeaders headers = new HttpHeaders();
+        StreamProperties.EdgePolicy policy = config.getRoutes().get(route);
+        if (policy != null) {
+            headers.setCacheControl(cacheControl(policy));
+        }
+        if (keys.length > 0) {
+            headers.set(config.getSurrogateKeyHeader(), String.join(" ", keys));
+        }
+        return headers;
+    }
+
+    static CacheControl cacheControl(StreamProperties.EdgePolicy policy) {
+        CacheControl cacheControl = CacheControl.maxAge(policy.getMaxAge()).cachePublic();
+        if (policy.getSharedMaxAge() != null) {
+            cacheControl = cacheControl.sMaxAge(policy.getSharedMaxAge());
+        }
+        if (isPositive(policy.getStaleWhileRevalidate())) {
+            cacheControl = cacheControl.staleWhileRevalidate(policy.getStaleWhileRevalidate());
+        }
+        if (isPositive(policy.getStaleIfError())) {
+            cacheControl = cacheControl.staleIfError(policy.getStaleIfError());
+        }
+        return cacheControl;
+    }
+
+    private static boolean isPositive(Duration duration) {
+        return duration != null && duration.isPositive();
+    }
+}
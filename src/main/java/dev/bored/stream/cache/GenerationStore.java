@@ -0,0 +1,49 @@
+package dev.bored.stream.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-cache generation counters for {@link GenerationalCache}.
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public interface GenerationStore {
+
+    /**
+     * @param cacheName the cache
+     * @return its current generation; {@code 0} if never bumped
+     */
+    long current(String cacheName);
+
+    /**
+     * Moves the cache to a new generation.
+     *
+     * @param cacheName the cache
+     * @return the new generation
+     */
+    long next(String cacheName);
+
+    /**
+     * Counters held in this process only, for a single instance or tests.
+     *
+     * @return a store starting every cache at generation {@code 0}
+     */
+    static GenerationStore local() {
+        Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+        return new GenerationStore() {
+            @Override
+            public long current(String cacheName) {
+                AtomicLong counter = counters.get(cacheName);
+                return counter != null ? counter.get() : 0;
+            }
+
+            @Override
+            public long next(String cacheName) {
+                return counters.computeIfAbsent(cacheName, n -> new AtomicLong()).incrementAndGet();
+            }
+        };
+    }
+}
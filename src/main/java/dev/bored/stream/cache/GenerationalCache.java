@@ -0,0 +1,139 @@
+package dev.bored.stream.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Decorates a shared cache so clearing it is one counter bump instead of
+ * a key scan.
+ *
+ * <p>Every key is stored as {@code g<generation>:<key>}, with the cache's
+ * current generation from a {@link GenerationStore}. {@link #clear} moves
+ * the cache to the next generation: later reads and writes use new keys,
+ * and the old entries are left to expire by the L2 TTL. That's one
+ * command however many keys — feed variants, pages — the cache holds.</p>
+ *
+ * <p>The generation is remembered for {@code refreshInterval} so reads
+ * don't pay an extra round trip. Another instance's clear reaches this
+ * one through the invalidation bus ({@link #forgetGeneration}), and the
+ * interval bounds the lag if that message is lost. If the store can't be
+ * read, the last known generation is used; if it can't be bumped, the
+ * clear falls back to clearing the delegate.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public class GenerationalCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationalCache.class);
+
+    private final Cache delegate;
+    private final GenerationStore store;
+    private final long refreshNanos;
+
+    private volatile long generation;
+    private volatile long checkedAt;
+    private volatile boolean known;
+
+    /**
+     * @param delegate        the shared cache
+     * @param store           holds the cache's generation
+     * @param refreshInterval how long a read generation is trusted
+     */
+    public GenerationalCache(Cache delegate, GenerationStore store, Duration refreshInterval) {
+        this.delegate = delegate;
+        this.store = store;
+        this.refreshNanos = refreshInterval.toNanos();
+    }
+
+    /** The current generation, re-read from the store when it's due. */
+    long generation() {
+        long now = System.nanoTime();
+        if (!known || now - checkedAt > refreshNanos) {
+            try {
+                generation = store.current(getName());
+                known = true;
+            } catch (RuntimeException e) {
+                log.warn("Could not read generation of {} — using {}", getName(), generation, e);
+            }
+            checkedAt = now;
+        }
+        return generation;
+    }
+
+    /** Makes the next read fetch the generation, after a remote clear. */
+    public void forgetGeneration() {
+        known = false;
+    }
+
+    private String versioned(Object key) {
+        return "g" + generation() + ":" + key;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(versioned(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(versioned(key), type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(versioned(key), valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(versioned(key), value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(versioned(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(versioned(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(versioned(key));
+    }
+
+    @Override
+    public void clear() {
+        try {
+            generation = store.next(getName());
+            known = true;
+            checkedAt = System.nanoTime();
+        } catch (RuntimeException e) {
+            log.warn("Could not bump generation of {} — clearing its keys instead", getName(), e);
+            delegate.clear();
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        clear();
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package dev.bored.stream.cache;
+
+/**
+ * Hears about every eviction and clear on a {@link TwoTierCache}, so
+ * other instances can drop their L1 copies.
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@FunctionalInterface
+public interface InvalidationPublisher {
+
+    /** Publisher that tells nobody, for single-instance setups and tests. */
+    InvalidationPublisher NONE = (cacheName, key) -> { };
+
+    /**
+     * Reports that entries left a cache.
+     *
+     * @param cacheName the cache
+     * @param key       the evicted key's string form, or {@code null} when
+     *                  the whole cache was cleared
+     */
+    void invalidated(String cacheName, String key);
+}
@@ -0,0 +1,43 @@
+package dev.bored.stream.cache;
+
+/**
+ * Cluster-wide "I'm loading this key" lock for {@link CoalescingCache}.
+ *
+ * <p>Advisory only: implementations fail open, so a caller that can't
+ * reach the lock store behaves as if it holds the lock and loads.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public interface LoadLock {
+
+    /** No cluster coordination; every caller loads. */
+    LoadLock NONE = new LoadLock() {
+        @Override
+        public boolean tryAcquire(String lockKey, String token) {
+            return true;
+        }
+
+        @Override
+        public void release(String lockKey, String token) {
+        }
+    };
+
+    /**
+     * Takes the lock for {@code lockKey} unless someone else holds it.
+     *
+     * @param lockKey what is being loaded
+     * @param token   identifies this holder, for {@link #release}
+     * @return {@code false} only if another caller holds the lock;
+     *         {@code true} if we took it or locking is unavailable
+     */
+    boolean tryAcquire(String lockKey, String token);
+
+    /**
+     * Releases the lock if {@code token} still holds it. Best effort.
+     *
+     * @param lockKey what was being loaded
+     * @param token   the token passed to {@link #tryAcquire}
+     */
+    void release(String lockKey, String token);
+}
@@ -0,0 +1,51 @@
+package dev.bored.stream.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * {@link CdnPurger} for running without a CDN: logs each purge at debug
+ * and remembers the most recent keys, so tests and local runs can see
+ * what a write would have purged.
+ *
+ * <p>Declared by {@code CacheConfig} only when no other purger exists,
+ * with a startup warning, since in front of a real CDN every purge
+ * through it is lost.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public class LocalCdnPurger implements CdnPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalCdnPurger.class);
+
+    /** How many purged keys {@link #purged()} remembers. */
+    static final int HISTORY = 256;
+
+    private final Deque<String> history = new ArrayDeque<>();
+
+    @Override
+    public synchronized void purge(Collection<String> keys) {
+        log.debug("CDN purge (local, no-op): {}", keys);
+        for (String key : keys) {
+            if (history.size() == HISTORY) {
+                history.removeFirst();
+            }
+            history.addLast(key);
+        }
+    }
+
+    /**
+     * Returns the most recently purged keys, oldest first.
+     *
+     * @return up to {@value #HISTORY} keys
+     */
+    public synchronized List<String> purged() {
+        return List.copyOf(history);
+    }
+}
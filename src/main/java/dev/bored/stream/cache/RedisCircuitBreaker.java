@@ -0,0 +1,181 @@
+package dev.bored.stream.cache;
+
+import dev.bored.stream.config.StreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker shared by everything that calls Redis: the cache
+ * operations ({@link CircuitBreakingCache}), the load lock, the
+ * generation counters, the invalidation bus's publishes and the
+ * user-sync marker.
+ *
+ * <p>Closed, every call goes to Redis and consecutive failures are
+ * counted; a failure is any exception, so a command timeout counts too.
+ * At {@code failure-threshold} the breaker opens and callers skip Redis
+ * — reads miss to L1 and the database, writes are dropped — instead of
+ * each waiting out the client timeout. After {@code open-duration} it
+ * goes half-open and lets {@code half-open-probes} calls through at a
+ * time; that many successes in a row close it, any failure reopens
+ * it.</p>
+ *
+ * <p>State is exported as the {@value #STATE_METRIC} gauge (0 closed,
+ * 1 half-open, 2 open), calls turned away count towards
+ * {@value #REJECTED_METRIC}, and {@code /actuator/redisbreaker} shows
+ * both.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component
+@Endpoint(id = "redisbreaker")
+public class RedisCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    /** Gauge of the breaker state: 0 closed, 1 half-open, 2 open. */
+    public static final String STATE_METRIC = "stream.cache.redis.breaker.state";
+
+    /** Counter of calls that skipped Redis because the breaker was open. */
+    public static final String REJECTED_METRIC = "stream.cache.redis.breaker.rejected";
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    /** What {@code /actuator/redisbreaker} returns. */
+    public record Status(State state, int consecutiveFailures, long rejectedCalls, Long retryInMs) { }
+
+    private final StreamProperties.CircuitBreaker config;
+    private final Counter rejected;
+
+    /** Source of {@link System#nanoTime()}; swapped in tests. */
+    LongSupplier ticker = System::nanoTime;
+
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    public RedisCircuitBreaker(StreamProperties streamProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.config = streamProperties.getCaching().getCircuitBreaker();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        MeterRegistry meters = registry != null ? registry : new SimpleMeterRegistry();
+        Gauge.builder(STATE_METRIC, this, b -> b.state.ordinal())
+                .description("Redis cache circuit breaker: 0 closed, 1 half-open, 2 open")
+                .register(meters);
+        this.rejected = Counter.builder(REJECTED_METRIC)
+                .description("Redis cache calls skipped because the circuit breaker was open")
+                .register(meters);
+    }
+
+    /**
+     * Asks to call Redis. Every {@code true} must be followed by
+     * {@link #onSuccess} or {@link #onFailure}.
+     *
+     * @return {@code false} if the caller should skip Redis
+     */
+    public boolean tryAcquire() {
+        if (!config.isEnabled() || state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN
+                    && ticker.getAsLong() - openedAt >= config.getOpenDuration().toNanos()) {
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.HALF_OPEN && probesInFlight < config.getHalfOpenProbes()) {
+                probesInFlight++;
+                return true;
+            }
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /** Reports a Redis call that completed. */
+    public void onSuccess() {
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                probesInFlight = Math.max(0, probesInFlight - 1);
+                if (++probeSuccesses >= config.getHalfOpenProbes()) {
+                    transition(State.CLOSED);
+                }
+            } else if (state == State.CLOSED) {
+                consecutiveFailures = 0;
+            }
+        }
+    }
+
+    /**
+     * Reports a Redis call that threw.
+     *
+     * @param e what it threw, for the log line when the breaker opens
+     */
+    public void onFailure(RuntimeException e) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                log.warn("Redis probe failed — keeping the cache circuit open", e);
+                transition(State.OPEN);
+            } else if (state == State.CLOSED && ++consecutiveFailures >= config.getFailureThreshold()) {
+                log.warn("Redis failed {} times in a row — opening the cache circuit for {}",
+                        consecutiveFailures, config.getOpenDuration(), e);
+                transition(State.OPEN);
+            }
+        }
+    }
+
+    private void transition(State next) {
+        if (next == State.OPEN) {
+            openedAt = ticker.getAsLong();
+        } else if (next == State.CLOSED) {
+            log.info("Redis probes succeeded — cache circuit closed");
+        }
+        consecutiveFailures = 0;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+        state = next;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    /**
+     * Current state for {@code /actuator/redisbreaker}.
+     *
+     * @return state, failure streak, rejected calls so far, and for an
+     *         open breaker the time until probes are let through
+     */
+    @ReadOperation
+    public synchronized Status status() {
+        Long retryInMs = null;
+        if (state == State.OPEN) {
+            long left = config.getOpenDuration().toNanos() - (ticker.getAsLong() - openedAt);
+            retryInMs = Math.max(0, left / 1_000_000);
+        }
+        return new Status(state, consecutiveFailures, (long) rejected.count(), retryInMs);
+    }
+}
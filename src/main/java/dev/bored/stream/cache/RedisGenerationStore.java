@@ -0,0 +1,74 @@
+package dev.bored.stream.cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * {@link GenerationStore} on Redis: one counter per cache at
+ * {@code <prefix>cache-gen::<cache>} (see {@link RedisKeys}), read with {@code GET} and
+ * bumped with {@code INCR}. The counters have no TTL; there is one per
+ * generational cache.
+ *
+ * <p>Errors propagate: {@link GenerationalCache} decides how to degrade.
+ * Without Redis there are no generational caches to serve, since the
+ * cache manager is then in-process only, so every cache reads as
+ * generation {@code 0}. While the {@link RedisCircuitBreaker} is open,
+ * both calls fail straight away.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component
+public class RedisGenerationStore implements GenerationStore {
+
+    private final ObjectProvider<StringRedisTemplate> redis;
+    private final RedisCircuitBreaker breaker;
+    private final String keyPrefix;
+
+    public RedisGenerationStore(ObjectProvider<StringRedisTemplate> redis, RedisCircuitBreaker breaker,
+                                RedisKeys redisKeys) {
+        this.redis = redis;
+        this.breaker = breaker;
+        this.keyPrefix = redisKeys.prefixed("cache-gen::");
+    }
+
+    @Override
+    public long current(String cacheName) {
+        StringRedisTemplate template = redis.getIfAvailable();
+        if (template == null) {
+            return 0;
+        }
+        String value = guarded(cacheName, () -> template.opsForValue().get(keyPrefix + cacheName));
+        return value != null ? Long.parseLong(value) : 0;
+    }
+
+    @Override
+    public long next(String cacheName) {
+        StringRedisTemplate template = redis.getIfAvailable();
+        if (template == null) {
+            throw new IllegalStateException("No Redis to bump the generation of " + cacheName);
+        }
+        Long next = guarded(cacheName, () -> template.opsForValue().increment(keyPrefix + cacheName));
+        if (next == null) {
+            throw new IllegalStateException("INCR returned nothing for " + cacheName);
+        }
+        return next;
+    }
+
+    private <T> T guarded(String cacheName, Supplier<T> call) {
+        if (!breaker.tryAcquire()) {
+            throw new IllegalStateException("Redis circuit open — generation of " + cacheName + " unavailable");
+        }
+        try {
+            T result = call.get();
+            breaker.onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            breaker.onFailure(e);
+            throw e;
+        }
+    }
+}
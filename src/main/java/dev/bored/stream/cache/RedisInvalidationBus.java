@@ -0,0 +1,336 @@
+package dev.bored.stream.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.bored.stream.config.StreamProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Fans L1 evictions out to every instance over a Redis pub/sub channel.
+ *
+ * <p>{@link TwoTierCache} reports each eviction here. Rather than one
+ * {@code PUBLISH} per eviction — a post delete evicts several caches at
+ * once — events are collected for {@code stream.caching.invalidation-window}
+ * and sent as one message, with duplicates dropped and per-key events
+ * folded into a clear of the same cache. Every instance subscribes and
+ * drops the named L1 entries through {@link TwoTierCacheManager#evictLocal};
+ * messages carry the sender's instance id so it skips its own.</p>
+ *
+ * <p>Other components send their own messages to the other instances
+ * through the same channel: {@link #relay} queues a JSON body under a
+ * topic, it goes out with the next batch in the order it was queued, and
+ * each peer hands it to whatever registered for that topic with
+ * {@link #onRelay}.</p>
+ *
+ * <p>Best effort, like the rest of the Redis tier: without a connection
+ * factory (local dev, tests) this is inert and the cache manager is a
+ * plain {@code ConcurrentMapCacheManager} anyway; publish and subscribe
+ * failures are logged, and L1's short TTL bounds how long a missed
+ * message leaves an entry stale. While the {@link RedisCircuitBreaker}
+ * is open, batches are dropped without a {@code PUBLISH}.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component
+public class RedisInvalidationBus implements InvalidationPublisher, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisInvalidationBus.class);
+
+    /** One eviction: {@code key == null} means every entry of the cache. */
+    record Event(String cache, String key) { }
+
+    /** A message for another component: its topic, and a JSON body. */
+    record Relayed(String topic, JsonNode body) { }
+
+    /** Wire format: who sent it, what to drop, and what to pass on. */
+    record Batch(String origin, List<Event> events, List<Relayed> relayed) { }
+
+    private final ObjectProvider<RedisConnectionFactory> redisConnectionFactory;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final RedisCircuitBreaker breaker;
+    private final String channel;
+    private final long windowMs;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Set<Event> pending = ConcurrentHashMap.newKeySet();
+    private final Queue<Relayed> pendingRelays = new ConcurrentLinkedQueue<>();
+    private final Map<String, Consumer<JsonNode>> relayListeners = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private volatile StringRedisTemplate redis;
+    private RedisMessageListenerContainer listener;
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public RedisInvalidationBus(ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+                                ObjectProvider<CacheManager> cacheManager,
+                                RedisCircuitBreaker breaker,
+                                StreamProperties streamProperties,
+                                RedisKeys redisKeys) {
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.cacheManager = cacheManager;
+        this.breaker = breaker;
+        // Pub/sub channel, under the same prefix as the cache entries.
+        this.channel = redisKeys.prefixed("cache-invalidation");
+        this.windowMs = Math.max(1, streamProperties.getCaching().getInvalidationWindow().toMillis());
+    }
+
+    @Override
+    public void invalidated(String cacheName, String key) {
+        if (redis == null) {
+            return;
+        }
+        pending.add(new Event(cacheName, key));
+        scheduleFlush();
+    }
+
+    /**
+     * Sends a message to every other instance with the next batch. A no-op
+     * without Redis; like invalidations, it may be dropped on failure.
+     *
+     * @param topic what the peers' listener registered for
+     * @param body  the message
+     */
+    public void relay(String topic, JsonNode body) {
+        if (redis == null) {
+            return;
+        }
+        pendingRelays.add(new Relayed(topic, body));
+        scheduleFlush();
+    }
+
+    /**
+     * Registers the receiver of other instances' messages on a topic,
+     * replacing any earlier one. It runs on the subscriber's thread.
+     *
+     * @param topic    the topic passed to {@link #relay} by the sender
+     * @param listener called with each message's body
+     */
+    public void onRelay(String topic, Consumer<JsonNode> listener) {
+        relayListeners.put(topic, listener);
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                flusher.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; stop() flushes what's pending.
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /** Sends everything collected so far as one message. */
+    void flush() {
+        flushScheduled.set(false);
+        List<Event> events = drainPending();
+        List<Relayed> relayed = drainRelays();
+        StringRedisTemplate template = redis;
+        if ((events.isEmpty() && relayed.isEmpty()) || template == null) {
+            return;
+        }
+        String payload;
+        try {
+            payload = mapper.writeValueAsString(new Batch(instanceId, events, relayed));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to encode {} cache invalidations and {} relayed messages — peers catch up on L1 TTL",
+                    events.size(), relayed.size(), e);
+            return;
+        }
+        if (!breaker.tryAcquire()) {
+            log.debug("Redis circuit open — dropping {} cache invalidations and {} relayed messages",
+                    events.size(), relayed.size());
+            return;
+        }
+        try {
+            template.convertAndSend(channel, payload);
+            breaker.onSuccess();
+        } catch (RuntimeException e) {
+            breaker.onFailure(e);
+            log.warn("Failed to publish {} cache invalidations and {} relayed messages — peers catch up on L1 TTL",
+                    events.size(), relayed.size(), e);
+        }
+    }
+
+    /** Takes the pending relayed messages, oldest first. */
+    List<Relayed> drainRelays() {
+        List<Relayed> taken = new ArrayList<>();
+        Relayed r;
+        while ((r = pendingRelays.poll()) != null) {
+            taken.add(r);
+        }
+        return taken;
+    }
+
+    /** Takes the pending events, coalesced. */
+    List<Event> drainPending() {
+        List<Event> taken = new ArrayList<>(pending.size());
+        for (Event e : pending) {
+            if (pending.remove(e)) {
+                taken.add(e);
+            }
+        }
+        return coalesce(taken);
+    }
+
+    /**
+     * Drops duplicates, and per-key events for caches that are being
+     * cleared anyway.
+     *
+     * @param events events in any order
+     * @return the events that still matter
+     */
+    static List<Event> coalesce(Collection<Event> events) {
+        Set<Event> unique = new LinkedHashSet<>(events);
+        Set<String> cleared = new HashSet<>();
+        for (Event e : unique) {
+            if (e.key() == null) {
+                cleared.add(e.cache());
+            }
+        }
+        unique.removeIf(e -> e.key() != null && cleared.contains(e.cache()));
+        return new ArrayList<>(unique);
+    }
+
+    /**
+     * Applies a message from the channel to this instance's L1, then hands
+     * its relayed messages to their listeners.
+     *
+     * @param payload the JSON {@link Batch}
+     */
+    void onMessage(String payload) {
+        Batch batch;
+        try {
+            batch = mapper.readValue(payload, Batch.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed cache invalidation message", e);
+            return;
+        }
+        if (instanceId.equals(batch.origin())) {
+            return;
+        }
+        if (batch.events() != null && !batch.events().isEmpty()
+                && cacheManager.getIfAvailable() instanceof TwoTierCacheManager manager) {
+            for (Event e : batch.events()) {
+                manager.evictLocal(e.cache(), e.key());
+            }
+        }
+        if (batch.relayed() != null) {
+            for (Relayed r : batch.relayed()) {
+                deliver(r);
+            }
+        }
+    }
+
+    private void deliver(Relayed relayed) {
+        Consumer<JsonNode> listener = relayListeners.get(relayed.topic());
+        if (listener == null || relayed.body() == null) {
+            return;
+        }
+        try {
+            listener.accept(relayed.body());
+        } catch (RuntimeException e) {
+            log.warn("Relayed message on topic {} failed", relayed.topic(), e);
+        }
+    }
+
+    String instanceId() {
+        return instanceId;
+    }
+
+    // ── SmartLifecycle ─────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        RedisConnectionFactory factory = redisConnectionFactory.getIfAvailable();
+        if (factory != null) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "cache-invalidation");
+                t.setDaemon(true);
+                return t;
+            });
+            StringRedisTemplate template = new StringRedisTemplate(factory);
+            template.afterPropertiesSet();
+            redis = template;
+            subscribe(factory);
+        }
+        running = true;
+    }
+
+    private void subscribe(RedisConnectionFactory factory) {
+        try {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(factory);
+            container.addMessageListener((Message message, byte[] pattern) ->
+                    onMessage(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(channel));
+            container.afterPropertiesSet();
+            container.start();
+            listener = container;
+        } catch (RuntimeException e) {
+            log.warn("Cache invalidation subscribe failed — this instance relies on L1 TTL", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        flush();
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        if (listener != null) {
+            try {
+                listener.stop();
+                listener.destroy();
+            } catch (Exception e) {
+                log.debug("Error stopping cache invalidation listener", e);
+            }
+        }
+        redis = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Up before the web server takes traffic, down after it drained,
+        // so evictions made by in-flight requests still go out.
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,38 @@
+package dev.bored.stream.cache;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Names for the service's own Redis keys and channels, under the same
+ * prefix as its cache entries.
+ *
+ * <p>The prefix is {@code spring.cache.redis.key-prefix}, read here once,
+ * so load locks, generation counters, user-sync markers and the
+ * invalidation channel move with the cache entries if it changes. With
+ * {@code use-key-prefix} off, or no prefix set, names are used bare,
+ * as the cache entries then carry only their cache name.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component
+public class RedisKeys {
+
+    private final String prefix;
+
+    public RedisKeys(CacheProperties cacheProperties) {
+        CacheProperties.Redis redis = cacheProperties.getRedis();
+        this.prefix = redis.isUseKeyPrefix() && redis.getKeyPrefix() != null ? redis.getKeyPrefix() : "";
+    }
+
+    /**
+     * The full name of a key, key family or channel.
+     *
+     * @param name the name without the service prefix, e.g. {@code "load-lock::"}
+     * @return {@code name} behind the prefix
+     */
+    public String prefixed(String name) {
+        return prefix + name;
+    }
+}
@@ -0,0 +1,84 @@
+package dev.bored.stream.cache;
+
+import dev.bored.stream.config.StreamProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link LoadLock} on Redis: {@code SET NX PX} to take it, a
+ * compare-and-delete script to release it.
+ *
+ * <p>Keys are {@code <prefix>load-lock::<cache>::<key>} and expire
+ * after {@code stream.caching.load-lock-ttl}, so a holder that dies
+ * mid-load blocks nobody for long. Like {@code UserSyncMarker}, this is
+ * fail-open: with no Redis configured, or Redis erroring, every caller
+ * is told it holds the lock and loads on its own. While the
+ * {@link RedisCircuitBreaker} is open that answer comes without a
+ * call.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component
+public class RedisLoadLock implements LoadLock {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisLoadLock.class);
+
+    /** Deletes the lock only if it still carries our token. */
+    static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final ObjectProvider<StringRedisTemplate> redis;
+    private final RedisCircuitBreaker breaker;
+    private final Duration ttl;
+    private final String keyPrefix;
+
+    public RedisLoadLock(ObjectProvider<StringRedisTemplate> redis, RedisCircuitBreaker breaker,
+                         StreamProperties streamProperties, RedisKeys redisKeys) {
+        this.redis = redis;
+        this.breaker = breaker;
+        this.ttl = streamProperties.getCaching().getLoadLockTtl();
+        this.keyPrefix = redisKeys.prefixed("load-lock::");
+    }
+
+    @Override
+    public boolean tryAcquire(String lockKey, String token) {
+        StringRedisTemplate template = redis.getIfAvailable();
+        if (template == null || !breaker.tryAcquire()) {
+            return true;
+        }
+        try {
+            Boolean set = template.opsForValue().setIfAbsent(keyPrefix + lockKey, token, ttl);
+            breaker.onSuccess();
+            return !Boolean.FALSE.equals(set);
+        } catch (RuntimeException e) {
+            breaker.onFailure(e);
+            log.warn("Load lock unavailable for {} — loading without it", lockKey, e);
+            return true;
+        }
+    }
+
+    @Override
+    public void release(String lockKey, String token) {
+        StringRedisTemplate template = redis.getIfAvailable();
+        if (template == null || !breaker.tryAcquire()) {
+            return;
+        }
+        try {
+            template.execute(RELEASE, List.of(keyPrefix + lockKey), token);
+            breaker.onSuccess();
+        } catch (RuntimeException e) {
+            breaker.onFailure(e);
+            log.warn("Failed to release load lock for {} — it expires on its own", lockKey, e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package dev.bored.stream.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * A response body serialized once: the UTF-8 JSON, for larger bodies a
+ * gzipped copy, and a strong ETag for the content.
+ *
+ * <p>Built by {@link RenderedJsonCache}; controllers hand it back as
+ * {@link #toResponse}, which picks the encoding the client accepts and
+ * sets that representation's ETag. Spring MVC compares it with the
+ * request's {@code If-None-Match} and turns a match into a bodiless
+ * {@code 304 Not Modified}. The gzipped copy has its own tag, as a
+ * strong validator must differ between encodings. The arrays are
+ * shared by every response and must not be modified.</p>
+ *
+ * @param json UTF-8 JSON
+ * @param gzip the same JSON gzipped, or {@code null} if not worth it
+ * @param etag quoted strong ETag of {@code json}
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public record RenderedJson(byte[] json, byte[] gzip, String etag) {
+
+    /**
+     * The body as a response, gzipped if the client accepts it and a
+     * gzipped copy exists.
+     *
+     * @param acceptEncoding the request's {@code Accept-Encoding}, may be {@code null}
+     * @return a 200 with the matching body, ETag and headers
+     */
+    public ResponseEntity<byte[]> toResponse(String acceptEncoding) {
+        return toResponse(acceptEncoding, HttpHeaders.EMPTY);
+    }
+
+    /**
+     * As {@link #toResponse(String)}, with extra headers such as the
+     * ones from {@link EdgeCacheHeaders}.
+     *
+     * @param acceptEncoding the request's {@code Accept-Encoding}, may be {@code null}
+     * @param headers        headers to add to the response
+     * @return a 200 with the matching body, ETag and headers
+     */
+    public ResponseEntity<byte[]> toResponse(String acceptEncoding, HttpHeaders headers) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip != null && acceptsGzip(acceptEncoding)) {
+            return response.eTag(gzipEtag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(gzip);
+        }
+        return response.eTag(etag).body(json);
+    }
+
+    /** ETag of the gzipped copy: the JSON's, with a {@code -gz} suffix. */
+    String gzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} value admits gzip: listed by
+     * name without {@code q=0}, or else covered by {@code *}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim();
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].replace(" ", "").matches("(?i)q=0(\\.0{0,3})?")) {
+                    refused = true;
+                }
+            }
+            if (coding.equalsIgnoreCase("gzip")) {
+                return !refused;
+            }
+            if (coding.equals("*")) {
+                wildcard = !refused;
+            }
+        }
+        return wildcard;
+    }
+}
@@ -0,0 +1,102 @@
+package dev.bored.stream.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.bored.stream.config.StreamProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializes cached DTOs to {@link RenderedJson} once per cached value.
+ *
+ * <p>Entries are keyed by cache name and key, the same pair the value is
+ * cached under, and hold the value they were rendered from. A read whose
+ * value is that same instance — an L1 or in-process hit, both store by
+ * reference — or an equal one, such as a fresh copy deserialized from
+ * Redis after L1 expired, reuses the rendered body: a hot feed is served
+ * as a byte copy, with no Jackson walk over the nested code snippets,
+ * and comparing DTOs is far cheaper than rendering them. A value that
+ * differs replaces the entry. No eviction wiring is needed, and a
+ * rendered body is never served for a value it wasn't rendered from.</p>
+ *
+ * <p>Rendering uses the application's {@link ObjectMapper}, so the bytes
+ * match what Spring MVC would have written. Bodies from
+ * {@code stream.rendered-json.gzip-threshold} on get a gzipped copy
+ * too. The ETag comes from {@link ValueTags}: the one stored with the
+ * value in Redis when it passed through there, so rendering hashes
+ * nothing, and equal content gets the same tag on every instance.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component
+public class RenderedJsonCache {
+
+    /** Where a value is cached: the cache's name and the key's string form. */
+    private record Key(String cache, String key) { }
+
+    /** A rendered body and the value it was rendered from. */
+    private record Entry(Object value, RenderedJson rendered) { }
+
+    private final ObjectMapper objectMapper;
+    private final ValueTags valueTags;
+    private final Cache<Key, Entry> rendered;
+    private final long gzipThreshold;
+
+    public RenderedJsonCache(ObjectMapper objectMapper, ValueTags valueTags, StreamProperties streamProperties) {
+        StreamProperties.RenderedJson config = streamProperties.getRenderedJson();
+        this.objectMapper = objectMapper;
+        this.valueTags = valueTags;
+        this.rendered = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .build();
+        this.gzipThreshold = config.getGzipThreshold().toBytes();
+    }
+
+    /**
+     * Returns the rendered body of {@code value}, rendering it unless the
+     * last value rendered for the same cache entry equals it.
+     *
+     * @param cacheName the cache {@code value} came from, see {@code CacheNames}
+     * @param key       its key in that cache
+     * @param value     a cached DTO, or list of DTOs; must not be mutated
+     *                  afterwards, and must implement {@code equals}
+     * @return its JSON, gzipped JSON if large enough, and ETag
+     */
+    public RenderedJson render(String cacheName, Object key, Object value) {
+        Key k = new Key(cacheName, String.valueOf(key));
+        Entry entry = rendered.getIfPresent(k);
+        if (entry != null && (entry.value() == value || entry.value().equals(value))) {
+            return entry.rendered();
+        }
+        RenderedJson fresh = renderNow(value);
+        rendered.put(k, new Entry(value, fresh));
+        return fresh;
+    }
+
+    private RenderedJson renderNow(Object value) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+        return new RenderedJson(json, json.length >= gzipThreshold ? gzip(json) : null, valueTags.tagOf(value));
+    }
+
+    static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
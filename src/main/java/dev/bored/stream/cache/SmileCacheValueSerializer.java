@@ -0,0 +1,143 @@
+package dev.bored.stream.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Redis value serializer for a cache whose values all have one known
+ * type: a format byte, the value's ETag digest, and untyped Smile
+ * (binary JSON).
+ *
+ * <p>The default-typed JSON serializer writes a fully qualified class
+ * name into every object and collection so it can read values back
+ * without knowing the cache. Here the type is fixed per cache, so the
+ * payload carries data only, and Smile's back-references collapse the
+ * repeated property names of a list of DTOs into single bytes.</p>
+ *
+ * <p>The digest is the first {@value ValueTags#DIGEST_LENGTH} bytes of
+ * the SHA-256 of the Smile body, hashed once when the value is written.
+ * Writes and reads both record it in {@link ValueTags} against the
+ * value instance, so responses built from that value reuse it as their
+ * ETag.</p>
+ *
+ * <p>The first byte is {@link #FORMAT_SMILE_V2}. Reads dispatch on it so
+ * deploys can roll both ways:</p>
+ * <ul>
+ *   <li>{@link #FORMAT_SMILE_V1} — Smile without a digest, as written
+ *       before; read, and tagged on first render instead;</li>
+ *   <li>{@code '{'} or {@code '['} — a legacy JSON entry, read with the
+ *       legacy serializer;</li>
+ *   <li>any other unknown byte — a format from a newer build; reported as
+ *       a miss, so this instance reloads and overwrites it.</li>
+ * </ul>
+ * <p>Unknown properties are ignored, so a DTO gaining a field doesn't
+ * invalidate entries written before it. Values of another type — Spring's
+ * {@code NullValue} placeholder — are written with the legacy serializer,
+ * which carries its own type.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public class SmileCacheValueSerializer implements RedisSerializer<Object> {
+
+    /** Leading byte of untagged values, written by earlier builds. */
+    static final byte FORMAT_SMILE_V1 = 0x01;
+
+    /** Leading byte of values written by this class; {@code 0x02} is the deflate header. */
+    static final byte FORMAT_SMILE_V2 = 0x03;
+
+    /** Smile without its 4-byte header: the format byte replaces it. */
+    static final ObjectMapper SMILE = new SmileMapper(SmileFactory.builder()
+            .disable(SmileGenerator.Feature.WRITE_HEADER)
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .disable(SmileParser.Feature.REQUIRE_HEADER)
+            .build())
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final JavaType type;
+    private final RedisSerializer<Object> legacy;
+    private final ValueTags tags;
+
+    /**
+     * @param type   the cache's value type
+     * @param legacy the self-describing serializer entries used to be
+     *               written with
+     */
+    public SmileCacheValueSerializer(JavaType type, RedisSerializer<Object> legacy) {
+        this(type, legacy, new ValueTags());
+    }
+
+    /**
+     * @param type   the cache's value type
+     * @param legacy the self-describing serializer entries used to be
+     *               written with
+     * @param tags   where the ETag of each value written or read is recorded
+     */
+    public SmileCacheValueSerializer(JavaType type, RedisSerializer<Object> legacy, ValueTags tags) {
+        this.type = type;
+        this.legacy = legacy;
+        this.tags = tags;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null || !type.getRawClass().isInstance(value)) {
+            return legacy.serialize(value);
+        }
+        try {
+            byte[] body = SMILE.writerFor(type).writeValueAsBytes(value);
+            byte[] digest = ValueTags.digest(body);
+            tags.remember(value, digest);
+            byte[] out = new byte[1 + digest.length + body.length];
+            out[0] = FORMAT_SMILE_V2;
+            System.arraycopy(digest, 0, out, 1, digest.length);
+            System.arraycopy(body, 0, out, 1 + digest.length, body.length);
+            return out;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write " + type + " as Smile", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == FORMAT_SMILE_V2 && bytes.length > ValueTags.DIGEST_LENGTH) {
+            int offset = 1 + ValueTags.DIGEST_LENGTH;
+            Object value;
+            try {
+                value = SMILE.readerFor(type).readValue(bytes, offset, bytes.length - offset);
+            } catch (IOException e) {
+                throw new SerializationException("Could not read " + type + " from Smile", e);
+            }
+            if (value != null) {
+                tags.remember(value, Arrays.copyOfRange(bytes, 1, offset));
+            }
+            return value;
+        }
+        if (bytes[0] == FORMAT_SMILE_V1) {
+            try {
+                return SMILE.readerFor(type).readValue(bytes, 1, bytes.length - 1);
+            } catch (IOException e) {
+                throw new SerializationException("Could not read " + type + " from Smile", e);
+            }
+        }
+        if (bytes[0] == '{' || bytes[0] == '[') {
+            return legacy.deserialize(bytes);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,354 @@
+package dev.bored.stream.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.bored.stream.config.StreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Spring {@link Cache} that reads through a per-instance Caffeine L1 to
+ * a shared L2 (Redis in production).
+ *
+ * <p>Reads check L1 first, then L2; an L2 hit is copied into L1. Writes
+ * go to both. Evictions hit L2 first and L1 last, so a concurrent read
+ * can't refill L1 from an L2 entry that is about to disappear, and L1 is
+ * cleared even if the L2 call fails. L1 holds {@code null}-free values
+ * only — the L2 config decides whether nulls are cacheable at all.</p>
+ *
+ * <p>L1 entries are the same object instances handed to callers, like
+ * {@code ConcurrentMapCache}'s default store-by-reference mode; cached
+ * DTOs must not be mutated. L1 is keyed by the key's string form — the
+ * same form Redis keys use — so an invalidation that crossed the wire
+ * as text finds its entry.</p>
+ *
+ * <p>L1 is per instance. Every eviction and clear is reported to an
+ * {@link InvalidationPublisher}, which tells the other instances to drop
+ * their L1 copies. Puts are not broadcast: on this service they only
+ * happen on a cache miss, and the evictions that precede them already
+ * went out.</p>
+ *
+ * <p>With {@code stale-while-revalidate} on, an eviction — local or from
+ * another instance — moves the L1 entry aside instead of dropping it. A
+ * {@code @Cacheable(sync = true)} read that finds only that stale copy
+ * returns it straight away and hands the loader to a background task,
+ * one per key, which reloads through L2 and installs the fresh value. A
+ * stale copy lives at most {@code stale-ttl}; a load that overlaps
+ * another eviction is discarded, so the next read refreshes again.
+ * Each stale read counts towards {@value #STALE_SERVED_METRIC}. Plain
+ * {@link #get(Object)} reads have no loader to refresh with and never
+ * see stale values.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public class TwoTierCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoTierCache.class);
+
+    /** Counter of reads answered with a stale value, tagged by cache. */
+    public static final String STALE_SERVED_METRIC = "stream.cache.stale.served";
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> l1;
+    private final Cache l2;
+    private final InvalidationPublisher publisher;
+
+    /** Evicted L1 values still servable; {@code null} unless stale-while-revalidate. */
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> stale;
+    private final Executor refresher;
+    private final Counter staleServed;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /** Bumped on every eviction, so a refresh can tell it was overtaken. */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates the cache with its own L1 in front of {@code l2}, without
+     * telling anyone about evictions.
+     *
+     * @param name      cache name, shared by both tiers
+     * @param l1MaxSize max entries held in L1
+     * @param l1Ttl     how long an L1 entry lives after it was written
+     * @param l2        the shared tier
+     */
+    public TwoTierCache(String name, long l1MaxSize, Duration l1Ttl, Cache l2) {
+        this(name, l1MaxSize, l1Ttl, l2, InvalidationPublisher.NONE);
+    }
+
+    /**
+     * Creates the cache with its own L1 in front of {@code l2}.
+     *
+     * @param name      cache name, shared by both tiers
+     * @param l1MaxSize max entries held in L1
+     * @param l1Ttl     how long an L1 entry lives after it was written
+     * @param l2        the shared tier
+     * @param publisher told about every eviction and clear
+     */
+    public TwoTierCache(String name, long l1MaxSize, Duration l1Ttl, Cache l2, InvalidationPublisher publisher) {
+        this(name, l1Settings(l1MaxSize, l1Ttl), l2, publisher, ForkJoinPool.commonPool(), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Creates the cache with its own L1 in front of {@code l2}.
+     *
+     * @param name      cache name, shared by both tiers
+     * @param settings  L1 size, TTL and stale-while-revalidate settings
+     * @param l2        the shared tier
+     * @param publisher told about every eviction and clear
+     * @param refresher runs stale-while-revalidate reloads
+     * @param meters    where the stale-served counter is registered
+     */
+    public TwoTierCache(String name, StreamProperties.L1 settings, Cache l2, InvalidationPublisher publisher,
+                        Executor refresher, MeterRegistry meters) {
+        this.name = name;
+        this.l1 = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getTtl())
+                .build();
+        this.l2 = l2;
+        this.publisher = publisher;
+        this.refresher = refresher;
+        if (settings.isStaleWhileRevalidate()) {
+            this.stale = Caffeine.newBuilder()
+                    .maximumSize(settings.getMaximumSize())
+                    .expireAfterWrite(settings.getStaleTtl())
+                    .build();
+            this.staleServed = Counter.builder(STALE_SERVED_METRIC)
+                    .description("Cache reads answered with an evicted value while it was reloaded")
+                    .tag("cache", name)
+                    .register(meters);
+        } else {
+            this.stale = null;
+            this.staleServed = null;
+        }
+    }
+
+    private static StreamProperties.L1 l1Settings(long maxSize, Duration ttl) {
+        StreamProperties.L1 settings = new StreamProperties.L1();
+        settings.setMaximumSize(maxSize);
+        settings.setTtl(ttl);
+        return settings;
+    }
+
+    /**
+     * The L1 key for a cache key: its string form, as in the Redis key.
+     *
+     * @param key the cache key
+     * @return the key's string form
+     */
+    static String l1Key(Object key) {
+        return key instanceof String s ? s : String.valueOf(key);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object local = l1.getIfPresent(l1Key(key));
+        if (local != null) {
+            return new SimpleValueWrapper(local);
+        }
+        ValueWrapper shared = l2.get(key);
+        if (shared != null && shared.get() != null) {
+            l1.put(l1Key(key), shared.get());
+        }
+        return shared;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String k = l1Key(key);
+        if (stale != null) {
+            Object fresh = l1.getIfPresent(k);
+            if (fresh != null) {
+                return (T) fresh;
+            }
+            Object old = stale.getIfPresent(k);
+            if (old != null) {
+                staleServed.increment();
+                refresh(key, k, valueLoader);
+                return (T) old;
+            }
+        }
+        // Caffeine runs at most one mapping per key at a time, so
+        // concurrent L1 misses share one L2 lookup (and one load).
+        return (T) l1.get(k, ignored -> l2.get(key, valueLoader));
+    }
+
+    /**
+     * Reloads a stale key in the background unless a reload is already
+     * running. The fresh value is installed only if nothing was evicted
+     * meanwhile; otherwise it may predate that eviction's write, and is
+     * dropped from L2 too.
+     */
+    private void refresh(Object key, String k, Callable<?> valueLoader) {
+        if (!refreshing.add(k)) {
+            return;
+        }
+        long seen = evictions.get();
+        try {
+            refresher.execute(() -> {
+                try {
+                    Object value = l2.get(key, valueLoader);
+                    if (evictions.get() != seen) {
+                        // The load may have written pre-eviction data to L2.
+                        l2.evict(key);
+                    } else if (value != null) {
+                        l1.put(k, value);
+                        stale.invalidate(k);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Background refresh of {}[{}] failed — serving stale until it expires", name, k, e);
+                } finally {
+                    refreshing.remove(k);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(k);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String k = l1Key(key);
+        if (value != null) {
+            l1.put(k, value);
+        } else {
+            l1.invalidate(k);
+        }
+        if (stale != null) {
+            stale.invalidate(k);
+        }
+        l2.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = l2.putIfAbsent(key, value);
+        Object winner = existing != null ? existing.get() : value;
+        if (winner != null) {
+            l1.put(l1Key(key), winner);
+            if (stale != null) {
+                stale.invalidate(l1Key(key));
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        try {
+            l2.evict(key);
+        } finally {
+            retire(l1Key(key));
+            publisher.invalidated(name, l1Key(key));
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        try {
+            return l2.evictIfPresent(key);
+        } finally {
+            retire(l1Key(key));
+            publisher.invalidated(name, l1Key(key));
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            l2.clear();
+        } finally {
+            retireAll();
+            publisher.invalidated(name, null);
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        try {
+            return l2.invalidate();
+        } finally {
+            retireAll();
+            publisher.invalidated(name, null);
+        }
+    }
+
+    /**
+     * Drops one L1 entry on behalf of another instance, leaving L2 and
+     * the publisher alone.
+     *
+     * @param key the key's string form, see {@link #l1Key}
+     */
+    public void evictLocal(String key) {
+        retire(key);
+    }
+
+    /** Drops every L1 entry on behalf of another instance. */
+    public void clearLocal() {
+        retireAll();
+    }
+
+    /** Removes one L1 entry, keeping it as stale if enabled. */
+    private void retire(String k) {
+        evictions.incrementAndGet();
+        if (stale != null) {
+            Object old = l1.getIfPresent(k);
+            if (old != null) {
+                stale.put(k, old);
+            }
+        }
+        l1.invalidate(k);
+    }
+
+    /** Removes every L1 entry, keeping them as stale if enabled. */
+    private void retireAll() {
+        evictions.incrementAndGet();
+        if (stale != null) {
+            stale.putAll(l1.asMap());
+        }
+        l1.invalidateAll();
+    }
+
+    /** Approximate number of L1 entries, for tests and diagnostics. */
+    long localSize() {
+        l1.cleanUp();
+        return l1.estimatedSize();
+    }
+}
@@ -0,0 +1,144 @@
+package dev.bored.stream.cache;
+
+import dev.bored.stream.config.StreamProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link CacheManager} that puts a {@link TwoTierCache} L1 in front of
+ * every cache of a shared L2 manager ({@code RedisCacheManager} in
+ * production).
+ *
+ * <p>L1 size, TTL and stale-while-revalidate come from
+ * {@code stream.caching.l1.<cache-name>}, falling back to
+ * {@code stream.caching.l1-defaults}. Stale-while-revalidate reloads run
+ * on virtual threads, one per reloading key. With a {@link LoadLock},
+ * each L2 cache is wrapped in a {@link CoalescingCache} so a miss is
+ * loaded by one instance at a time. Caches listed in
+ * {@code stream.caching.generational} are further wrapped in a
+ * {@link GenerationalCache}, so clearing them is one {@code INCR}. With a
+ * {@link RedisCircuitBreaker}, the L2 cache itself sits behind a
+ * {@link CircuitBreakingCache}. L2 keeps its own configuration — TTL,
+ * serializer, key prefix — untouched.</p>
+ *
+ * <p>Evictions are reported to the given {@link InvalidationPublisher};
+ * {@link #evictLocal} is the receiving end, applying another instance's
+ * eviction to this instance's L1 only.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    private final CacheManager l2;
+    private final StreamProperties.Caching settings;
+    private final InvalidationPublisher publisher;
+    private final LoadLock loadLock;
+    private final GenerationStore generations;
+    private final RedisCircuitBreaker breaker;
+    private final MeterRegistry meters;
+    private final Executor refresher = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("cache-refresh-", 0).factory());
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, GenerationalCache> generational = new ConcurrentHashMap<>();
+
+    /**
+     * Wraps {@code l2}, building each cache's L1 on first use, with
+     * generations and metrics kept in this process.
+     *
+     * @param l2        the shared tier's manager
+     * @param settings  L1 sizes and TTLs
+     * @param publisher told about every eviction, to fan it out
+     */
+    public TwoTierCacheManager(CacheManager l2, StreamProperties.Caching settings, InvalidationPublisher publisher) {
+        this(l2, settings, publisher, LoadLock.NONE, GenerationStore.local(), null, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Wraps {@code l2}, building each cache's L1 on first use.
+     *
+     * @param l2        the shared tier's manager
+     * @param settings  L1 sizes and TTLs
+     * @param publisher told about every eviction, to fan it out
+     * @param loadLock    coalesces L2 misses across instances
+     * @param generations generation counters of the generational caches
+     * @param breaker     guards every L2 call, or {@code null} for none
+     * @param meters      where per-cache metrics are registered
+     */
+    public TwoTierCacheManager(CacheManager l2, StreamProperties.Caching settings, InvalidationPublisher publisher,
+                               LoadLock loadLock, GenerationStore generations, RedisCircuitBreaker breaker,
+                               MeterRegistry meters) {
+        this.l2 = l2;
+        this.settings = settings;
+        this.publisher = publisher;
+        this.loadLock = loadLock;
+        this.generations = generations;
+        this.breaker = breaker;
+        this.meters = meters;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache existing = caches.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        Cache found = l2.getCache(name);
+        if (found == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name,
+                n -> new TwoTierCache(n, settings.l1For(n), shared(found), publisher, refresher, meters));
+    }
+
+    /** The L2 side of a cache: breaker, load coalescing, then generational keys if configured. */
+    private Cache shared(Cache found) {
+        Cache guarded = breaker == null ? found : new CircuitBreakingCache(found, breaker);
+        Cache shared = loadLock == LoadLock.NONE
+                ? guarded
+                : new CoalescingCache(guarded, loadLock, settings.getLoadLockWait());
+        if (!settings.getGenerational().contains(found.getName())) {
+            return shared;
+        }
+        GenerationalCache versioned = new GenerationalCache(shared, generations, settings.getGenerationRefresh());
+        generational.put(found.getName(), versioned);
+        return versioned;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Drops L1 entries for an eviction that happened on another instance.
+     * Caches this instance hasn't used yet have nothing to drop.
+     *
+     * @param cacheName the cache
+     * @param key       the key's string form, or {@code null} to clear
+     */
+    public void evictLocal(String cacheName, String key) {
+        TwoTierCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (key == null) {
+            GenerationalCache versioned = generational.get(cacheName);
+            if (versioned != null) {
+                versioned.forgetGeneration();
+            }
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+}
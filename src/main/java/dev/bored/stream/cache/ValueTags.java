@@ -0,0 +1,86 @@
+package dev.bored.stream.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * The ETags of cached values, stored with each value in the shared tier.
+ *
+ * <p>A value's tag is a SHA-256 prefix of its Smile encoding, the form
+ * it takes in Redis. {@link SmileCacheValueSerializer} hashes the
+ * encoding once, when a value is written, and stores the digest in the
+ * entry in front of the value; reads take it from there. Either way the
+ * serializer records the tag against the value instance it wrote or
+ * built, and since L1 hands out that same instance, {@link RenderedJsonCache}
+ * finds the tag here instead of hashing anything.</p>
+ *
+ * <p>A value that never went through the serializer — the in-process
+ * fallback, a cache on the JSON value format, a put dropped while the
+ * circuit was open — is encoded and hashed on its first render. It's
+ * the same encoding, so equal content gets the same tag on every
+ * instance, however it got there. Tags are held against weak keys, so
+ * they go when the value does.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component
+public class ValueTags {
+
+    /** Digest bytes kept: 128 bits is plenty for a validator. */
+    static final int DIGEST_LENGTH = 16;
+
+    // weakKeys() also makes lookups compare by identity.
+    private final Cache<Object, String> tags = Caffeine.newBuilder().weakKeys().build();
+
+    /**
+     * The tag of a cached value: the stored one if the value came through
+     * the Redis serializer, otherwise computed the same way.
+     *
+     * @param value a cached DTO, or list of DTOs
+     * @return the quoted strong ETag
+     */
+    public String tagOf(Object value) {
+        return tags.get(value, v -> format(digest(encode(v))));
+    }
+
+    /** Records the tag stored with {@code value}'s Redis entry. */
+    void remember(Object value, byte[] digest) {
+        tags.put(value, format(digest));
+    }
+
+    private static byte[] encode(Object value) {
+        try {
+            return SmileCacheValueSerializer.SMILE.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    /** The first {@link #DIGEST_LENGTH} bytes of the SHA-256 of {@code bytes}. */
+    static byte[] digest(byte[] bytes) {
+        return digest(bytes, 0, bytes.length);
+    }
+
+    static byte[] digest(byte[] bytes, int offset, int length) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(bytes, offset, length);
+            return Arrays.copyOf(sha.digest(), DIGEST_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is a required JDK algorithm", e);
+        }
+    }
+
+    /** Quoted, base64url digest. */
+    static String format(byte[] digest) {
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+    }
+}
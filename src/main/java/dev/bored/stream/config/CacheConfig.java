@@ -1,31 +1,73 @@
 package dev.bored.stream.config;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.bored.stream.cache.CdnPurger;
+import dev.bored.stream.cache.CompressingRedisSerializer;
+import dev.bored.stream.cache.GenerationStore;
+import dev.bored.stream.cache.InvalidationPublisher;
+import dev.bored.stream.cache.LoadLock;
+import dev.bored.stream.cache.LocalCdnPurger;
+import dev.bored.stream.cache.RedisCircuitBreaker;
+import dev.bored.stream.cache.SmileCacheValueSerializer;
+import dev.bored.stream.cache.TwoTierCacheManager;
+import dev.bored.stream.cache.ValueTags;
+import dev.bored.stream.dto.FeedPostDTO;
+import dev.bored.stream.dto.PostDTO;
+import dev.bored.stream.service.CacheNames;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.cache.interceptor.SimpleCacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Enables Spring's cache abstraction + installs a fail-open error handler
  * so Redis hiccups don't take down the service. Same pattern as
  * profile-service; see that service's CacheConfig for detail.
+ *
+ * <p>Declares the {@link CacheManager} itself rather than leaving it to
+ * Boot: with Redis configured, every Redis cache gets a per-instance
+ * Caffeine L1 in front ({@link TwoTierCacheManager}), so hot reads are
+ * served from heap without a network hop or a deserialization, and
+ * don't spend Upstash's daily command budget. Evictions reach the other
+ * instances' L1 through the {@link InvalidationPublisher}
+ * ({@code RedisInvalidationBus}), and concurrent misses for one key are
+ * loaded once cluster-wide under a {@link LoadLock}
+ * ({@code RedisLoadLock}). A {@link RedisCircuitBreaker} stops all of
+ * that from calling Redis while it keeps failing, so an outage costs
+ * each request a cache miss rather than a client timeout. Without Redis
+ * it's a plain {@link ConcurrentMapCacheManager}.</p>
  */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
     private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
@@ -35,8 +77,137 @@ public class CacheConfig {
         return new FailOpenCacheErrorHandler();
     }
 
+    /**
+     * The log-only {@link LocalCdnPurger}, unless a deployment declares a
+     * real {@link CdnPurger}. Warns at startup when that happens while a
+     * route lets shared caches keep responses, since edits and deletes
+     * then stay visible at the edge until {@code s-maxage} runs out.
+     */
     @Bean
-    public RedisCacheManagerBuilderCustomizer jsonRedisCacheManagerCustomizer() {
+    @ConditionalOnMissingBean(CdnPurger.class)
+    public CdnPurger cdnPurger(StreamProperties streamProperties) {
+        streamProperties.getEdgeCaching().getRoutes().forEach((route, policy) -> {
+            Duration shared = policy.getSharedMaxAge() != null ? policy.getSharedMaxAge() : policy.getMaxAge();
+            if (shared.isPositive() || isPositive(policy.getStaleWhileRevalidate())) {
+                log.warn("No CdnPurger configured but edge route '{}' is shared-cacheable — "
+                        + "writes won't purge the CDN; set its shared-max-age to 0", route);
+            }
+        });
+        return new LocalCdnPurger();
+    }
+
+    private static boolean isPositive(Duration duration) {
+        return duration != null && duration.isPositive();
+    }
+
+    @Bean
+    public CacheManager cacheManager(ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+                                     CacheProperties cacheProperties,
+                                     ObjectProvider<RedisCacheManagerBuilderCustomizer> customizers,
+                                     StreamProperties streamProperties,
+                                     InvalidationPublisher invalidationPublisher,
+                                     LoadLock loadLock,
+                                     GenerationStore generationStore,
+                                     RedisCircuitBreaker circuitBreaker,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        RedisConnectionFactory factory = redisConnectionFactory.getIfAvailable();
+        if (factory == null) {
+            log.info("Redis not configured — caching in-process only");
+            return new ConcurrentMapCacheManager();
+        }
+        RedisCacheManager l2 = redisCacheManager(factory, cacheProperties, customizers);
+        MeterRegistry meters = meterRegistry.getIfAvailable();
+        return new TwoTierCacheManager(l2, streamProperties.getCaching(), invalidationPublisher, loadLock,
+                generationStore, circuitBreaker, meters != null ? meters : new SimpleMeterRegistry());
+    }
+
+    /**
+     * Builds the Redis tier the way Boot's auto-configuration would:
+     * {@code spring.cache.redis.*} defaults first, then every
+     * {@link RedisCacheManagerBuilderCustomizer} in order.
+     */
+    static RedisCacheManager redisCacheManager(RedisConnectionFactory factory,
+                                               CacheProperties cacheProperties,
+                                               ObjectProvider<RedisCacheManagerBuilderCustomizer> customizers) {
+        CacheProperties.Redis redis = cacheProperties.getRedis();
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig();
+        if (redis.getTimeToLive() != null) {
+            defaults = defaults.entryTtl(redis.getTimeToLive());
+        }
+        if (redis.getKeyPrefix() != null) {
+            defaults = defaults.prefixCacheNameWith(redis.getKeyPrefix());
+        }
+        if (!redis.isCacheNullValues()) {
+            defaults = defaults.disableCachingNullValues();
+        }
+        if (!redis.isUseKeyPrefix()) {
+            defaults = defaults.disableKeyPrefix();
+        }
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(factory)
+                .cacheDefaults(defaults);
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        RedisCacheManager manager = builder.build();
+        manager.afterPropertiesSet();
+        return manager;
+    }
+
+    /**
+     * Value types of the caches that get the compact serializer. A cache
+     * missing here keeps default-typed JSON.
+     */
+    static final Map<String, JavaType> CACHE_VALUE_TYPES = Map.of(
+            CacheNames.FEED_POSTS_ALL,
+            TypeFactory.defaultInstance().constructCollectionType(List.class, FeedPostDTO.class),
+            CacheNames.FEED_POST_BY_ID, TypeFactory.defaultInstance().constructType(FeedPostDTO.class),
+            CacheNames.POST_BY_ID, TypeFactory.defaultInstance().constructType(PostDTO.class));
+
+    /**
+     * Redis value serialization: default-typed JSON for every cache, and
+     * with {@code stream.caching.value-format=smile} a
+     * {@link SmileCacheValueSerializer} for each cache in
+     * {@link #CACHE_VALUE_TYPES}, which still reads the JSON entries and
+     * stores each value's ETag with it ({@link ValueTags}). Either way, large values are deflated by a
+     * {@link CompressingRedisSerializer} when compression is enabled.
+     *
+     * <p>Only the value serializer is swapped: every configuration starts
+     * from the builder's defaults, so the {@code spring.cache.redis.*} TTL,
+     * key prefix and null-value setting still apply.</p>
+     */
+    @Bean
+    public RedisCacheManagerBuilderCustomizer redisValueSerializationCustomizer(
+            StreamProperties streamProperties, ObjectProvider<MeterRegistry> meterRegistry, ValueTags valueTags) {
+        StreamProperties.Caching caching = streamProperties.getCaching();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        MeterRegistry meters = registry != null ? registry : new SimpleMeterRegistry();
+        GenericJackson2JsonRedisSerializer json = jsonSerializer();
+        boolean smile = caching.getValueFormat() == StreamProperties.ValueFormat.SMILE;
+        return builder -> {
+            RedisCacheConfiguration base = builder.cacheConfiguration();
+            builder.cacheDefaults(base.serializeValuesWith(
+                    valuePair(compressed(json, "default", caching.getCompression(), meters))));
+            if (smile) {
+                CACHE_VALUE_TYPES.forEach((name, type) -> builder.withCacheConfiguration(name,
+                        base.serializeValuesWith(valuePair(compressed(new SmileCacheValueSerializer(type, json,
+                                valueTags), name, caching.getCompression(), meters)))));
+            }
+        };
+    }
+
+    private static RedisSerializer<Object> compressed(RedisSerializer<Object> serializer, String cacheName,
+                                                      StreamProperties.Compression compression, MeterRegistry meters) {
+        if (!compression.isEnabled()) {
+            return serializer;
+        }
+        return new CompressingRedisSerializer(serializer, (int) compression.getThreshold().toBytes(),
+                compression.getLevel(), cacheName, meters);
+    }
+
+    private static RedisSerializationContext.SerializationPair<Object> valuePair(RedisSerializer<Object> serializer) {
+        return RedisSerializationContext.SerializationPair.fromSerializer(serializer);
+    }
+
+    /** Self-describing JSON: every object and collection carries its class name. */
+    static GenericJackson2JsonRedisSerializer jsonSerializer() {
         ObjectMapper mapper = new ObjectMapper()
                 .registerModule(new JavaTimeModule())
                 .activateDefaultTyping(
@@ -47,11 +218,7 @@ public class CacheConfig {
                                 .build(),
                         ObjectMapper.DefaultTyping.NON_FINAL,
                         JsonTypeInfo.As.PROPERTY);
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(mapper);
-        RedisCacheConfiguration jsonConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofDays(1))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
-        return builder -> builder.cacheDefaults(jsonConfig);
+        return new GenericJackson2JsonRedisSerializer(mapper);
     }
 
     static final class FailOpenCacheErrorHandler extends SimpleCacheErrorHandler {
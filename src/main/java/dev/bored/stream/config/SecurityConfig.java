@@ -5,18 +5,24 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
 
+import java.util.UUID;
+
 /**
  * Spring Security configuration for the Stream REST API.
  *
@@ -31,6 +37,9 @@ public class SecurityConfig {
     @Value("${supabase.jwks-uri}")
     private String jwksUri;
 
+    @Value("${stream.author-user-id}")
+    private String authorUserId;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         return http
@@ -43,7 +52,8 @@ public class SecurityConfig {
                         .httpStrictTransportSecurity(h -> h.includeSubDomains(true).maxAgeInSeconds(31_536_000)))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.GET, "/api/**").permitAll()
-                        .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                        .requestMatchers("/actuator/redisbreaker").access(authorOnly(authorUserId))
                         .requestMatchers("/swagger-ui/**", "/api-docs/**", "/v3/api-docs/**").permitAll()
                         .anyRequest().authenticated()
                 )
@@ -55,6 +65,34 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     * Admits only the single author, the same check as
+     * {@code PostController.AUTHOR_ONLY}, for operational endpoints that
+     * shouldn't be visible to every signed-in user.
+     * <p>
+     * The configured id is parsed once, so it matches the canonical
+     * lower-case form of the JWT subject whatever case or padding it was
+     * written with; a blank or malformed id fails startup rather than
+     * locking the author out.
+     * </p>
+     */
+    static AuthorizationManager<RequestAuthorizationContext> authorOnly(String authorUserId) {
+        if (authorUserId == null || authorUserId.isBlank()) {
+            throw new IllegalStateException("stream.author-user-id must be set");
+        }
+        String author;
+        try {
+            author = UUID.fromString(authorUserId.trim()).toString();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("stream.author-user-id is not a UUID: " + authorUserId, e);
+        }
+        return (authentication, context) -> {
+            Authentication auth = authentication.get();
+            return new AuthorizationDecision(auth != null && auth.isAuthenticated()
+                    && author.equals(auth.getName()));
+        };
+    }
+
     @Bean
     public JwtDecoder jwtDecoder() {
         return NimbusJwtDecoder.withJwkSetUri(jwksUri)
@@ -1,12 +1,23 @@
 package dev.bored.stream.config;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -38,4 +49,413 @@ public class StreamProperties {
      */
     @NotNull
     private UUID authorUserId;
+
+    /** In-process L1 in front of the Redis cache. */
+    @Valid
+    @NotNull
+    private Caching caching = new Caching();
+
+    /** How authenticated users are mirrored into {@code app_user}. */
+    @Valid
+    @NotNull
+    private UserSync userSync = new UserSync();
+
+    /** Cache warm-up after startup, before the instance reports ready. */
+    @Valid
+    @NotNull
+    private Warmup warmup = new Warmup();
+
+    /** Serialized response bodies kept next to cached DTOs. */
+    @Valid
+    @NotNull
+    private RenderedJson renderedJson = new RenderedJson();
+
+    /** Caching headers for CDNs and browsers on public reads. */
+    @Valid
+    @NotNull
+    private EdgeCaching edgeCaching = new EdgeCaching();
+
+    /** Server-sent events of post creates and deletes. */
+    @Valid
+    @NotNull
+    private LiveStream liveStream = new LiveStream();
+
+    /** Rejects unknown post ids before they reach the cache or database. */
+    @Valid
+    @NotNull
+    private ExistenceFilter existenceFilter = new ExistenceFilter();
+
+    /**
+     * Settings for the pre-rendered JSON response bodies, bound from
+     * {@code stream.rendered-json.*}.
+     */
+    @Getter
+    @Setter
+    public static class RenderedJson {
+
+        /** Max rendered bodies held, one per cache name and key. */
+        @Positive
+        private long maximumSize = 1_000;
+
+        /**
+         * Body size from which a gzipped copy is rendered too. Smaller
+         * bodies gain less than the {@code Content-Encoding} overhead.
+         */
+        @NotNull
+        private DataSize gzipThreshold = DataSize.ofKilobytes(1);
+    }
+
+    /**
+     * Settings for shared-cache headers on public reads, bound from
+     * {@code stream.edge-caching.*}.
+     */
+    @Getter
+    @Setter
+    public static class EdgeCaching {
+
+        /**
+         * Response header listing a response's surrogate keys:
+         * {@code Surrogate-Key} for Fastly, {@code Cache-Tag} for
+         * Cloudflare.
+         */
+        @NotBlank
+        private String surrogateKeyHeader = "Surrogate-Key";
+
+        /**
+         * {@code Cache-Control} policy per route name ({@code feed},
+         * {@code feed-post}, {@code posts}, {@code post}). Routes without
+         * an entry send no {@code Cache-Control}.
+         */
+        @Valid
+        @NotNull
+        private Map<String, EdgePolicy> routes = new HashMap<>();
+    }
+
+    /** One route's {@code Cache-Control}; see {@link EdgeCaching#routes}. */
+    @Getter
+    @Setter
+    public static class EdgePolicy {
+
+        /** How long browsers may reuse a response without asking. */
+        @NotNull
+        private Duration maxAge = Duration.ZERO;
+
+        /** How long shared caches may; {@code null} to leave it to {@link #maxAge}. */
+        private Duration sharedMaxAge;
+
+        /** How long a shared cache may serve an expired response while it refetches. */
+        private Duration staleWhileRevalidate;
+
+        /** How long a shared cache may serve an expired response when the origin errors. */
+        private Duration staleIfError;
+    }
+
+    /**
+     * Settings for the live post event stream, bound from
+     * {@code stream.live-stream.*}.
+     */
+    @Getter
+    @Setter
+    public static class LiveStream {
+
+        /** Connections beyond this are refused with 503 until others close. */
+        @Positive
+        private int maxSubscribers = 1000;
+
+        /**
+         * Frames queued per connection before it counts as too slow and
+         * is closed; the client resumes with {@code Last-Event-ID}.
+         */
+        @Positive
+        private int bufferSize = 64;
+
+        /** Recent events kept for {@code Last-Event-ID} resume. */
+        @Positive
+        private int replaySize = 256;
+
+        /** Comment frame interval, which keeps idle proxies from dropping the connection. */
+        @NotNull
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        /**
+         * How long one connection lasts before the server ends it and the
+         * client reconnects; keep it under the platform's request timeout.
+         */
+        @NotNull
+        private Duration connectionTimeout = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Settings for the post-id existence filter, bound from
+     * {@code stream.existence-filter.*}.
+     */
+    @Getter
+    @Setter
+    public static class ExistenceFilter {
+
+        /** Off: every id lookup goes to the cache and database. */
+        private boolean enabled = true;
+
+        /**
+         * How often the live-id bitmap is rebuilt from the database, which
+         * picks up posts created and deleted through other instances. Must
+         * outlast any transaction that creates a post: a rebuild trusts
+         * only ids the previous one had already seen assigned.
+         */
+        @NotNull
+        private Duration rebuildInterval = Duration.ofMinutes(5);
+
+        /** How long an id the database didn't have is answered locally. */
+        @NotNull
+        private Duration negativeTtl = Duration.ofSeconds(30);
+
+        /** Max ids remembered as missing. */
+        @Positive
+        private long negativeMaximumSize = 10_000;
+    }
+
+    /**
+     * Settings for the startup cache warm-up, bound from
+     * {@code stream.warmup.*}.
+     */
+    @Getter
+    @Setter
+    public static class Warmup {
+
+        /** Off: the instance is ready as soon as it has started. */
+        private boolean enabled = true;
+
+        /** How many of the newest live posts to load into {@code post-by-id}. */
+        @Min(0)
+        private int recentPosts = 50;
+
+        /** Max loads running at once, to spare the connection pool. */
+        @Positive
+        private int parallelism = 4;
+
+        /**
+         * Time after which warm-up gives up on what's left and the
+         * instance reports ready anyway.
+         */
+        @NotNull
+        private Duration budget = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Settings for the per-request user sync, bound from
+     * {@code stream.user-sync.*}.
+     */
+    @Getter
+    @Setter
+    public static class UserSync {
+
+        /**
+         * {@code sync} upserts on the request thread before the handler
+         * runs. {@code write-behind} queues the user and lets a background
+         * flusher write them in batches, so a cold user's first GET doesn't
+         * wait on Postgres.
+         */
+        @NotNull
+        private Mode mode = Mode.SYNC;
+
+        /**
+         * Max distinct users waiting to be flushed. When full, new users
+         * are synced inline instead — back-pressure, not data loss.
+         */
+        @Positive
+        private int queueCapacity = 10_000;
+
+        /** Max users written per JDBC batch. */
+        @Positive
+        private int batchSize = 100;
+
+        /** Delay between flusher runs in write-behind mode. */
+        @NotNull
+        private Duration flushInterval = Duration.ofMillis(20);
+
+        /**
+         * Lifetime of the cluster-wide "synced recently" marker in Redis.
+         * Only used when Redis is configured.
+         */
+        @NotNull
+        private Duration clusterMarkerTtl = Duration.ofHours(1);
+    }
+
+    /**
+     * Per-instance L1 cache settings, bound from {@code stream.caching.*}.
+     * Only used when Redis is configured; without it the single local
+     * tier is the whole cache.
+     */
+    @Getter
+    @Setter
+    public static class Caching {
+
+        /** L1 settings for caches without an entry in {@link #l1}. */
+        @Valid
+        @NotNull
+        private L1 l1Defaults = new L1();
+
+        /**
+         * Per-cache L1 settings keyed by cache name. Properties left out
+         * of an entry take the {@link L1} field defaults, not
+         * {@link #l1Defaults}.
+         */
+        @Valid
+        @NotNull
+        private Map<String, L1> l1 = new HashMap<>();
+
+        /**
+         * How long evictions are collected before they're broadcast to
+         * the other instances as one message.
+         */
+        @NotNull
+        private Duration invalidationWindow = Duration.ofMillis(5);
+
+        /**
+         * Lifetime of the cluster-wide lock taken by the instance loading
+         * a missed key. Bounds how long a crashed loader holds others up.
+         */
+        @NotNull
+        private Duration loadLockTtl = Duration.ofSeconds(5);
+
+        /**
+         * How long an instance that finds the load lock taken waits for
+         * the holder's value before loading itself. It stops waiting
+         * early if the lock is released without a value.
+         */
+        @NotNull
+        private Duration loadLockWait = Duration.ofSeconds(2);
+
+        /**
+         * How values of the caches with a known value type are written to
+         * Redis. Other caches always use default-typed JSON.
+         */
+        @NotNull
+        private ValueFormat valueFormat = ValueFormat.SMILE;
+
+        /**
+         * Caches cleared by bumping a generation counter embedded in their
+         * Redis keys, rather than by deleting every key. Old entries expire
+         * by TTL.
+         */
+        @NotNull
+        private Set<String> generational = new HashSet<>();
+
+        /**
+         * How long an instance trusts the generation it last read. Clears
+         * elsewhere normally arrive sooner, over the invalidation bus.
+         */
+        @NotNull
+        private Duration generationRefresh = Duration.ofSeconds(2);
+
+        /** Compression of large Redis cache values. */
+        @Valid
+        @NotNull
+        private Compression compression = new Compression();
+
+        /** Stops calling Redis for a while after repeated failures. */
+        @Valid
+        @NotNull
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+        /**
+         * Returns the L1 settings for one cache.
+         *
+         * @param cacheName the cache name
+         * @return its own settings, or the defaults
+         */
+        public L1 l1For(String cacheName) {
+            return l1.getOrDefault(cacheName, l1Defaults);
+        }
+    }
+
+    /** Size and lifetime of one cache's in-process L1. */
+    @Getter
+    @Setter
+    public static class L1 {
+
+        /** Max entries held per instance. */
+        @Positive
+        private long maximumSize = 1_000;
+
+        /**
+         * Lifetime after write. Keep it short: it bounds staleness when an
+         * invalidation message from another instance is lost.
+         */
+        @NotNull
+        private Duration ttl = Duration.ofSeconds(30);
+
+        /**
+         * Keep evicted entries servable while one background load
+         * rebuilds them, instead of making the next reader wait. Applies
+         * to {@code @Cacheable(sync = true)} reads.
+         */
+        private boolean staleWhileRevalidate = false;
+
+        /**
+         * How long an evicted entry may still be served as stale. Past
+         * this, a reader loads inline as without stale-while-revalidate.
+         */
+        @NotNull
+        private Duration staleTtl = Duration.ofMinutes(5);
+    }
+
+    /** Deflating of Redis cache values; see {@link Caching#compression}. */
+    @Getter
+    @Setter
+    public static class Compression {
+
+        /** Off: every value is stored as the serializer wrote it. */
+        private boolean enabled = true;
+
+        /**
+         * Encoded size from which a value is compressed. Below it the
+         * CPU cost outweighs the bandwidth saved.
+         */
+        @NotNull
+        private DataSize threshold = DataSize.ofKilobytes(4);
+
+        /** Deflate level, 1 (fastest) to 9 (smallest). */
+        @Min(1)
+        @Max(9)
+        private int level = 1;
+    }
+
+    /** Breaker around the Redis cache tier; see {@link Caching#circuitBreaker}. */
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        /** Off: every cache operation tries Redis, as the error handler always did. */
+        private boolean enabled = true;
+
+        /** Consecutive Redis failures, timeouts included, that open the breaker. */
+        @Positive
+        private int failureThreshold = 5;
+
+        /** How long an open breaker skips Redis before letting probes through. */
+        @NotNull
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /**
+         * Calls let through at once while half-open; that many successes
+         * in a row close the breaker, one failure reopens it.
+         */
+        @Positive
+        private int halfOpenProbes = 3;
+    }
+
+    /** Redis cache value encoding; see {@link Caching#valueFormat}. */
+    public enum ValueFormat {
+        /** Default-typed JSON, self-describing and readable in redis-cli. */
+        JSON,
+        /** Untyped Smile behind a format byte; compact and faster to decode. */
+        SMILE
+    }
+
+    /** User-sync strategy; see {@link UserSync#mode}. */
+    public enum Mode {
+        SYNC,
+        WRITE_BEHIND
+    }
 }
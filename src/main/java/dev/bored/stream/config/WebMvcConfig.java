@@ -9,7 +9,9 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 /**
  * Registers Spring MVC interceptors. Currently just the
  * {@link JwtUserSyncInterceptor} which mirrors authenticated Supabase
- * users into the local {@code app_user} table.
+ * users into the local {@code app_user} table. It's registered for every
+ * path but only acts on handlers marked
+ * {@link dev.bored.stream.interceptor.RequiresUserSync}.
  *
  * @author Bored Software Developer
  * @since 2026-04-25
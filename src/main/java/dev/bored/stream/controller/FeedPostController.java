@@ -1,8 +1,13 @@
 package dev.bored.stream.controller;
 
+import dev.bored.stream.cache.EdgeCacheHeaders;
+import dev.bored.stream.cache.RenderedJsonCache;
 import dev.bored.stream.dto.FeedPostDTO;
+import dev.bored.stream.service.CacheNames;
 import dev.bored.stream.service.FeedPostService;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,6 +19,15 @@ import java.util.List;
  * <p>Exposes CRUD endpoints under {@code /api/v1/feed}.
  * GET operations are public; POST/PUT/DELETE require a valid Supabase JWT.</p>
  *
+ * <p>GETs write the cached DTOs' pre-rendered JSON from
+ * {@link RenderedJsonCache} rather than letting Jackson serialize them
+ * on every request, gzipped when the client accepts it. Each carries
+ * the rendered value's ETag, so a poll with a matching
+ * {@code If-None-Match} is answered 304 with no body. They also carry
+ * the route's {@code Cache-Control} and surrogate keys from
+ * {@link EdgeCacheHeaders}, so a CDN can hold them until a write purges
+ * the keys.</p>
+ *
  * @author Bored Software Developer
  * @since 2026-02-15
  */
@@ -23,26 +37,37 @@ import java.util.List;
 public class FeedPostController {
 
     private final FeedPostService feedPostService;
+    private final RenderedJsonCache renderedJsonCache;
+    private final EdgeCacheHeaders edgeCacheHeaders;
 
     /**
      * Returns all feed posts ordered by sort order.
      *
-     * @return list of {@link FeedPostDTO} objects
+     * @param acceptEncoding the client's {@code Accept-Encoding}, if any
+     * @return JSON array of {@link FeedPostDTO} objects, or 304 if unchanged
      */
     @GetMapping
-    public List<FeedPostDTO> getAllPosts() {
-        return feedPostService.getAllPosts();
+    public ResponseEntity<byte[]> getAllPosts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        List<FeedPostDTO> posts = feedPostService.getAllPosts();
+        return renderedJsonCache.render(CacheNames.FEED_POSTS_ALL, "all", posts).toResponse(acceptEncoding,
+                edgeCacheHeaders.headers(EdgeCacheHeaders.FEED_ROUTE, EdgeCacheHeaders.FEED_KEY));
     }
 
     /**
      * Returns a single feed post by its id.
      *
-     * @param postId the unique identifier
-     * @return the matching {@link FeedPostDTO}
+     * @param postId         the unique identifier
+     * @param acceptEncoding the client's {@code Accept-Encoding}, if any
+     * @return the matching {@link FeedPostDTO} as JSON, or 304 if unchanged
      */
     @GetMapping("/{postId}")
-    public FeedPostDTO getPostById(@PathVariable Long postId) {
-        return feedPostService.getPostById(postId);
+    public ResponseEntity<byte[]> getPostById(
+            @PathVariable Long postId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        FeedPostDTO post = feedPostService.getPostById(postId);
+        return renderedJsonCache.render(CacheNames.FEED_POST_BY_ID, postId, post).toResponse(acceptEncoding,
+                edgeCacheHeaders.headers(EdgeCacheHeaders.FEED_POST_ROUTE, EdgeCacheHeaders.feedPostKey(postId)));
     }
 
     /**
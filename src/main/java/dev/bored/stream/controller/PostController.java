@@ -1,16 +1,26 @@
 package dev.bored.stream.controller;
 
+import dev.bored.stream.cache.EdgeCacheHeaders;
+import dev.bored.stream.cache.RenderedJsonCache;
 import dev.bored.stream.dto.CreatePostRequest;
+import dev.bored.stream.dto.PostChangesDTO;
 import dev.bored.stream.dto.PostDTO;
+import dev.bored.stream.dto.PostPageDTO;
+import dev.bored.stream.interceptor.RequiresUserSync;
+import dev.bored.stream.service.CacheNames;
+import dev.bored.stream.service.PostEventStream;
 import dev.bored.stream.service.PostService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * REST controller for v2 posts.
@@ -24,6 +34,14 @@ import org.springframework.web.bind.annotation.*;
  * configured portfolio owner via {@code @PreAuthorize} comparing the
  * JWT {@code sub} to {@code @streamProperties.authorUserId}.</p>
  *
+ * <p>Single-post reads are written from {@link RenderedJsonCache} with
+ * an ETag, so a client revalidating an unchanged post gets a bodiless
+ * 304.</p>
+ *
+ * <p>Public reads carry the route's {@code Cache-Control} and surrogate
+ * keys from {@link EdgeCacheHeaders}; writes purge those keys in
+ * {@link PostService}.</p>
+ *
  * @author Bored Software Developer
  * @since 2026-04-25
  */
@@ -37,6 +55,9 @@ public class PostController {
             "isAuthenticated() and authentication.name == @streamProperties.authorUserId.toString()";
 
     private final PostService postService;
+    private final RenderedJsonCache renderedJsonCache;
+    private final EdgeCacheHeaders edgeCacheHeaders;
+    private final PostEventStream postEventStream;
 
     /**
      * Creates a new post. Author-only.
@@ -47,6 +68,7 @@ public class PostController {
      */
     @PostMapping
     @PreAuthorize(AUTHOR_ONLY)
+    @RequiresUserSync(deferrable = false)
     public ResponseEntity<PostDTO> createPost(
             @AuthenticationPrincipal Jwt jwt,
             @Valid @RequestBody CreatePostRequest req) {
@@ -54,15 +76,64 @@ public class PostController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * Returns one page of the live feed, newest first. Public read.
+     *
+     * @param before opaque cursor from the previous page's {@code nextCursor};
+     *               omit for the first page
+     * @param limit  page size, clamped server-side to at most 50
+     * @return the page and, if more posts exist, the cursor for the next one
+     */
+    @GetMapping
+    public ResponseEntity<PostPageDTO> listPosts(
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok()
+                .headers(edgeCacheHeaders.headers(EdgeCacheHeaders.POSTS_ROUTE, EdgeCacheHeaders.POSTS_KEY))
+                .body(postService.listPosts(before, limit));
+    }
+
+    /**
+     * Returns posts created or deleted since the client's last sync. Public read.
+     *
+     * @param since the previous response's {@code nextToken}; omit to get
+     *              a first token
+     * @return the changes, or {@code resync} if too much changed
+     */
+    @GetMapping("/changes")
+    public PostChangesDTO changesSince(@RequestParam(required = false) String since) {
+        return postService.changesSince(since);
+    }
+
+    /**
+     * Streams post creates and deletes as server-sent events. Public read.
+     *
+     * @param lastEventId the id of the last event the client saw, sent by
+     *                    {@code EventSource} when it reconnects
+     * @return the event stream; 503 if too many clients are connected
+     * @see PostEventStream
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return postEventStream.subscribe(lastEventId);
+    }
+
     /**
      * Returns a single post by id. Public read.
      *
-     * @param postId the post id
-     * @return the post DTO; 404 if missing or soft-deleted
+     * @param postId         the post id
+     * @param acceptEncoding the client's {@code Accept-Encoding}, if any
+     * @return the post as JSON; 304 if it matches {@code If-None-Match};
+     *         404 if missing or soft-deleted
      */
     @GetMapping("/{postId}")
-    public PostDTO getPostById(@PathVariable Long postId) {
-        return postService.getPostById(postId);
+    public ResponseEntity<byte[]> getPostById(
+            @PathVariable Long postId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        PostDTO post = postService.getPostById(postId);
+        return renderedJsonCache.render(CacheNames.POST_BY_ID, postId, post).toResponse(acceptEncoding,
+                edgeCacheHeaders.headers(EdgeCacheHeaders.POST_ROUTE, EdgeCacheHeaders.postKey(postId)));
     }
 
     /**
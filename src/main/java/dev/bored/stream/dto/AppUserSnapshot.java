@@ -0,0 +1,75 @@
+package dev.bored.stream.dto;
+
+import dev.bored.stream.entity.AppUser;
+
+import java.util.UUID;
+
+/**
+ * Immutable, detached copy of an {@code app_user} row.
+ *
+ * <p>This is what the in-process profile cache holds. A JPA entity can't
+ * be shared across threads and requests — it's mutable and tied to the
+ * persistence context that loaded it — so anything that outlives a single
+ * transaction gets this snapshot instead.</p>
+ *
+ * <p>{@link #fingerprint()} condenses the JWT-synced fields into one
+ * {@code long}, so the sync path can tell "claims unchanged" from a
+ * single comparison and remember it long after the snapshot is gone.</p>
+ *
+ * @param userId      Supabase JWT {@code sub}
+ * @param handle      unique, sticky URL handle
+ * @param displayName display name as last synced from the JWT
+ * @param avatarUrl   avatar URL as last synced, may be {@code null}
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public record AppUserSnapshot(UUID userId, String handle, String displayName, String avatarUrl) {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Copies the identity columns out of a (possibly managed) entity.
+     *
+     * @param user the entity to copy
+     * @return the detached snapshot
+     */
+    public static AppUserSnapshot from(AppUser user) {
+        return new AppUserSnapshot(user.getUserId(), user.getHandle(), user.getDisplayName(), user.getAvatarUrl());
+    }
+
+    /**
+     * Fingerprint of this snapshot's synced fields; see
+     * {@link #fingerprint(String, String)}.
+     *
+     * @return the 64-bit fingerprint
+     */
+    public long fingerprint() {
+        return fingerprint(displayName, avatarUrl);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of display name and avatar URL — the two columns
+     * a re-sync can change. A {@code null} avatar hashes differently from
+     * an empty one. Not cryptographic; an accidental collision would only
+     * delay a profile refresh until the next claim change.
+     *
+     * @param displayName resolved display name
+     * @param avatarUrl   resolved avatar URL, may be {@code null}
+     * @return the 64-bit fingerprint
+     */
+    public static long fingerprint(String displayName, String avatarUrl) {
+        long h = FNV_OFFSET_BASIS;
+        h = mix(h, displayName);
+        h = (h ^ (avatarUrl == null ? 0xFFFF_FFFFL : 0L)) * FNV_PRIME;
+        return mix(h, avatarUrl == null ? "" : avatarUrl);
+    }
+
+    private static long mix(long h, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * FNV_PRIME;
+        }
+        // Field separator, so ("ab", "c") and ("a", "bc") differ.
+        return (h ^ s.length()) * FNV_PRIME;
+    }
+}
@@ -0,0 +1,42 @@
+package dev.bored.stream.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Outbound DTO for a delta sync: what changed in the v2 feed since the
+ * client's last {@code nextToken}.
+ *
+ * <p>Applying it is idempotent: add or replace {@code created} posts by
+ * id, drop {@code deleted} ids, keep {@code nextToken} for next time.
+ * Consecutive syncs overlap slightly, so the same change may come twice.
+ * When {@code resync} is set the lists are empty, as too much changed;
+ * refetch the feed instead.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostChangesDTO {
+
+    /** Live posts created since the token, oldest first. */
+    private List<PostDTO> created;
+
+    /** Ids of posts soft-deleted since the token. */
+    private List<Long> deleted;
+
+    /** Opaque token to pass as {@code ?since=} on the next sync. */
+    private String nextToken;
+
+    /** Whether the client should refetch the whole feed instead. */
+    private boolean resync;
+}
@@ -0,0 +1,33 @@
+package dev.bored.stream.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Outbound DTO for one page of the v2 feed.
+ *
+ * <p>{@code nextCursor} is an opaque token the FE passes back as
+ * {@code ?before=} to fetch the following page. It is {@code null} (and
+ * therefore omitted from the JSON) on the last page.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostPageDTO {
+
+    /** Posts on this page, newest first. */
+    private List<PostDTO> items;
+
+    /** Opaque keyset cursor for the next page; absent when this is the last page. */
+    private String nextCursor;
+}
@@ -1,20 +1,24 @@
 package dev.bored.stream.interceptor;
 
 import dev.bored.stream.service.AppUserService;
+import dev.bored.stream.service.AppUserSyncQueue;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 /**
  * Spring MVC interceptor that mirrors the authenticated Supabase user
- * into the local {@code app_user} table on every request.
+ * into the local {@code app_user} table before handlers that need it.
  *
  * <p><b>Why an interceptor and not a servlet filter?</b> By the time the
  * dispatcher hands a request to the interceptor chain, Spring Security
@@ -23,6 +27,11 @@ import org.springframework.web.servlet.HandlerInterceptor;
  * traffic). Interceptors also only fire for routes mapped to a handler,
  * so we don't bother syncing on {@code /actuator/health} pings.</p>
  *
+ * <p><b>Opt-in per handler.</b> Only handlers annotated with
+ * {@link RequiresUserSync} (on the method or its controller) trigger a
+ * sync. The hot public GETs never need an {@code app_user} row, so
+ * authenticated readers there don't pay a cache lookup or a write.</p>
+ *
  * <p><b>Failure semantics: never block the request.</b> If the upsert
  * throws — Postgres unreachable, JWT missing a {@code sub} for some
  * reason, anything — we log at WARN and return {@code true} so the
@@ -30,6 +39,15 @@ import org.springframework.web.servlet.HandlerInterceptor;
  * for a few minutes; that's strictly better than 500ing the GET they
  * actually wanted.</p>
  *
+ * <p>In {@code write-behind} mode the user is handed to
+ * {@link AppUserSyncQueue} instead, and the request doesn't wait on
+ * Postgres at all. If the queue refuses (sync mode, full, shutting down)
+ * we fall back to the inline upsert. Handlers marked
+ * {@code @RequiresUserSync(deferrable = false)} are never queued: any
+ * pending entry is flushed through {@link AppUserSyncQueue#flushNow}
+ * here, before the handler opens its transaction, so a handle collision
+ * on the insert can't poison that transaction.</p>
+ *
  * @author Bored Software Developer
  * @since 2026-04-25
  */
@@ -40,17 +58,37 @@ public class JwtUserSyncInterceptor implements HandlerInterceptor {
     private static final Logger log = LoggerFactory.getLogger(JwtUserSyncInterceptor.class);
 
     private final AppUserService appUserService;
+    private final AppUserSyncQueue appUserSyncQueue;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequiresUserSync sync = requiresUserSync(handler);
+        if (sync == null) {
+            return true;
+        }
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth instanceof JwtAuthenticationToken jwtAuth) {
+            Jwt token = jwtAuth.getToken();
             try {
-                appUserService.upsertFromJwt(jwtAuth.getToken());
+                if (!sync.deferrable()) {
+                    appUserSyncQueue.flushNow(token);
+                } else if (!appUserSyncQueue.offer(token)) {
+                    appUserService.upsertFromJwt(token);
+                }
             } catch (Exception e) {
                 log.warn("User sync failed for sub {} — request continues", jwtAuth.getName(), e);
             }
         }
         return true;
     }
+
+    /** The handler's {@link RequiresUserSync}, from the method or its class, or {@code null}. */
+    private static RequiresUserSync requiresUserSync(Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return null;
+        }
+        RequiresUserSync sync = method.getMethodAnnotation(RequiresUserSync.class);
+        return sync != null ? sync
+                : AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), RequiresUserSync.class);
+    }
 }
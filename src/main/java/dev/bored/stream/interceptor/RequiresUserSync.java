@@ -0,0 +1,38 @@
+package dev.bored.stream.interceptor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts a handler into {@link JwtUserSyncInterceptor}: the caller's
+ * {@code app_user} row is synced from their JWT before it runs.
+ *
+ * <p>Put it on handlers that read or write user-linked data — creating a
+ * post (its {@code author_id} references {@code app_user}), and comments
+ * and likes once those endpoints exist. Everything else, notably the
+ * public feed GETs, skips the sync. On a controller class it applies to
+ * every handler method in it.</p>
+ *
+ * <p>Handlers that need the row to exist when they run set
+ * {@link #deferrable()} to {@code false}: the row is then written before
+ * the handler, even in write-behind mode, and so outside the handler's
+ * transaction. Only deferrable handlers, which neither read nor
+ * reference the row themselves, reach the write-behind queue.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresUserSync {
+
+    /**
+     * Whether the write may be left to the write-behind queue. {@code false}
+     * writes the row on the request thread before the handler runs.
+     */
+    boolean deferrable() default true;
+}
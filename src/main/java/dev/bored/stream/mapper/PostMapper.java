@@ -1,21 +1,21 @@
 package dev.bored.stream.mapper;
 
+import dev.bored.stream.dto.AppUserSnapshot;
 import dev.bored.stream.dto.CreatePostRequest;
 import dev.bored.stream.dto.PostAuthorDTO;
 import dev.bored.stream.dto.PostDTO;
-import dev.bored.stream.entity.AppUser;
 import dev.bored.stream.entity.Post;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 
 /**
- * MapStruct mapper for {@link Post} and {@link AppUser} entities ↔ DTOs.
+ * MapStruct mapper for {@link Post} entities and author snapshots ↔ DTOs.
  *
  * <p>The post-to-DTO mapping takes both the {@link Post} and its author
- * {@link AppUser} as inputs. Author hydration is the caller's
- * responsibility — typically a single batch load of all distinct
- * author ids before mapping a list of posts.</p>
+ * {@link AppUserSnapshot} as inputs. Author hydration is the caller's
+ * responsibility — typically the shared profile cache, with a single
+ * batch load of whichever authors it misses.</p>
  *
  * @author Bored Software Developer
  * @since 2026-04-25
@@ -25,7 +25,7 @@ public interface PostMapper {
 
     /**
      * Builds a {@link PostDTO} from a {@link Post} entity and its
-     * resolved {@link AppUser} author.
+     * resolved author snapshot.
      *
      * @param post   the post entity
      * @param author the author — must match {@code post.authorId}
@@ -37,10 +37,10 @@ public interface PostMapper {
     @Mapping(target = "codeLanguage", source = "post.codeLanguage")
     @Mapping(target = "createdAt", source = "post.createdAt")
     @Mapping(target = "author", source = "author")
-    PostDTO toDTO(Post post, AppUser author);
+    PostDTO toDTO(Post post, AppUserSnapshot author);
 
-    /** Author projection used inside {@link #toDTO(Post, AppUser)}. */
-    PostAuthorDTO toAuthorDTO(AppUser author);
+    /** Author projection used inside {@link #toDTO(Post, AppUserSnapshot)}. */
+    PostAuthorDTO toAuthorDTO(AppUserSnapshot author);
 
     /**
      * Builds a fresh {@link Post} entity from a create request.
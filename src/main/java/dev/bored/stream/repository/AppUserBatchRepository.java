@@ -0,0 +1,29 @@
+package dev.bored.stream.repository;
+
+import dev.bored.stream.entity.AppUser;
+
+import java.util.List;
+
+/**
+ * Custom fragment of {@link AppUserRepository} for multi-row writes that
+ * Spring Data's derived and {@code @Query} methods can't express.
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public interface AppUserBatchRepository {
+
+    /**
+     * Upserts every user in one JDBC batch, with the same semantics as
+     * {@link AppUserRepository#upsert}: insert if new, otherwise refresh
+     * display name and avatar only when they changed. Handles are only
+     * used on insert.
+     *
+     * <p>All-or-nothing: a UNIQUE violation on any row's handle rolls the
+     * whole batch back and surfaces as
+     * {@code DataIntegrityViolationException}.</p>
+     *
+     * @param users rows to write; {@code createdAt} / {@code updatedAt} are ignored
+     */
+    void upsertAll(List<AppUser> users);
+}
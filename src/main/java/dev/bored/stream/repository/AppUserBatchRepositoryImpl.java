@@ -0,0 +1,49 @@
+package dev.bored.stream.repository;
+
+import dev.bored.stream.entity.AppUser;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * {@link JdbcTemplate}-backed implementation of {@link AppUserBatchRepository}.
+ * Picked up by Spring Data through the {@code Impl} suffix convention.
+ *
+ * <p>Postgres-only, like {@link AppUserRepository#upsert}; not exercised
+ * by the H2 slice tests.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@AllArgsConstructor
+class AppUserBatchRepositoryImpl implements AppUserBatchRepository {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO app_user (user_id, handle, display_name, avatar_url, created_at, updated_at)
+            VALUES (?, ?, ?, ?, NOW(), NOW())
+            ON CONFLICT (user_id) DO UPDATE
+                SET display_name = EXCLUDED.display_name,
+                    avatar_url   = EXCLUDED.avatar_url,
+                    updated_at   = NOW()
+                WHERE app_user.display_name IS DISTINCT FROM EXCLUDED.display_name
+                   OR app_user.avatar_url   IS DISTINCT FROM EXCLUDED.avatar_url
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void upsertAll(List<AppUser> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, users, users.size(), (ps, u) -> {
+            ps.setObject(1, u.getUserId());
+            ps.setString(2, u.getHandle());
+            ps.setString(3, u.getDisplayName());
+            ps.setString(4, u.getAvatarUrl());
+        });
+    }
+}
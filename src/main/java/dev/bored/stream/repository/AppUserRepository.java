@@ -2,8 +2,12 @@ package dev.bored.stream.repository;
 
 import dev.bored.stream.entity.AppUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,14 +15,22 @@ import java.util.UUID;
  * Spring Data JPA repository for {@link AppUser} entities.
  *
  * <p>Primary lookup is by {@code user_id} (the Supabase JWT {@code sub}).
- * Handle lookup is exposed for the UNIQUE-constraint check performed
- * when generating a new user's handle at first-write time.</p>
+ * Handle lookups are exposed for generating a new user's handle at
+ * first-write time: {@link #findHandlesStartingWith(String)} fetches a
+ * whole base's suffix space in one query.</p>
+ *
+ * <p>User sync writes through {@link #upsert}, a Postgres-native
+ * {@code INSERT ... ON CONFLICT} that replaces the old find / save /
+ * catch-the-PK-violation dance with one round trip. It is not exercised
+ * by the H2 slice tests — H2 has no {@code ON CONFLICT ... DO UPDATE}.
+ * The write-behind sync path uses the batched variant from
+ * {@link AppUserBatchRepository}.</p>
  *
  * @author Bored Software Developer
  * @since 2026-04-19
  */
 @Repository
-public interface AppUserRepository extends JpaRepository<AppUser, UUID> {
+public interface AppUserRepository extends JpaRepository<AppUser, UUID>, AppUserBatchRepository {
 
     /**
      * Looks up a user by their URL-safe handle.
@@ -30,10 +42,78 @@ public interface AppUserRepository extends JpaRepository<AppUser, UUID> {
 
     /**
      * Returns {@code true} if any user currently holds this handle.
-     * Used when generating candidate handles to find an unused one.
      *
      * @param handle the candidate handle
      * @return whether the handle is already taken
      */
     boolean existsByHandle(String handle);
+
+    /**
+     * Handles that could be {@code base} or one of its numbered variants:
+     * the base itself, plus handles extending it by one to four
+     * characters, the first a non-zero digit ({@code base1} ..
+     * {@code base1000}). That keeps unrelated longer handles
+     * ({@code johnny} for {@code john}) out of the result however short
+     * the base; the caller drops the few that pass but aren't pure
+     * numbers. Bases are sanitised to {@code [a-z0-9-]}, so they never
+     * contain LIKE wildcards.
+     *
+     * @param base the sanitised handle base
+     * @return matching handles, in no particular order
+     */
+    @Query("""
+            SELECT u.handle FROM AppUser u
+            WHERE u.handle = :base
+               OR (u.handle LIKE CONCAT(:base, '%')
+                   AND LENGTH(u.handle) BETWEEN LENGTH(:base) + 1 AND LENGTH(:base) + 4
+                   AND SUBSTRING(u.handle, LENGTH(:base) + 1, 1) BETWEEN '1' AND '9')
+            """)
+    List<String> findHandlesStartingWith(@Param("base") String base);
+
+    /**
+     * Inserts the user, or refreshes display name and avatar if the row
+     * already exists, in a single statement; returns the resulting row.
+     *
+     * <p>The {@code DO UPDATE ... WHERE} clause only fires when display
+     * name or avatar actually changed, so a steady-state re-sync doesn't
+     * bump {@code updated_at} or write a new tuple. When it doesn't fire,
+     * {@code RETURNING} yields nothing, so the trailing {@code UNION ALL}
+     * hands back the untouched existing row instead. {@code handle} is
+     * only used on insert — handles are sticky.</p>
+     *
+     * <p>A UNIQUE violation on {@code handle} (new user whose candidate is
+     * taken) surfaces as {@code DataIntegrityViolationException}. Runs in
+     * its own read-write transaction so the caller can retry with a
+     * different handle.</p>
+     *
+     * @param userId      the Supabase JWT {@code sub}
+     * @param handle      handle to assign if this is an insert
+     * @param displayName resolved display name
+     * @param avatarUrl   resolved avatar URL, may be {@code null}
+     * @return the row as it now stands; empty only if a concurrent insert
+     *         committed after this statement's snapshot was taken
+     */
+    @Transactional
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO app_user (user_id, handle, display_name, avatar_url, created_at, updated_at)
+                VALUES (:userId, :handle, :displayName, :avatarUrl, NOW(), NOW())
+                ON CONFLICT (user_id) DO UPDATE
+                    SET display_name = EXCLUDED.display_name,
+                        avatar_url   = EXCLUDED.avatar_url,
+                        updated_at   = NOW()
+                    WHERE app_user.display_name IS DISTINCT FROM EXCLUDED.display_name
+                       OR app_user.avatar_url   IS DISTINCT FROM EXCLUDED.avatar_url
+                RETURNING *
+            )
+            SELECT * FROM upserted
+            UNION ALL
+            SELECT * FROM app_user
+            WHERE user_id = :userId
+              AND NOT EXISTS (SELECT 1 FROM upserted)
+            """, nativeQuery = true)
+    Optional<AppUser> upsert(@Param("userId") UUID userId,
+                             @Param("handle") String handle,
+                             @Param("displayName") String displayName,
+                             @Param("avatarUrl") String avatarUrl);
 }
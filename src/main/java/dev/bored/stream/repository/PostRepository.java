@@ -2,20 +2,35 @@ package dev.bored.stream.repository;
 
 import dev.bored.stream.entity.Post;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Spring Data JPA repository for {@link Post} entities.
  *
- * <p>Only the basic per-id lookup is exposed in this PR. Keyset-paginated
- * feed queries (chronological and heat-ranked) are added in the
- * post-CRUD PR so the query shape can be designed together with its
- * consumers. Live-vs-tombstone filtering also lives in that PR; the
- * lookup here intentionally returns the raw row so callers can decide
- * whether a soft-deleted post is an error (detail view) or a skip
- * (feed list).</p>
+ * <p>The chronological feed is keyset-paginated over
+ * {@code idx_post_created_live} — {@code (created_at DESC, post_id DESC)
+ * WHERE deleted_at IS NULL}. Both page queries are native SQL so the
+ * row-value comparison and ORDER BY match the index definition exactly;
+ * Postgres then starts the scan at the cursor position and stops after
+ * {@code limit} rows, so page N costs the same as page 1 regardless of
+ * table size. An {@code OFFSET} or an {@code OR}-expanded predicate would
+ * both degrade into walking every newer row first.</p>
+ *
+ * <p>{@link Post} deliberately has no JPA relationship to its author, so
+ * detail reads use an explicit entity join into {@link PostWithAuthor}
+ * — one statement instead of a post lookup followed by an author
+ * lookup.</p>
+ *
+ * <p>Delta sync reads the two halves of "what changed since T"
+ * separately, each over a partial index: creations over
+ * {@code idx_post_created_live}, deletions over
+ * {@code idx_post_deleted_at}.</p>
  *
  * @author Bored Software Developer
  * @since 2026-04-19
@@ -30,4 +45,114 @@ public interface PostRepository extends JpaRepository<Post, Long> {
      * @return the live post, or empty if missing or tombstoned
      */
     Optional<Post> findByPostIdAndDeletedAtIsNull(Long postId);
+
+    /**
+     * Finds a live post together with its author in one statement.
+     *
+     * @param postId the post id
+     * @return the post and author, or empty if the post is missing or tombstoned
+     */
+    @Query("""
+            SELECT new dev.bored.stream.repository.PostWithAuthor(p, u)
+            FROM Post p JOIN AppUser u ON u.userId = p.authorId
+            WHERE p.postId = :postId AND p.deletedAt IS NULL
+            """)
+    Optional<PostWithAuthor> findLiveWithAuthor(@Param("postId") Long postId);
+
+    /**
+     * Ids of the newest live posts, for cache warm-up.
+     *
+     * @param limit max ids to return
+     * @return up to {@code limit} ids, newest first
+     */
+    @Query(value = """
+            SELECT post_id FROM post
+            WHERE deleted_at IS NULL
+            ORDER BY created_at DESC, post_id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findNewestLiveIds(@Param("limit") int limit);
+
+    /**
+     * Ids of every live post, for the existence filter's bitmap.
+     *
+     * @return live post ids, in no particular order
+     */
+    @Query(value = "SELECT post_id FROM post WHERE deleted_at IS NULL", nativeQuery = true)
+    List<Long> findAllLiveIds();
+
+    /**
+     * Highest post id ever assigned, tombstoned rows included.
+     *
+     * @return the highest id, or {@code 0} for an empty table
+     */
+    @Query(value = "SELECT COALESCE(MAX(post_id), 0) FROM post", nativeQuery = true)
+    long findMaxPostId();
+
+    /**
+     * First page of the live feed, newest first.
+     *
+     * @param limit max rows to return
+     * @return up to {@code limit} live posts
+     */
+    @Query(value = """
+            SELECT * FROM post
+            WHERE deleted_at IS NULL
+            ORDER BY created_at DESC, post_id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Post> findLivePage(@Param("limit") int limit);
+
+    /**
+     * Next page of the live feed: posts strictly older than the cursor
+     * position, newest first. Ties on {@code created_at} are broken by
+     * {@code post_id} so no row is skipped or repeated across pages.
+     *
+     * @param createdAt {@code created_at} of the last post already seen
+     * @param postId    {@code post_id} of the last post already seen
+     * @param limit     max rows to return
+     * @return up to {@code limit} live posts after the cursor
+     */
+    @Query(value = """
+            SELECT * FROM post
+            WHERE deleted_at IS NULL
+              AND (created_at, post_id) < (:createdAt, :postId)
+            ORDER BY created_at DESC, post_id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Post> findLivePageBefore(@Param("createdAt") Instant createdAt,
+                                  @Param("postId") Long postId,
+                                  @Param("limit") int limit);
+
+    /**
+     * Live posts created after {@code since}, oldest first, for delta sync.
+     *
+     * @param since exclusive lower bound on {@code created_at}
+     * @param limit max rows to return
+     * @return up to {@code limit} live posts
+     */
+    @Query(value = """
+            SELECT * FROM post
+            WHERE deleted_at IS NULL
+              AND created_at > :since
+            ORDER BY created_at, post_id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Post> findLiveCreatedAfter(@Param("since") Instant since, @Param("limit") int limit);
+
+    /**
+     * Ids of posts soft-deleted after {@code since}, oldest deletion
+     * first, for delta sync.
+     *
+     * @param since exclusive lower bound on {@code deleted_at}
+     * @param limit max ids to return
+     * @return up to {@code limit} post ids
+     */
+    @Query(value = """
+            SELECT post_id FROM post
+            WHERE deleted_at > :since
+            ORDER BY deleted_at, post_id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findIdsDeletedAfter(@Param("since") Instant since, @Param("limit") int limit);
 }
@@ -0,0 +1,17 @@
+package dev.bored.stream.repository;
+
+import dev.bored.stream.entity.AppUser;
+import dev.bored.stream.entity.Post;
+
+/**
+ * Projection row for queries that join {@code post} to {@code app_user}
+ * in a single statement. Both halves are full entities so the result
+ * can go straight through {@code PostMapper#toDTO(Post, AppUser)}.
+ *
+ * @param post   the post row
+ * @param author the author row matching {@code post.authorId}
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public record PostWithAuthor(Post post, AppUser author) {
+}
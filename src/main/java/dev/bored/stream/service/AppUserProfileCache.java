@@ -0,0 +1,99 @@
+package dev.bored.stream.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.bored.stream.dto.AppUserSnapshot;
+import dev.bored.stream.entity.AppUser;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * JVM-local cache of {@link AppUserSnapshot}s, shared by everything that
+ * needs to know "who is this user?".
+ *
+ * <p>Two kinds of callers fill it: the user-sync path
+ * ({@link AppUserService#upsertFromJwt}) after it writes a row, and read
+ * paths that hydrate authors ({@link PostService}, and comment / like
+ * hydration once those land). Either way, the next lookup for that user
+ * is a hash-map hit instead of a Postgres round trip.</p>
+ *
+ * <p>Entries expire an hour after they're written. If a user's claims
+ * change inside that window the new display name shows up late — same
+ * eventual-consistency trade-off the sync path has always made. Bounded
+ * at 10k users, far above the active population of a portfolio site.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component
+public class AppUserProfileCache {
+
+    /** How long a snapshot is trusted before the next request re-syncs / re-reads it. */
+    static final Duration TTL = Duration.ofHours(1);
+
+    private final Cache<UUID, AppUserSnapshot> profiles = Caffeine.newBuilder()
+            .expireAfterWrite(TTL)
+            .maximumSize(10_000)
+            .build();
+
+    /**
+     * Returns the cached snapshot, or {@code null} on a miss. Never loads.
+     *
+     * @param userId the user's Supabase UUID
+     * @return the snapshot, or {@code null}
+     */
+    public AppUserSnapshot getIfPresent(UUID userId) {
+        return profiles.getIfPresent(userId);
+    }
+
+    /**
+     * Returns the cached snapshot, calling {@code loader} on a miss.
+     * Concurrent misses for the same user share one loader call. A
+     * {@code null} from the loader is returned as-is and not cached.
+     *
+     * @param userId the user's Supabase UUID
+     * @param loader fetches the row on a miss
+     * @return the snapshot, or {@code null} if the loader found nothing
+     */
+    public AppUserSnapshot get(UUID userId, Function<UUID, AppUserSnapshot> loader) {
+        return profiles.get(userId, loader);
+    }
+
+    /**
+     * Returns every cached snapshot among {@code userIds}; misses are
+     * simply absent from the result so the caller can batch-load them.
+     *
+     * @param userIds the users to look up
+     * @return cached snapshots keyed by user id
+     */
+    public Map<UUID, AppUserSnapshot> getAllPresent(Collection<UUID> userIds) {
+        return new HashMap<>(profiles.getAllPresent(userIds));
+    }
+
+    /**
+     * Snapshots a freshly written or read row and caches it.
+     *
+     * @param user the entity to snapshot
+     * @return the cached snapshot
+     */
+    public AppUserSnapshot put(AppUser user) {
+        AppUserSnapshot snapshot = AppUserSnapshot.from(user);
+        profiles.put(snapshot.userId(), snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Drops a user so the next lookup goes back to the database.
+     *
+     * @param userId the user's Supabase UUID
+     */
+    public void invalidate(UUID userId) {
+        profiles.invalidate(userId);
+    }
+}
@@ -2,21 +2,29 @@ package dev.bored.stream.service;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.bored.common.exception.GenericException;
+import dev.bored.stream.dto.AppUserSnapshot;
 import dev.bored.stream.entity.AppUser;
 import dev.bored.stream.repository.AppUserRepository;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Keeps the local {@code app_user} mirror in sync with the Supabase JWT.
@@ -27,19 +35,23 @@ import java.util.UUID;
  * insert a row keyed by their JWT {@code sub}; subsequent calls refresh
  * the cached display name and avatar URL from the latest claims.</p>
  *
- * <p><b>Why Caffeine in front:</b> the upsert is cheap individually, but
- * doing it on every single authenticated request would mean a write
- * round-trip to Postgres on every comment, like, and post-fetch. The
- * in-process Caffeine cache records "we synced this user in the last
- * hour" and short-circuits the DB write when the entry is fresh. JVM
- * memory only — each Cloud Run instance has its own copy, so a user
- * could be re-synced up to N times across N instances on a cold burst,
- * which is fine; the upsert is idempotent.</p>
+ * <p><b>Why a cache in front:</b> the upsert is cheap individually, but
+ * doing it on every single authenticated request would mean a round-trip
+ * to Postgres on every comment, like, and post-fetch. The shared
+ * {@link AppUserProfileCache} holds an immutable snapshot of every user
+ * we synced (or read) in the last hour; a hit returns that snapshot with
+ * zero database I/O. JVM memory only — each Cloud Run instance has its
+ * own copy. When Redis is configured, {@link UserSyncMarker} keeps N
+ * instances on a cold burst from writing the same user N times; without
+ * it they do, which is fine, the upsert is idempotent.</p>
  *
- * <p><b>Race safety:</b> two concurrent requests from a brand-new user
- * can both observe the user as missing and both try to INSERT. One wins,
- * the other gets a {@link DataIntegrityViolationException} on the PK.
- * We catch it and re-fetch — by that point the row exists.</p>
+ * <p><b>Race safety:</b> concurrent requests from one user on one
+ * instance share a single in-flight sync. Across instances the write is
+ * a single {@code INSERT ... ON CONFLICT (user_id) DO UPDATE} statement,
+ * so two concurrent syncs of a brand-new user simply serialise on the
+ * row — one inserts, the other takes the update branch. No failed
+ * statement, no re-fetch. The only constraint left to trip is the UNIQUE
+ * handle, handled below with a set-based pick of the lowest free suffix.</p>
  *
  * @author Bored Software Developer
  * @since 2026-04-25
@@ -53,8 +65,21 @@ public class AppUserService {
     /** Upper bound on numeric suffixes when generating a unique handle. */
     private static final int MAX_HANDLE_SUFFIX = 1000;
 
-    /** How long to skip the upsert for a user we just synced. */
-    private static final Duration RECENT_SYNC_TTL = Duration.ofHours(1);
+    /** Digits in {@link #MAX_HANDLE_SUFFIX}; longer numeric tails can't be ours. */
+    private static final int MAX_SUFFIX_DIGITS = 4;
+
+    /**
+     * Generated handles tried for a new user whose base is taken. Each
+     * collision means another instance claimed the slot since we last
+     * read the base, so the index is re-read before the next attempt.
+     */
+    static final int UNIQUE_HANDLE_ATTEMPTS = 3;
+
+    /** How long a written fingerprint is trusted to match the row. */
+    private static final Duration SYNCED_FINGERPRINT_TTL = Duration.ofDays(1);
+
+    /** How long a base's taken-suffix set is trusted before it's re-read. */
+    private static final Duration HANDLE_INDEX_TTL = Duration.ofMinutes(10);
 
     /** Max chars a handle base can occupy, leaves room for a numeric suffix. */
     private static final int MAX_HANDLE_BASE_LENGTH = 30;
@@ -62,79 +87,264 @@ public class AppUserService {
     private final AppUserRepository appUserRepository;
 
     /**
-     * Tracks the last time we synced each user. Caffeine handles eviction;
-     * we never explicitly remove. If a user's claims change inside the
-     * 1-hour window, the change is just delayed — eventual consistency
-     * is fine for display name / avatar.
+     * Shared with the read paths. If a user's claims change inside the
+     * cache's 1-hour window, the change is just delayed — eventual
+     * consistency is fine for display name / avatar.
      */
-    private final Cache<UUID, Instant> recentSyncs = Caffeine.newBuilder()
-            .expireAfterWrite(RECENT_SYNC_TTL)
-            .maximumSize(10_000)
+    private final AppUserProfileCache profileCache;
+
+    /** Cluster-wide "synced recently" marker; inert without Redis. */
+    private final UserSyncMarker syncMarker;
+
+    /**
+     * Fingerprint of the claims last written (or confirmed unchanged) per
+     * user. A {@code long} per entry, so it can outlive the profile
+     * snapshots by a day: steady-state traffic past the snapshot TTL
+     * costs a read, never a write.
+     */
+    private final Cache<UUID, Long> syncedFingerprints = Caffeine.newBuilder()
+            .expireAfterWrite(SYNCED_FINGERPRINT_TTL)
+            .maximumSize(100_000)
+            .build();
+
+    /**
+     * Syncs currently running, by user. A brand-new user's browser fires
+     * several API calls at once; without this each would miss the profile
+     * cache and check out one of the pool's five connections to write
+     * the same row.
+     */
+    private final Map<UUID, CompletableFuture<AppUserSnapshot>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * In-process index of handles known to be taken, keyed by base: bit
+     * {@code n} set means {@code base + n} (or the bare base, for 0) is
+     * in use. Populated by one query per base and updated as we hand out
+     * handles, so a run of sign-ups sharing a popular base like "john"
+     * costs one round trip rather than one probe per candidate. Other
+     * instances' sign-ups make it stale; the UNIQUE constraint catches
+     * that and {@link #upsertWithUniqueHandle} re-reads the entry.
+     */
+    private final Cache<String, BitSet> takenSuffixes = Caffeine.newBuilder()
+            .expireAfterWrite(HANDLE_INDEX_TTL)
+            .maximumSize(1_000)
             .build();
 
     /**
      * Inserts or updates the local {@code app_user} row corresponding to a
      * Supabase JWT.
      *
+     * <p>Fast path: the claims are fingerprinted (display name + avatar,
+     * see {@link AppUserSnapshot#fingerprint(String, String)}). If a
+     * cached snapshot has the same fingerprint we return it without
+     * touching Postgres. If the snapshot has expired but
+     * {@link #syncedFingerprints} says we last wrote exactly these
+     * claims, the row needs no write and we only re-read it. A changed
+     * fingerprint re-syncs straight away instead of waiting out the
+     * cache TTL. After a manual DB wipe the re-read finds nothing and the
+     * row is recreated; call {@link AppUserProfileCache#invalidate} to
+     * get there before the snapshot expires.</p>
+     *
+     * <p>Slow path: one {@link AppUserRepository#upsert} statement. We
+     * optimistically offer the sanitised base handle without probing for
+     * collisions — for an existing user the handle is ignored anyway, and
+     * most new users get their base. Only when a new user's base belongs
+     * to someone else do we pay for {@link #generateUniqueHandle} and a
+     * second statement. Deliberately not {@code @Transactional}: each
+     * upsert commits on its own, so a handle collision doesn't poison the
+     * transaction the retry needs.</p>
+     *
+     * <p>Single flight: concurrent misses for the same user share one
+     * sync through {@link #inFlight}. The first caller runs it; the rest
+     * block on its future and get the same snapshot (or exception).</p>
+     *
      * @param jwt the authenticated Supabase JWT — must have a valid {@code sub}
-     * @return the persisted (or already-up-to-date) {@link AppUser}
+     * @return a snapshot of the persisted (or already-up-to-date) row
      */
-    @Transactional
-    public AppUser upsertFromJwt(Jwt jwt) {
+    public AppUserSnapshot upsertFromJwt(Jwt jwt) {
         UUID userId = UUID.fromString(jwt.getSubject());
+        String displayName = resolveDisplayName(jwt);
+        String avatarUrl = resolveAvatarUrl(jwt);
+        long fingerprint = AppUserSnapshot.fingerprint(displayName, avatarUrl);
 
-        // Fast path: synced recently, the row must exist. If it doesn't
-        // (cache says fresh but row is missing — only happens after a manual
-        // DB wipe), fall through to the slow path.
-        if (recentSyncs.getIfPresent(userId) != null) {
-            Optional<AppUser> cached = appUserRepository.findById(userId);
-            if (cached.isPresent()) {
-                return cached.get();
+        if (knownInSync(userId, fingerprint)) {
+            // Row already holds these claims. The snapshot may have aged
+            // out of the profile cache; re-reading it is not a write.
+            AppUserSnapshot current = profileCache.get(userId, id -> appUserRepository.findById(id)
+                    .map(AppUserSnapshot::from)
+                    .orElse(null));
+            if (current != null) {
+                return current;
             }
-            log.warn("Recent-sync cache hit for {} but no DB row — re-syncing", userId);
-            recentSyncs.invalidate(userId);
+            // Row is gone (manual wipe) — fall through and recreate it.
         }
 
-        String displayName = resolveDisplayName(jwt);
-        String avatarUrl = resolveAvatarUrl(jwt);
+        CompletableFuture<AppUserSnapshot> mine = new CompletableFuture<>();
+        CompletableFuture<AppUserSnapshot> leader = inFlight.putIfAbsent(userId, mine);
+        if (leader != null) {
+            return await(leader);
+        }
+        try {
+            AppUserSnapshot synced = syncOnceInCluster(jwt, userId, displayName, avatarUrl, fingerprint);
+            mine.complete(synced);
+            return synced;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(userId, mine);
+        }
+    }
+
+    /**
+     * Skips the write if another instance already claimed these exact
+     * claims through {@link UserSyncMarker}: the row is read instead. The
+     * read can come back stale if that instance hasn't committed yet, in
+     * which case we write anyway — the upsert is idempotent. A failed
+     * write releases the marker so it doesn't vouch for nothing.
+     */
+    private AppUserSnapshot syncOnceInCluster(Jwt jwt, UUID userId, String displayName, String avatarUrl,
+                                              long fingerprint) {
+        if (syncMarker.claimedElsewhere(userId, fingerprint)) {
+            AppUser row = appUserRepository.findById(userId).orElse(null);
+            if (row != null && AppUserSnapshot.from(row).fingerprint() == fingerprint) {
+                return remember(row);
+            }
+        }
+        try {
+            return sync(jwt, userId, displayName, avatarUrl);
+        } catch (RuntimeException e) {
+            syncMarker.release(userId, fingerprint);
+            throw e;
+        }
+    }
 
+    /** The slow path of {@link #upsertFromJwt}: one upsert, more on a handle collision. */
+    private AppUserSnapshot sync(Jwt jwt, UUID userId, String displayName, String avatarUrl) {
         AppUser saved;
-        Optional<AppUser> existing = appUserRepository.findById(userId);
-        if (existing.isPresent()) {
-            AppUser user = existing.get();
-            // Handles are sticky — never mutate after first insert. They
-            // appear in URLs and UI; changing them retroactively breaks
-            // links and identity.
-            user.setDisplayName(displayName);
-            user.setAvatarUrl(avatarUrl);
-            saved = appUserRepository.save(user);
-        } else {
-            saved = createNewUser(jwt, userId, displayName, avatarUrl);
+        try {
+            saved = upsert(userId, baseHandle(jwt, userId), displayName, avatarUrl);
+        } catch (DataIntegrityViolationException e) {
+            // Only a brand-new user can land here — ON CONFLICT (user_id)
+            // absorbs every other race — and only because their base
+            // handle is taken. Handles are sticky after this insert: they
+            // appear in URLs and UI, so the update branch never touches them.
+            log.debug("Base handle taken for new user {} — retrying with a unique one", userId);
+            saved = upsertWithUniqueHandle(jwt, userId, displayName, avatarUrl);
+        }
+
+        return remember(saved);
+    }
+
+    /**
+     * Whether this user's row is known to hold claims with this
+     * fingerprint: the cached snapshot matches, or — once the snapshot
+     * has expired — the last fingerprint we wrote or confirmed does.
+     */
+    private boolean knownInSync(UUID userId, long fingerprint) {
+        AppUserSnapshot cached = profileCache.getIfPresent(userId);
+        if (cached != null) {
+            return cached.fingerprint() == fingerprint;
+        }
+        Long synced = syncedFingerprints.getIfPresent(userId);
+        return synced != null && synced == fingerprint;
+    }
+
+    /** Caches a freshly written row and records its fingerprint. */
+    private AppUserSnapshot remember(AppUser row) {
+        AppUserSnapshot snapshot = profileCache.put(row);
+        syncedFingerprints.put(snapshot.userId(), snapshot.fingerprint());
+        return snapshot;
+    }
+
+    /**
+     * Waits for another caller's sync of the same user and returns its
+     * result, rethrowing its failure unwrapped.
+     */
+    private static AppUserSnapshot await(CompletableFuture<AppUserSnapshot> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
+    }
 
-        recentSyncs.put(userId, Instant.now());
-        return saved;
+    /**
+     * Whether {@link #upsertFromJwt} would have to write for this JWT,
+     * i.e. the user's row isn't known to hold these claims. Lets the
+     * write-behind queue skip users that are already in sync.
+     *
+     * @param jwt the authenticated Supabase JWT
+     * @return {@code true} if the user still needs to be written
+     */
+    public boolean needsSync(Jwt jwt) {
+        return !knownInSync(UUID.fromString(jwt.getSubject()),
+                AppUserSnapshot.fingerprint(resolveDisplayName(jwt), resolveAvatarUrl(jwt)));
     }
 
     /**
-     * First-write insertion path. Generates a unique handle, persists,
-     * and recovers from the rare race where another request inserted
-     * the same {@code sub} a moment earlier.
+     * Batched {@link #upsertFromJwt} for the write-behind flusher.
+     *
+     * <p>Users already in sync are skipped. The rest go out
+     * as one JDBC batch offering each user's base handle, then are read
+     * back with one {@code IN} query to fill the cache — existing users
+     * keep their sticky handle, so the batch input isn't the truth. If
+     * any new user's base handle is taken the batch rolls back as a
+     * whole and we fall back to {@link #upsertFromJwt} per user, which
+     * knows how to pick a unique handle.</p>
+     *
+     * @param jwts one JWT per user, deduplicated by the caller
      */
-    private AppUser createNewUser(Jwt jwt, UUID userId, String displayName, String avatarUrl) {
-        AppUser user = new AppUser();
-        user.setUserId(userId);
-        user.setDisplayName(displayName);
-        user.setAvatarUrl(avatarUrl);
-        user.setHandle(generateUniqueHandle(jwt, userId));
+    public void upsertAll(Collection<Jwt> jwts) {
+        Map<UUID, Jwt> stale = new LinkedHashMap<>();
+        for (Jwt jwt : jwts) {
+            if (needsSync(jwt)) {
+                stale.put(UUID.fromString(jwt.getSubject()), jwt);
+            }
+        }
+        if (stale.isEmpty()) {
+            return;
+        }
+
+        List<AppUser> rows = new ArrayList<>(stale.size());
+        stale.forEach((userId, jwt) -> {
+            AppUser row = new AppUser();
+            row.setUserId(userId);
+            row.setHandle(baseHandle(jwt, userId));
+            row.setDisplayName(resolveDisplayName(jwt));
+            row.setAvatarUrl(resolveAvatarUrl(jwt));
+            rows.add(row);
+        });
+
         try {
-            return appUserRepository.save(user);
+            appUserRepository.upsertAll(rows);
         } catch (DataIntegrityViolationException e) {
-            // Race: another request beat us to the insert. Whatever they
-            // wrote is fine — re-fetch and return that.
-            log.debug("Concurrent insert for {} — recovering by re-fetch", userId);
-            return appUserRepository.findById(userId).orElseThrow(() -> e);
+            log.debug("Handle collision in batch of {} users — syncing one by one", rows.size());
+            for (Jwt jwt : stale.values()) {
+                try {
+                    upsertFromJwt(jwt);
+                } catch (RuntimeException perUser) {
+                    log.warn("User sync failed for sub {}", jwt.getSubject(), perUser);
+                }
+            }
+            return;
         }
+        appUserRepository.findAllById(stale.keySet()).forEach(this::remember);
+    }
+
+    /**
+     * Runs the single-statement upsert. The statement returns no row only
+     * if a concurrent transaction inserted the user after ours took its
+     * snapshot; a plain re-read covers that.
+     */
+    private AppUser upsert(UUID userId, String handle, String displayName, String avatarUrl) {
+        return appUserRepository.upsert(userId, handle, displayName, avatarUrl)
+                .or(() -> appUserRepository.findById(userId))
+                .orElseThrow(() -> new GenericException(
+                        "app_user upsert returned no row for " + userId,
+                        HttpStatus.INTERNAL_SERVER_ERROR));
     }
 
     /**
@@ -193,23 +403,23 @@ public class AppUserService {
      * Generates a handle that doesn't collide with any existing one.
      *
      * <p>Algorithm: derive a base from email-local-part or display name,
-     * sanitize to {@code [a-z0-9-]}, look up; if taken, append numeric
-     * suffix and retry up to {@link #MAX_HANDLE_SUFFIX} times. Beyond
-     * that we fall back to a UUID-prefixed handle which is guaranteed
-     * to be at most as colliding as the UUID itself.</p>
+     * sanitize to {@code [a-z0-9-]}, then pick the lowest free slot among
+     * {@code base, base1 .. base}{@value #MAX_HANDLE_SUFFIX} using the
+     * {@link #takenSuffixes} index — one query the first time we see a
+     * base, none after that. Beyond the suffix space we fall back to a
+     * UUID-prefixed handle which is guaranteed to be at most as colliding
+     * as the UUID itself.</p>
      */
     String generateUniqueHandle(Jwt jwt, UUID userId) {
-        String base = sanitizeHandle(deriveBaseHandle(jwt));
-        if (base.isEmpty()) {
-            base = "u" + userId.toString().substring(0, 8);
-        }
-        if (!appUserRepository.existsByHandle(base)) {
-            return base;
-        }
-        for (int i = 1; i <= MAX_HANDLE_SUFFIX; i++) {
-            String candidate = base + i;
-            if (!appUserRepository.existsByHandle(candidate)) {
-                return candidate;
+        String base = baseHandle(jwt, userId);
+        BitSet taken = takenSuffixes.get(base, this::loadTakenSuffixes);
+        synchronized (taken) {
+            int free = taken.nextClearBit(0);
+            if (free <= MAX_HANDLE_SUFFIX) {
+                // Reserve it locally so a concurrent sign-up on this
+                // instance with the same base doesn't pick it too.
+                taken.set(free);
+                return free == 0 ? base : base + free;
             }
         }
         // Pathological case — a thousand collisions on the same base.
@@ -218,6 +428,82 @@ public class AppUserService {
         return "u" + userId.toString().substring(0, 8);
     }
 
+    /**
+     * Retry for a new user whose base handle is taken. The base's bit is
+     * set first, as the index may predate whoever took it. If a generated
+     * handle collides too, our index for that base is stale (another
+     * instance claimed the slot since we loaded it): drop it so the next
+     * attempt re-reads from the database, up to
+     * {@value #UNIQUE_HANDLE_ATTEMPTS} attempts.
+     */
+    private AppUser upsertWithUniqueHandle(Jwt jwt, UUID userId, String displayName, String avatarUrl) {
+        String base = baseHandle(jwt, userId);
+        BitSet known = takenSuffixes.getIfPresent(base);
+        if (known != null) {
+            synchronized (known) {
+                known.set(0);
+            }
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return upsert(userId, generateUniqueHandle(jwt, userId), displayName, avatarUrl);
+            } catch (DataIntegrityViolationException e) {
+                takenSuffixes.invalidate(base);
+                if (attempt >= UNIQUE_HANDLE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Generated handle taken for new user {} — re-reading '{}' handles", userId, base);
+            }
+        }
+    }
+
+    /**
+     * Builds the taken-suffix set for a base from one set-based query.
+     * Bit 0 is the bare base; bit {@code n} is {@code base + n}.
+     */
+    private BitSet loadTakenSuffixes(String base) {
+        BitSet taken = new BitSet();
+        for (String handle : appUserRepository.findHandlesStartingWith(base)) {
+            int suffix = suffixOf(base, handle);
+            if (suffix >= 0) {
+                taken.set(suffix);
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Returns the numeric suffix of {@code handle} relative to {@code base}
+     * — 0 for the base itself — or -1 if the handle isn't one we could
+     * generate for this base ({@code johnny} for {@code john}, a leading
+     * zero, or a number past {@link #MAX_HANDLE_SUFFIX}).
+     */
+    static int suffixOf(String base, String handle) {
+        String tail = handle.substring(base.length());
+        if (tail.isEmpty()) {
+            return 0;
+        }
+        if (tail.length() > MAX_SUFFIX_DIGITS || tail.charAt(0) == '0') {
+            return -1;
+        }
+        for (int i = 0; i < tail.length(); i++) {
+            if (tail.charAt(i) < '0' || tail.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        int n = Integer.parseInt(tail);
+        return n <= MAX_HANDLE_SUFFIX ? n : -1;
+    }
+
+    /**
+     * The handle a new user gets if nobody else holds it: the sanitised
+     * seed, or a UUID-prefixed handle when sanitisation leaves nothing.
+     */
+    private String baseHandle(Jwt jwt, UUID userId) {
+        String base = sanitizeHandle(deriveBaseHandle(jwt));
+        return base.isEmpty() ? "u" + userId.toString().substring(0, 8) : base;
+    }
+
     /** Picks the raw seed for a handle, before sanitisation. */
     private String deriveBaseHandle(Jwt jwt) {
         String email = jwt.getClaimAsString("email");
@@ -0,0 +1,210 @@
+package dev.bored.stream.service;
+
+import dev.bored.stream.config.StreamProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer between the request path and {@code app_user}.
+ *
+ * <p>With {@code stream.user-sync.mode=write-behind} the user-sync
+ * interceptor {@link #offer}s the caller's JWT here instead of upserting
+ * inline. Pending users are keyed by UUID, so a burst of requests from
+ * one user is one write, carrying the newest claims. A single daemon
+ * thread drains the map every {@code flush-interval} through
+ * {@link AppUserService#upsertAll}, {@code batch-size} users per JDBC
+ * batch.</p>
+ *
+ * <p>The queue is bounded by {@code queue-capacity}; when it's full,
+ * {@link #offer} refuses and the caller syncs inline. Paths that need the
+ * row to exist before they proceed — a post's {@code author_id} is a
+ * foreign key — call {@link #flushNow} for their own user, outside any
+ * transaction: the handle-collision retry needs each upsert attempt to
+ * commit or roll back on its own.</p>
+ *
+ * <p>Only handlers whose {@code @RequiresUserSync} is deferrable are
+ * queued. None are yet: the one annotated handler, creating a post, is
+ * not deferrable. So for now write-behind mode writes the same rows, at
+ * the same time, as {@code sync}; it takes effect with the first
+ * deferrable handler.</p>
+ *
+ * <p>On shutdown the queue stops accepting work and drains on the flusher
+ * thread. It runs in a phase after the web server's graceful shutdown, so
+ * in-flight requests have already enqueued, and reports completion
+ * asynchronously, so Spring bounds the drain by
+ * {@code spring.lifecycle.timeout-per-shutdown-phase}. In {@code sync}
+ * mode this class is inert.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component
+public class AppUserSyncQueue implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AppUserSyncQueue.class);
+
+    /** Stops after the web server (DEFAULT_PHASE - 1024) has drained requests. */
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final AppUserService appUserService;
+    private final StreamProperties.UserSync config;
+
+    /** Pending users by UUID; a re-offer replaces the claims, newest win. */
+    private final Map<UUID, Jwt> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public AppUserSyncQueue(AppUserService appUserService, StreamProperties streamProperties) {
+        this.appUserService = appUserService;
+        this.config = streamProperties.getUserSync();
+    }
+
+    /**
+     * Queues the JWT's user for a background upsert.
+     *
+     * @param jwt the authenticated Supabase JWT
+     * @return {@code true} if the user is queued or already in sync;
+     *         {@code false} if the caller must sync inline — sync mode,
+     *         queue stopped, or queue full
+     */
+    public boolean offer(Jwt jwt) {
+        if (!isWriteBehind() || !running) {
+            return false;
+        }
+        if (!appUserService.needsSync(jwt)) {
+            return true;
+        }
+        UUID userId = UUID.fromString(jwt.getSubject());
+        if (pending.size() >= config.getQueueCapacity() && !pending.containsKey(userId)) {
+            return false;
+        }
+        pending.put(userId, jwt);
+        return true;
+    }
+
+    /**
+     * Makes sure the JWT's user is written before returning. Removes any
+     * pending entry and upserts on the calling thread, in either mode; if
+     * the user is already in sync this is a profile-cache hit. Call it
+     * with no transaction open.
+     *
+     * @param jwt the authenticated Supabase JWT
+     */
+    public void flushNow(Jwt jwt) {
+        pending.remove(UUID.fromString(jwt.getSubject()));
+        appUserService.upsertFromJwt(jwt);
+    }
+
+    /** Number of users waiting to be flushed. */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Writes at most one batch of pending users.
+     *
+     * @return how many users were taken off the queue
+     */
+    int flushBatch() {
+        int max = config.getBatchSize();
+        List<Jwt> batch = new ArrayList<>(Math.min(max, pending.size()));
+        for (UUID userId : pending.keySet()) {
+            if (batch.size() >= max) {
+                break;
+            }
+            Jwt jwt = pending.remove(userId);
+            if (jwt != null) {
+                batch.add(jwt);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            appUserService.upsertAll(batch);
+        } catch (RuntimeException e) {
+            // Same contract as the inline path: a failed sync never
+            // surfaces. The users re-enqueue on their next request.
+            log.warn("Write-behind flush of {} users failed", batch.size(), e);
+        }
+        return batch.size();
+    }
+
+    /** Flushes batches until the queue is empty. */
+    void drain() {
+        int flushed;
+        do {
+            flushed = flushBatch();
+        } while (flushed > 0);
+    }
+
+    private boolean isWriteBehind() {
+        return config.getMode() == StreamProperties.Mode.WRITE_BEHIND;
+    }
+
+    // ── SmartLifecycle ─────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        if (isWriteBehind()) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "app-user-sync");
+                t.setDaemon(true);
+                return t;
+            });
+            long intervalMs = Math.max(1, config.getFlushInterval().toMillis());
+            flusher.scheduleWithFixedDelay(this::drain, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        drain();
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        running = false;
+        if (flusher == null) {
+            callback.run();
+            return;
+        }
+        log.info("Draining {} pending user syncs", pending.size());
+        flusher.execute(() -> {
+            try {
+                drain();
+            } finally {
+                callback.run();
+            }
+        });
+        flusher.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
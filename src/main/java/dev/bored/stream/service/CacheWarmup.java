@@ -0,0 +1,158 @@
+package dev.bored.stream.service;
+
+import dev.bored.stream.config.StreamProperties;
+import dev.bored.stream.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the caches a cold instance is first asked for, before it takes
+ * traffic.
+ *
+ * <p>On {@link ApplicationReadyEvent} a background thread loads
+ * {@code feed-posts-all} and the {@code stream.warmup.recent-posts}
+ * newest live posts into {@code post-by-id}, by calling the cached
+ * service methods. At most {@code parallelism} loads run at once; when
+ * {@code budget} runs out, what's left is cancelled. A failed load is
+ * only counted — the request path loads it later.</p>
+ *
+ * <p>Also the {@code cacheWarmup} health indicator, a member of the
+ * readiness group: {@code OUT_OF_SERVICE} until warm-up has finished or
+ * run out of budget, then {@code UP} with counts, so the load balancer
+ * doesn't route to a cold instance. Disabled, it is always
+ * {@code UP}.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component("cacheWarmup")
+public class CacheWarmup implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmup.class);
+
+    /** Where warm-up is; only {@link #PENDING} and {@link #RUNNING} hold readiness back. */
+    enum State { PENDING, RUNNING, DONE, OUT_OF_BUDGET, DISABLED }
+
+    private final FeedPostService feedPostService;
+    private final PostService postService;
+    private final PostRepository postRepository;
+    private final StreamProperties.Warmup config;
+
+    private volatile State state = State.PENDING;
+    private final AtomicInteger warmed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile long elapsedMs;
+
+    public CacheWarmup(FeedPostService feedPostService, PostService postService,
+                       PostRepository postRepository, StreamProperties streamProperties) {
+        this.feedPostService = feedPostService;
+        this.postService = postService;
+        this.postRepository = postRepository;
+        this.config = streamProperties.getWarmup();
+    }
+
+    /** Starts warm-up off the event thread, so startup isn't blocked. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!config.isEnabled()) {
+            state = State.DISABLED;
+            return;
+        }
+        state = State.RUNNING;
+        Thread thread = new Thread(this::run, "cache-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Runs warm-up on the calling thread and records the outcome. */
+    void run() {
+        long start = System.nanoTime();
+        long budgetNanos = config.getBudget().toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(config.getParallelism(), r -> {
+            Thread t = new Thread(r, "cache-warmup-load");
+            t.setDaemon(true);
+            return t;
+        });
+        boolean inBudget = true;
+        try {
+            List<Callable<Void>> loads = new ArrayList<>();
+            loads.add(() -> {
+                feedPostService.getAllPosts();
+                return null;
+            });
+            if (config.getRecentPosts() > 0) {
+                for (Long postId : postRepository.findNewestLiveIds(config.getRecentPosts())) {
+                    loads.add(() -> {
+                        postService.getPostById(postId);
+                        return null;
+                    });
+                }
+            }
+            long remaining = budgetNanos - (System.nanoTime() - start);
+            for (Future<Void> load : pool.invokeAll(loads, Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                inBudget &= record(load);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            inBudget = false;
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up failed — serving cold", e);
+        } finally {
+            pool.shutdownNow();
+            elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            state = inBudget ? State.DONE : State.OUT_OF_BUDGET;
+        }
+        log.info("Cache warm-up {} in {} ms: {} loaded, {} failed",
+                state == State.DONE ? "finished" : "ran out of budget", elapsedMs, warmed.get(), failed.get());
+    }
+
+    /** Counts one load; {@code false} if it was cancelled for the budget. */
+    private boolean record(Future<Void> load) throws InterruptedException {
+        if (load.isCancelled()) {
+            return false;
+        }
+        try {
+            load.get();
+            warmed.incrementAndGet();
+        } catch (ExecutionException e) {
+            failed.incrementAndGet();
+            log.debug("Cache warm-up load failed", e.getCause());
+        }
+        return true;
+    }
+
+    State state() {
+        return state;
+    }
+
+    @Override
+    public Health health() {
+        State current = state;
+        Health.Builder health = switch (current) {
+            case PENDING, RUNNING -> Health.outOfService();
+            case DONE, OUT_OF_BUDGET, DISABLED -> Health.up();
+        };
+        health.withDetail("state", current.name().toLowerCase());
+        if (current == State.DONE || current == State.OUT_OF_BUDGET) {
+            health.withDetail("loaded", warmed.get())
+                    .withDetail("failed", failed.get())
+                    .withDetail("elapsedMs", elapsedMs);
+        }
+        return health.build();
+    }
+}
@@ -0,0 +1,49 @@
+package dev.bored.stream.service;
+
+import dev.bored.common.exception.GenericException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Delta-sync position: the time up to which a client has seen changes
+ * to the v2 feed.
+ *
+ * <p>Opaque on the wire, like {@link FeedCursor}, and a malformed token
+ * is a 400 rather than a silent full resync.</p>
+ *
+ * @param since changes after this instant are still to be fetched
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public record ChangeToken(Instant since) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Parses a token produced by {@link #encode()}.
+     *
+     * @param token the {@code since} token from the query string
+     * @return the decoded token
+     * @throws GenericException 400 if the token is not one we issued
+     */
+    public static ChangeToken decode(String token) {
+        try {
+            return new ChangeToken(Instant.parse(new String(DECODER.decode(token), StandardCharsets.UTF_8)));
+        } catch (RuntimeException e) {
+            throw new GenericException("Invalid change token: " + token, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Serialises this token as an opaque, URL-safe string.
+     *
+     * @return the base64url token
+     */
+    public String encode() {
+        return ENCODER.encodeToString(since.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package dev.bored.stream.service;
+
+import dev.bored.common.exception.GenericException;
+import dev.bored.stream.entity.Post;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position in the v2 feed: the {@code (created_at, post_id)} pair
+ * of the last post a client has seen.
+ *
+ * <p>On the wire the pair is base64url-encoded so clients treat it as an
+ * opaque token and we stay free to change its shape later. Decoding
+ * failures surface as a 400 — a mangled cursor is a client error, not
+ * something to paper over by silently restarting from the top.</p>
+ *
+ * @param createdAt the {@code created_at} of the last post seen
+ * @param postId    the {@code post_id} of the last post seen (tie-breaker)
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+public record FeedCursor(Instant createdAt, Long postId) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Cursor pointing just past the given post.
+     *
+     * @param post the last post on the current page
+     * @return the cursor for the following page
+     */
+    public static FeedCursor after(Post post) {
+        return new FeedCursor(post.getCreatedAt(), post.getPostId());
+    }
+
+    /**
+     * Parses a token produced by {@link #encode()}.
+     *
+     * @param token the opaque {@code before} token from the query string
+     * @return the decoded cursor
+     * @throws GenericException 400 if the token is not a cursor we issued
+     */
+    public static FeedCursor decode(String token) {
+        try {
+            String raw = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+            int comma = raw.lastIndexOf(',');
+            if (comma <= 0) {
+                throw new IllegalArgumentException("missing separator");
+            }
+            return new FeedCursor(
+                    Instant.parse(raw.substring(0, comma)),
+                    Long.parseLong(raw.substring(comma + 1)));
+        } catch (RuntimeException e) {
+            throw new GenericException("Invalid feed cursor: " + token, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Serialises this cursor as an opaque, URL-safe token.
+     *
+     * @return the base64url token
+     */
+    public String encode() {
+        return ENCODER.encodeToString((createdAt + "," + postId).getBytes(StandardCharsets.UTF_8));
+    }
+}
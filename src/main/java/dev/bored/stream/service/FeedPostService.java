@@ -1,6 +1,8 @@
 package dev.bored.stream.service;
 
 import dev.bored.common.exception.GenericException;
+import dev.bored.stream.cache.CdnPurger;
+import dev.bored.stream.cache.EdgeCacheHeaders;
 import dev.bored.stream.dto.FeedPostDTO;
 import dev.bored.stream.entity.FeedPost;
 import dev.bored.stream.mapper.FeedPostMapper;
@@ -22,6 +24,12 @@ import java.util.List;
  * transactional context. Read-only methods use a read-only transaction
  * to allow potential database optimisations.</p>
  *
+ * <p>Writes clear {@code feed-posts-all} with {@code allEntries = true}.
+ * With Redis that cache is generational ({@code stream.caching.generational}),
+ * so the clear is a single counter bump however many feed variants are
+ * cached. The same writes purge the CDN's copies through
+ * {@link CdnPurger} once they commit.</p>
+ *
  * @author Bored Software Developer
  * @since 2026-02-15
  */
@@ -31,14 +39,20 @@ public class FeedPostService {
 
     private final FeedPostRepository feedPostRepository;
     private final FeedPostMapper feedPostMapper;
+    private final CdnPurger cdnPurger;
 
     /**
      * Retrieves every feed post, ordered by {@code sort_order} ascending.
      *
+     * <p>Cached with {@code sync = true} so the cache gets the loader:
+     * {@code feed-posts-all} is configured stale-while-revalidate, and
+     * after an edit readers keep the previous list while one background
+     * load rebuilds it.</p>
+     *
      * @return an ordered list of {@link FeedPostDTO} objects
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheNames.FEED_POSTS_ALL, key = "'all'")
+    @Cacheable(value = CacheNames.FEED_POSTS_ALL, key = "'all'", sync = true)
     public List<FeedPostDTO> getAllPosts() {
         return feedPostMapper.toDTOList(feedPostRepository.findAllByOrderBySortOrderAsc());
     }
@@ -46,12 +60,15 @@ public class FeedPostService {
     /**
      * Retrieves a single feed post by its primary key.
      *
+     * <p>{@code sync = true} lets the cache coalesce concurrent misses for
+     * one id into a single load.</p>
+     *
      * @param postId the unique identifier of the post
      * @return the corresponding {@link FeedPostDTO}
      * @throws GenericException if no post exists with the given id (HTTP 404)
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheNames.FEED_POST_BY_ID, key = "#postId")
+    @Cacheable(value = CacheNames.FEED_POST_BY_ID, key = "#postId", sync = true)
     public FeedPostDTO getPostById(Long postId) {
         FeedPost entity = feedPostRepository.findById(postId)
                 .orElseThrow(() -> new GenericException(
@@ -69,7 +86,9 @@ public class FeedPostService {
     @CacheEvict(value = CacheNames.FEED_POSTS_ALL, allEntries = true)
     public FeedPostDTO addPost(FeedPostDTO dto) {
         FeedPost entity = feedPostMapper.toEntity(dto);
-        return feedPostMapper.toDTO(feedPostRepository.save(entity));
+        FeedPostDTO saved = feedPostMapper.toDTO(feedPostRepository.save(entity));
+        cdnPurger.purgeAfterCommit(EdgeCacheHeaders.FEED_KEY);
+        return saved;
     }
 
     /**
@@ -101,7 +120,9 @@ public class FeedPostService {
         existing.setHashtags(dto.getHashtags());
         existing.setSortOrder(dto.getSortOrder());
 
-        return feedPostMapper.toDTO(feedPostRepository.save(existing));
+        FeedPostDTO saved = feedPostMapper.toDTO(feedPostRepository.save(existing));
+        cdnPurger.purgeAfterCommit(EdgeCacheHeaders.FEED_KEY, EdgeCacheHeaders.feedPostKey(postId));
+        return saved;
     }
 
     /**
@@ -119,6 +140,7 @@ public class FeedPostService {
     public boolean deletePost(Long postId) {
         if (feedPostRepository.existsById(postId)) {
             feedPostRepository.deleteById(postId);
+            cdnPurger.purgeAfterCommit(EdgeCacheHeaders.FEED_KEY, EdgeCacheHeaders.feedPostKey(postId));
             return true;
         }
         throw new GenericException("Feed post not found with id: " + postId, HttpStatus.NOT_FOUND);
@@ -0,0 +1,371 @@
+package dev.bored.stream.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.bored.common.exception.GenericException;
+import dev.bored.stream.cache.RedisInvalidationBus;
+import dev.bored.stream.config.StreamProperties;
+import dev.bored.stream.dto.PostDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes post creates and deletes to clients over server-sent events,
+ * so they can hold one connection instead of polling the feed.
+ *
+ * <p>{@link PostService} reports each write once its transaction
+ * commits. Every event gets an id of the form {@code <epoch>-<seq>}:
+ * {@code seq} counts up within this process and {@code epoch} changes
+ * with each start, so an id from before a restart is never mistaken for
+ * a current one. The last {@code replay-size} events are kept in a ring,
+ * and a client reconnecting with {@code Last-Event-ID} is sent what it
+ * missed. If that's no longer in the ring, or came from another epoch,
+ * it gets a {@code reset} event instead and should refetch the feed.</p>
+ *
+ * <p>Each connection has a queue of {@code buffer-size} frames, drained
+ * to the socket on a virtual thread, so a slow client never holds up a
+ * write or the other clients. A connection whose queue fills is closed;
+ * its client reconnects and resumes from the ring. A comment frame
+ * every {@code heartbeat-interval} keeps idle connections alive through
+ * proxies, and connections beyond {@code max-subscribers} are refused
+ * with 503.</p>
+ *
+ * <p>Every write is also relayed to the other instances over the
+ * {@link RedisInvalidationBus} channel, and each one adds what it
+ * receives to its own ring, so a client sees every write whichever
+ * instance it is connected to. Each instance numbers events itself, so
+ * a client that reconnects to a different instance gets a {@code reset}.
+ * Relaying is best effort, like cache invalidation: an event dropped
+ * on the way (Redis down, the circuit open) reaches only the writer's
+ * clients, and the rest pick it up on their next feed fetch.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component
+public class PostEventStream implements SmartLifecycle {
+
+    /** Event name for a new post; data is the {@link PostDTO}. */
+    public static final String CREATED = "post-created";
+
+    /** Event name for a deleted post; data is {@code {"postId": ...}}. */
+    public static final String DELETED = "post-deleted";
+
+    /** Event name telling a resuming client it missed too much to catch up. */
+    public static final String RESET = "reset";
+
+    /** Gauge of open connections. */
+    static final String SUBSCRIBERS_METRIC = "stream.live.subscribers";
+
+    /** Connections closed because their queue filled. */
+    static final String DROPPED_METRIC = "stream.live.dropped";
+
+    /** Bus topic for events relayed between instances. */
+    static final String RELAY_TOPIC = "post-events";
+
+    private static final Logger log = LoggerFactory.getLogger(PostEventStream.class);
+
+    /** One queued frame: an event, or a heartbeat when {@code name} is {@code null}. */
+    private record Frame(long seq, String name, Object data) { }
+
+    private static final Frame HEARTBEAT = new Frame(0, null, null);
+
+    private final StreamProperties.LiveStream config;
+    private final RedisInvalidationBus bus;
+    private final ObjectMapper objectMapper;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Frame[] ring;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Executor writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("post-events-", 0).factory());
+    private final Counter dropped;
+
+    /** Sequence number of the last event; guarded by {@code this}. */
+    private long seq;
+
+    private ScheduledExecutorService heartbeat;
+    private volatile boolean running;
+
+    public PostEventStream(StreamProperties streamProperties, ObjectProvider<MeterRegistry> meterRegistry,
+                           RedisInvalidationBus bus, ObjectMapper objectMapper) {
+        this.config = streamProperties.getLiveStream();
+        this.bus = bus;
+        this.objectMapper = objectMapper;
+        this.ring = new Frame[config.getReplaySize()];
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        MeterRegistry meters = registry != null ? registry : new SimpleMeterRegistry();
+        Gauge.builder(SUBSCRIBERS_METRIC, subscribers, Set::size).register(meters);
+        this.dropped = meters.counter(DROPPED_METRIC);
+        bus.onRelay(RELAY_TOPIC, this::onRelayed);
+    }
+
+    /**
+     * Opens a connection, first replaying what the client missed.
+     *
+     * @param lastEventId the {@code Last-Event-ID} the client reconnected
+     *                    with, or {@code null} on a first connect
+     * @return the emitter for the controller to return
+     * @throws GenericException 503 if {@code max-subscribers} are connected
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(config.getConnectionTimeout().toMillis()));
+        synchronized (this) {
+            if (subscribers.size() >= config.getMaxSubscribers()) {
+                throw new GenericException("Too many live connections, retry later", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            List<Frame> missed = missedSince(lastEventId);
+            if (missed == null) {
+                subscriber.offer(new Frame(seq, RESET, Map.of()));
+            } else {
+                missed.forEach(subscriber::offer);
+            }
+            subscribers.add(subscriber);
+        }
+        SseEmitter emitter = subscriber.emitter;
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Announces a new post once the surrounding transaction commits.
+     *
+     * @param post the created post
+     */
+    public void postCreated(PostDTO post) {
+        afterCommit(() -> publishAndRelay(CREATED, post));
+    }
+
+    /**
+     * Announces a deleted post once the surrounding transaction commits.
+     *
+     * @param postId the deleted post's id
+     */
+    public void postDeleted(Long postId) {
+        afterCommit(() -> publishAndRelay(DELETED, Map.of("postId", postId)));
+    }
+
+    private void publishAndRelay(String name, Object data) {
+        publish(name, data);
+        try {
+            ObjectNode message = objectMapper.createObjectNode();
+            message.put("name", name);
+            message.set("data", objectMapper.valueToTree(data));
+            bus.relay(RELAY_TOPIC, message);
+        } catch (IllegalArgumentException e) {
+            log.warn("Failed to encode {} event for other instances", name, e);
+        }
+    }
+
+    /**
+     * Adds an event written on another instance to this one's ring.
+     *
+     * @param message {@code {"name": ..., "data": ...}} as relayed
+     */
+    void onRelayed(JsonNode message) {
+        String name = message.path("name").asText();
+        JsonNode data = message.get("data");
+        if (data == null || !(CREATED.equals(name) || DELETED.equals(name))) {
+            log.debug("Ignoring unrecognized relayed post event {}", message);
+            return;
+        }
+        publish(name, data);
+    }
+
+    private synchronized void publish(String name, Object data) {
+        Frame frame = new Frame(++seq, name, data);
+        ring[(int) (frame.seq() % ring.length)] = frame;
+        subscribers.forEach(s -> s.offer(frame));
+    }
+
+    /**
+     * Events after {@code lastEventId}: empty for a fresh client or one
+     * that is up to date, {@code null} if they can't all be replayed.
+     * Called with the lock held.
+     */
+    private List<Frame> missedSince(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+        }
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+            return null;
+        }
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (last < 0 || last > seq) {
+            return null;
+        }
+        long count = seq - last;
+        if (count > ring.length || count > config.getBufferSize()) {
+            return null;
+        }
+        List<Frame> missed = new ArrayList<>((int) count);
+        for (long s = last + 1; s <= seq; s++) {
+            missed.add(ring[(int) (s % ring.length)]);
+        }
+        return missed;
+    }
+
+    private void heartbeat() {
+        subscribers.forEach(s -> s.offer(HEARTBEAT));
+    }
+
+    /** Id of the latest event, for tests and diagnostics. */
+    synchronized String lastEventId() {
+        return eventId(seq);
+    }
+
+    private String eventId(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    /** Open connections, for tests and diagnostics. */
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /** One connection: its bounded queue and the emitter it drains to. */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Frame> queue = new ArrayBlockingQueue<>(config.getBufferSize());
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Frame frame) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                if (frame != HEARTBEAT) {
+                    // A heartbeat isn't needed by a connection with a
+                    // backlog; a real event is, so the client must resume.
+                    dropped.increment();
+                    close();
+                }
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Frame frame;
+                while (!closed && (frame = queue.poll()) != null) {
+                    emitter.send(toEvent(frame));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away, or the emitter already completed.
+                closed = true;
+                subscribers.remove(this);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // A frame offered after the last poll but before the flag was
+            // cleared would otherwise wait for the next one.
+            if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            writers.execute(emitter::complete);
+        }
+
+        private SseEmitter.SseEventBuilder toEvent(Frame frame) {
+            if (frame.name() == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event()
+                    .id(eventId(frame.seq()))
+                    .name(frame.name())
+                    .data(frame.data(), MediaType.APPLICATION_JSON);
+        }
+    }
+
+    // ── SmartLifecycle ─────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "post-events-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalMs = Math.max(1, config.getHeartbeatInterval().toMillis());
+        heartbeat.scheduleAtFixedRate(this::heartbeat, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    /** Ends every connection so clients reconnect to another instance. */
+    @Override
+    public void stop() {
+        running = false;
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
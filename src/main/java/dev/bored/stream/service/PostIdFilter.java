@@ -0,0 +1,238 @@
+package dev.bored.stream.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.bored.stream.config.StreamProperties;
+import dev.bored.stream.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers "can this post id exist?" without a query, so lookups of ids
+ * that were never assigned — crawlers walking the id space — are turned
+ * away before the cache and the database.
+ *
+ * <p>Post ids come from an identity sequence, so the live ids fit in a
+ * {@link BitSet} indexed by id: exact, and about one bit per id ever
+ * assigned. The bitmap is built from the database on startup and every
+ * {@code rebuild-interval}, and only trusted up to a mark: the highest
+ * id of the rebuild before. Ids are assigned on insert but committed in
+ * any order, so a rebuild can miss a lower id still in flight; an
+ * interval later that transaction has settled, and the next read saw
+ * it. Everything above the mark is let through — another instance, or
+ * a transaction in flight, may have created it — as is everything until
+ * the second build.</p>
+ *
+ * <p>Local writes never move the mark. {@link PostService} reports them
+ * once the transaction commits: created ids go into a side set that
+ * {@link #mightExist} checks first, deleted ids are cleared from the
+ * bitmap. Other instances' creates are above their mark or in their
+ * next rebuild, so no instance rejects a live post.</p>
+ *
+ * <p>On top of that, ids the database just answered 404 for are
+ * remembered for {@code negative-ttl}; that covers deleted posts still
+ * set in another instance's bitmap and probes above the mark, so the
+ * worst a stale bitmap costs is a query.</p>
+ *
+ * <p>Reads are lock-free against an immutable snapshot; the rare writes
+ * copy the bitmap and swap it in.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component("postIdFilter")
+public class PostIdFilter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PostIdFilter.class);
+
+    /** Live ids as of a rebuild, trusted up to {@code mark}; never mutated once published. */
+    private record Snapshot(BitSet live, long mark) { }
+
+    private final PostRepository postRepository;
+    private final StreamProperties.ExistenceFilter config;
+    private final Cache<Long, Boolean> missing;
+
+    /** {@code null} until the first successful build: let everything through. */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Highest id the last rebuild read; the next one trusts its bitmap up
+     * to here. Guarded by {@code this}.
+     */
+    private long lastMaxId;
+
+    /** Ids this instance created that the snapshot doesn't have yet. */
+    private final Set<Long> created = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService rebuilder;
+    private volatile boolean running;
+
+    public PostIdFilter(PostRepository postRepository, StreamProperties streamProperties) {
+        this.postRepository = postRepository;
+        this.config = streamProperties.getExistenceFilter();
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(config.getNegativeMaximumSize())
+                .expireAfterWrite(config.getNegativeTtl())
+                .build();
+    }
+
+    /**
+     * Whether a lookup of {@code postId} is worth making.
+     *
+     * @param postId the requested id
+     * @return {@code false} only if the post certainly isn't live
+     */
+    public boolean mightExist(Long postId) {
+        if (!config.isEnabled() || postId == null) {
+            return true;
+        }
+        if (postId <= 0 || missing.getIfPresent(postId) != null) {
+            return false;
+        }
+        Snapshot s = snapshot;
+        if (s == null || postId > s.mark() || postId > Integer.MAX_VALUE || created.contains(postId)) {
+            return true;
+        }
+        return s.live().get(postId.intValue());
+    }
+
+    /**
+     * Remembers that the database had no live post under {@code postId}.
+     *
+     * @param postId the id that came back empty
+     */
+    public void recordMissing(Long postId) {
+        if (config.isEnabled() && postId != null) {
+            missing.put(postId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Marks a post live once the surrounding transaction commits.
+     *
+     * @param postId the created post's id
+     */
+    public void markLive(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            missing.invalidate(postId);
+            created.add(postId);
+        });
+    }
+
+    /**
+     * Marks a post gone once the surrounding transaction commits.
+     *
+     * @param postId the deleted post's id
+     */
+    public void markDeleted(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            created.remove(postId);
+            if (config.isEnabled()) {
+                missing.put(postId, Boolean.TRUE);
+            }
+            clear(postId);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private synchronized void clear(long postId) {
+        Snapshot s = snapshot;
+        if (s == null || postId <= 0 || postId > Integer.MAX_VALUE || !s.live().get((int) postId)) {
+            return;
+        }
+        BitSet copy = (BitSet) s.live().clone();
+        copy.clear((int) postId);
+        snapshot = new Snapshot(copy, s.mark());
+    }
+
+    /**
+     * Rebuilds the bitmap from the database. Failures keep the previous
+     * snapshot.
+     */
+    void rebuild() {
+        try {
+            long maxId = postRepository.findMaxPostId();
+            List<Long> ids = postRepository.findAllLiveIds();
+            BitSet live = new BitSet((int) Math.min(maxId + 1, Integer.MAX_VALUE));
+            for (Long id : ids) {
+                if (id != null && id > 0 && id <= Integer.MAX_VALUE) {
+                    live.set(id.intValue());
+                }
+            }
+            long mark;
+            synchronized (this) {
+                mark = Math.min(lastMaxId, maxId);
+                snapshot = new Snapshot(live, mark);
+                lastMaxId = maxId;
+            }
+            created.removeIf(id -> id <= mark && live.get(id.intValue()));
+            log.debug("Post id filter rebuilt: {} live ids, trusted up to {}", ids.size(), mark);
+        } catch (RuntimeException e) {
+            log.warn("Post id filter rebuild failed — keeping the previous bitmap", e);
+        }
+    }
+
+    /** Whether a bitmap has been built yet, for tests and diagnostics. */
+    boolean isBuilt() {
+        return snapshot != null;
+    }
+
+    // ── SmartLifecycle ─────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        if (config.isEnabled()) {
+            rebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "post-id-filter");
+                t.setDaemon(true);
+                return t;
+            });
+            long intervalMs = Math.max(1, config.getRebuildInterval().toMillis());
+            rebuilder.scheduleWithFixedDelay(this::rebuild, 0, intervalMs, TimeUnit.MILLISECONDS);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -1,13 +1,19 @@
 package dev.bored.stream.service;
 
 import dev.bored.common.exception.GenericException;
+import dev.bored.stream.cache.CdnPurger;
+import dev.bored.stream.cache.EdgeCacheHeaders;
+import dev.bored.stream.dto.AppUserSnapshot;
 import dev.bored.stream.dto.CreatePostRequest;
+import dev.bored.stream.dto.PostChangesDTO;
 import dev.bored.stream.dto.PostDTO;
+import dev.bored.stream.dto.PostPageDTO;
 import dev.bored.stream.entity.AppUser;
 import dev.bored.stream.entity.Post;
 import dev.bored.stream.mapper.PostMapper;
 import dev.bored.stream.repository.AppUserRepository;
 import dev.bored.stream.repository.PostRepository;
+import dev.bored.stream.repository.PostWithAuthor;
 import lombok.AllArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -16,8 +22,14 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Business logic for {@code post} CRUD.
@@ -28,13 +40,29 @@ import java.util.UUID;
  * The service trusts that gate and writes the JWT subject straight into
  * {@code post.authorId}.</p>
  *
- * <p>Reads go through {@code @Cacheable(POST_BY_ID)} with the project's
- * default 1-day TTL. Writes evict the affected key. The cached value is
+ * <p>Reads go through {@code @Cacheable(POST_BY_ID, sync = true)} with
+ * the project's default 1-day TTL; {@code sync} hands the load to the
+ * cache, which runs it once per key however many requests miss at once,
+ * cluster-wide with Redis. Writes evict the affected key, and purge the
+ * CDN's copies of it and of the list pages through {@link CdnPurger};
+ * creates and deletes are also pushed to live clients by
+ * {@link PostEventStream}. The cached value is
  * the fully hydrated {@link PostDTO}, including denormalised author
  * fields — that means a display-name change won't show up on this post
  * until the cache TTL expires; acceptable for a single-author site
  * where the author updates their handle approximately never.</p>
  *
+ * <p>The feed list is keyset-paginated (see {@link FeedCursor}) and is
+ * not cached: pages are cheap index range scans, and caching them would
+ * mean evicting every page on every write.</p>
+ *
+ * <p><b>Author hydration never goes per-post.</b> Detail reads join
+ * {@code post} to {@code app_user} in one statement; list pages collect
+ * the distinct author ids and load them with a single {@code IN} query,
+ * so a page costs two statements however many posts it holds. Both
+ * paths go through the shared {@link AppUserProfileCache} first, so in
+ * steady state authors cost no query at all.</p>
+ *
  * @author Bored Software Developer
  * @since 2026-04-25
  */
@@ -42,16 +70,39 @@ import java.util.UUID;
 @AllArgsConstructor
 public class PostService {
 
+    /** Upper bound on page size; larger requests are clamped, not rejected. */
+    static final int MAX_PAGE_SIZE = 50;
+
+    /** Most creates or deletes a delta sync returns before asking for a full resync. */
+    static final int MAX_CHANGES = 200;
+
+    /**
+     * How far a change token lags the clock. Timestamps are stamped
+     * before commit, by whichever instance made the write, so a change
+     * can become visible with a time a little before the moment it was
+     * read; the overlap fetches those again instead of missing them.
+     */
+    static final Duration CHANGES_OVERLAP = Duration.ofSeconds(10);
+
     private final PostRepository postRepository;
     private final AppUserRepository appUserRepository;
     private final PostMapper postMapper;
+    private final AppUserProfileCache profileCache;
+    private final PostIdFilter postIdFilter;
+    private final CdnPurger cdnPurger;
+    private final PostEventStream postEvents;
 
     /**
      * Creates a new post on behalf of the authenticated author.
      *
      * <p>The controller has already gated this endpoint to the configured
      * author UUID via {@code @PreAuthorize}, so we don't re-check here —
-     * we just trust {@code jwt.getSubject()} and persist.</p>
+     * we just trust {@code jwt.getSubject()} and persist. The author's
+     * {@code app_user} row, which {@code post.author_id} references, is
+     * written by the user-sync interceptor before this transaction opens
+     * (the handler is {@code @RequiresUserSync(deferrable = false)}), so a
+     * handle collision on a first sync is retried in its own
+     * transactions rather than aborting this one.</p>
      *
      * @param jwt the validated Supabase JWT of the requester
      * @param req the validated post body
@@ -60,30 +111,133 @@ public class PostService {
     @Transactional
     public PostDTO createPost(Jwt jwt, CreatePostRequest req) {
         UUID authorId = UUID.fromString(jwt.getSubject());
-
         Post entity = postMapper.toEntity(req);
         entity.setAuthorId(authorId);
 
         Post saved = postRepository.save(entity);
-        AppUser author = loadAuthor(authorId);
-        return postMapper.toDTO(saved, author);
+        postIdFilter.markLive(saved.getPostId());
+        cdnPurger.purgeAfterCommit(EdgeCacheHeaders.POSTS_KEY, EdgeCacheHeaders.postKey(saved.getPostId()));
+        PostDTO created = postMapper.toDTO(saved, loadAuthor(authorId));
+        postEvents.postCreated(created);
+        return created;
     }
 
     /**
      * Returns a single live post by id, with author hydrated.
      *
+     * <p>Ids the {@link PostIdFilter} rules out skip the cache (see the
+     * {@code condition}) and are answered 404 here without a query; ids
+     * the database turns out not to have are reported back to it.</p>
+     *
      * @param postId the post id
      * @return the hydrated DTO
      * @throws GenericException 404 if the post is missing or soft-deleted
      */
-    @Cacheable(value = CacheNames.POST_BY_ID, key = "#postId")
+    @Cacheable(value = CacheNames.POST_BY_ID, key = "#postId", sync = true,
+            condition = "@postIdFilter.mightExist(#postId)")
     @Transactional(readOnly = true)
     public PostDTO getPostById(Long postId) {
-        Post post = postRepository.findByPostIdAndDeletedAtIsNull(postId)
-                .orElseThrow(() -> new GenericException(
-                        "Post not found with id: " + postId, HttpStatus.NOT_FOUND));
-        AppUser author = loadAuthor(post.getAuthorId());
-        return postMapper.toDTO(post, author);
+        if (!postIdFilter.mightExist(postId)) {
+            throw postNotFound(postId);
+        }
+        PostWithAuthor row = postRepository.findLiveWithAuthor(postId).orElse(null);
+        if (row == null) {
+            postIdFilter.recordMissing(postId);
+            throw postNotFound(postId);
+        }
+        return postMapper.toDTO(row.post(), profileCache.put(row.author()));
+    }
+
+    /**
+     * Returns one page of live posts, newest first.
+     *
+     * <p>Fetches {@code limit + 1} rows so we know whether another page
+     * exists without a separate COUNT; the extra row is dropped before
+     * mapping.</p>
+     *
+     * @param before opaque cursor from a previous page's {@code nextCursor},
+     *               or {@code null}/blank for the first page
+     * @param limit  requested page size, clamped to {@code [1, MAX_PAGE_SIZE]}
+     * @return the page, with {@code nextCursor} set when more posts exist
+     * @throws GenericException 400 if {@code before} is not a valid cursor
+     */
+    @Transactional(readOnly = true)
+    public PostPageDTO listPosts(String before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Post> rows;
+        if (before == null || before.isBlank()) {
+            rows = postRepository.findLivePage(pageSize + 1);
+        } else {
+            FeedCursor cursor = FeedCursor.decode(before);
+            rows = postRepository.findLivePageBefore(cursor.createdAt(), cursor.postId(), pageSize + 1);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Post> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<UUID, AppUserSnapshot> authors = loadAuthors(page.stream()
+                .map(Post::getAuthorId)
+                .collect(Collectors.toCollection(HashSet::new)));
+        List<PostDTO> items = page.stream()
+                .map(p -> postMapper.toDTO(p, requireAuthor(authors, p.getAuthorId())))
+                .toList();
+
+        return PostPageDTO.builder()
+                .items(items)
+                .nextCursor(hasMore ? FeedCursor.after(page.get(page.size() - 1)).encode() : null)
+                .build();
+    }
+
+    /**
+     * Returns what changed in the feed since a client's last sync: live
+     * posts created since, and ids of posts soft-deleted since.
+     *
+     * <p>Without a token there is nothing to compare against, so the
+     * answer is empty and only carries a token; a client takes one before
+     * its first full fetch. Each half is one range scan over a partial
+     * index. If either holds more than {@link #MAX_CHANGES} rows the
+     * client is told to resync, since refetching the feed is cheaper.</p>
+     *
+     * @param since token from the previous sync's {@code nextToken}, or
+     *              {@code null}/blank to start
+     * @return the changes and the token for the next sync
+     * @throws GenericException 400 if {@code since} is not a valid token
+     */
+    @Transactional(readOnly = true)
+    public PostChangesDTO changesSince(String since) {
+        Instant watermark = Instant.now().minus(CHANGES_OVERLAP);
+        if (since == null || since.isBlank()) {
+            return PostChangesDTO.builder()
+                    .created(List.of())
+                    .deleted(List.of())
+                    .nextToken(new ChangeToken(watermark).encode())
+                    .build();
+        }
+        Instant from = ChangeToken.decode(since).since();
+        // Never hand back a token older than the one we were given.
+        String nextToken = new ChangeToken(watermark.isAfter(from) ? watermark : from).encode();
+
+        List<Post> created = postRepository.findLiveCreatedAfter(from, MAX_CHANGES + 1);
+        List<Long> deleted = postRepository.findIdsDeletedAfter(from, MAX_CHANGES + 1);
+        if (created.size() > MAX_CHANGES || deleted.size() > MAX_CHANGES) {
+            return PostChangesDTO.builder()
+                    .created(List.of())
+                    .deleted(List.of())
+                    .nextToken(new ChangeToken(watermark).encode())
+                    .resync(true)
+                    .build();
+        }
+
+        Map<UUID, AppUserSnapshot> authors = loadAuthors(created.stream()
+                .map(Post::getAuthorId)
+                .collect(Collectors.toCollection(HashSet::new)));
+        return PostChangesDTO.builder()
+                .created(created.stream()
+                        .map(p -> postMapper.toDTO(p, requireAuthor(authors, p.getAuthorId())))
+                        .toList())
+                .deleted(deleted)
+                .nextToken(nextToken)
+                .build();
     }
 
     /**
@@ -99,24 +253,65 @@ public class PostService {
     @CacheEvict(value = CacheNames.POST_BY_ID, key = "#postId")
     public void deletePost(Jwt jwt, Long postId) {
         Post post = postRepository.findByPostIdAndDeletedAtIsNull(postId)
-                .orElseThrow(() -> new GenericException(
-                        "Post not found with id: " + postId, HttpStatus.NOT_FOUND));
+                .orElseThrow(() -> postNotFound(postId));
         post.setDeletedAt(Instant.now());
         postRepository.save(post);
+        postIdFilter.markDeleted(postId);
+        cdnPurger.purgeAfterCommit(EdgeCacheHeaders.POSTS_KEY, EdgeCacheHeaders.postKey(postId));
+        postEvents.postDeleted(postId);
     }
 
     /**
-     * Loads the author row for a post. The author is the configured
-     * portfolio owner, mirrored into {@code app_user} by the user-sync
-     * interceptor on every authenticated request — so the row is
-     * effectively always present. If somehow it isn't, we return a 500
-     * rather than fabricating a placeholder author.
+     * Loads the author for a post, from the profile cache when possible.
+     * The author is the configured portfolio owner, mirrored into
+     * {@code app_user} by the user-sync interceptor on every authenticated
+     * request — so the row is effectively always present. If somehow it
+     * isn't, we return a 500 rather than fabricating a placeholder author.
      */
-    private AppUser loadAuthor(UUID authorId) {
-        return appUserRepository.findById(authorId)
-                .orElseThrow(() -> new GenericException(
-                        "Author row missing for user_id " + authorId
-                                + " — did the user-sync interceptor fire?",
-                        HttpStatus.INTERNAL_SERVER_ERROR));
+    private AppUserSnapshot loadAuthor(UUID authorId) {
+        AppUserSnapshot author = profileCache.get(authorId, id -> appUserRepository.findById(id)
+                .map(AppUserSnapshot::from)
+                .orElse(null));
+        if (author == null) {
+            throw missingAuthor(authorId);
+        }
+        return author;
+    }
+
+    /**
+     * Batch variant of {@link #loadAuthor(UUID)} for list pages: cache
+     * hits first, then one {@code WHERE user_id IN (...)} query for
+     * whichever authors the cache missed. Nothing to load means no query.
+     */
+    private Map<UUID, AppUserSnapshot> loadAuthors(Set<UUID> authorIds) {
+        Map<UUID, AppUserSnapshot> authors = profileCache.getAllPresent(authorIds);
+        Set<UUID> misses = new HashSet<>(authorIds);
+        misses.removeAll(authors.keySet());
+        if (!misses.isEmpty()) {
+            for (AppUser user : appUserRepository.findAllById(misses)) {
+                authors.put(user.getUserId(), profileCache.put(user));
+            }
+        }
+        return authors;
+    }
+
+    /** Looks up a batch-loaded author, with the same 500 as {@link #loadAuthor(UUID)} on a miss. */
+    private static AppUserSnapshot requireAuthor(Map<UUID, AppUserSnapshot> authors, UUID authorId) {
+        AppUserSnapshot author = authors.get(authorId);
+        if (author == null) {
+            throw missingAuthor(authorId);
+        }
+        return author;
+    }
+
+    private static GenericException missingAuthor(UUID authorId) {
+        return new GenericException(
+                "Author row missing for user_id " + authorId
+                        + " — did the user-sync interceptor fire?",
+                HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private static GenericException postNotFound(Long postId) {
+        return new GenericException("Post not found with id: " + postId, HttpStatus.NOT_FOUND);
     }
 }
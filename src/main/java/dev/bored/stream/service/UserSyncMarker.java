@@ -0,0 +1,105 @@
+package dev.bored.stream.service;
+
+import dev.bored.stream.cache.RedisCircuitBreaker;
+import dev.bored.stream.cache.RedisKeys;
+import dev.bored.stream.config.StreamProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Cluster-wide "this user was synced recently" marker, shared through
+ * Redis so N Cloud Run instances don't each write the same user during a
+ * scale-out burst.
+ *
+ * <p>One key per user and claims fingerprint,
+ * {@code <prefix>user-synced::<uuid>:<fingerprint>} (see
+ * {@link RedisKeys}), set with {@code SET NX} and a TTL. Whoever sets it
+ * does the write; everyone else reads. Keying by fingerprint means a changed name or avatar gets
+ * a fresh key and is written promptly.</p>
+ *
+ * <p>Sits behind {@link AppUserService}'s local checks, so the network
+ * hop only happens on a local miss. Optional and fail-open, the same
+ * way {@code CacheConfig.FailOpenCacheErrorHandler} treats the Redis
+ * cache: with no Redis configured, or Redis erroring, every call reports
+ * "not claimed" and the instance syncs on its own, as it did before.
+ * While the {@link RedisCircuitBreaker} is open that answer comes
+ * without a call.</p>
+ *
+ * @author Bored Software Developer
+ * @since 2026-10-17
+ */
+@Component
+public class UserSyncMarker {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSyncMarker.class);
+
+    private final ObjectProvider<StringRedisTemplate> redis;
+    private final RedisCircuitBreaker breaker;
+    private final Duration ttl;
+    private final String keyPrefix;
+
+    public UserSyncMarker(ObjectProvider<StringRedisTemplate> redis, RedisCircuitBreaker breaker,
+                          StreamProperties streamProperties, RedisKeys redisKeys) {
+        this.redis = redis;
+        this.breaker = breaker;
+        this.ttl = streamProperties.getUserSync().getClusterMarkerTtl();
+        this.keyPrefix = redisKeys.prefixed("user-synced::");
+    }
+
+    /**
+     * Marks these claims as synced for the user, unless another caller
+     * already did within the TTL.
+     *
+     * @param userId      the user's Supabase UUID
+     * @param fingerprint claims fingerprint, see {@code AppUserSnapshot#fingerprint}
+     * @return {@code true} only if the marker already existed, i.e. some
+     *         instance has written (or is writing) exactly these claims;
+     *         {@code false} if we set it, or Redis is absent or failing
+     */
+    public boolean claimedElsewhere(UUID userId, long fingerprint) {
+        StringRedisTemplate template = redis.getIfAvailable();
+        if (template == null || !breaker.tryAcquire()) {
+            return false;
+        }
+        try {
+            Boolean set = template.opsForValue().setIfAbsent(key(userId, fingerprint), "1", ttl);
+            breaker.onSuccess();
+            return Boolean.FALSE.equals(set);
+        } catch (RuntimeException e) {
+            breaker.onFailure(e);
+            log.warn("User-sync marker unavailable for {} — syncing locally", userId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Drops the marker after a failed write, so other instances don't
+     * trust a sync that never happened. Best effort.
+     *
+     * @param userId      the user's Supabase UUID
+     * @param fingerprint claims fingerprint the marker was set for
+     */
+    public void release(UUID userId, long fingerprint) {
+        StringRedisTemplate template = redis.getIfAvailable();
+        if (template == null || !breaker.tryAcquire()) {
+            return;
+        }
+        try {
+            template.delete(key(userId, fingerprint));
+            breaker.onSuccess();
+        } catch (RuntimeException e) {
+            breaker.onFailure(e);
+            log.warn("Failed to release user-sync marker for {}", userId, e);
+        }
+    }
+
+    String key(UUID userId, long fingerprint) {
+        return keyPrefix + userId + ":" + Long.toHexString(fingerprint);
+    }
+}
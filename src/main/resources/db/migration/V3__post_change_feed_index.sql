@@ -0,0 +1,14 @@
+-- ============================================================
+-- V3: index for delta sync (GET /api/v1/feed/v2/changes).
+--
+-- A returning client asks for posts created or soft-deleted since
+-- its last sync. The "created" half is already served by
+-- idx_post_created_live from V2, scanned from the far end. The
+-- "deleted" half scans this index instead. It is partial, so it
+-- holds only tombstones and live posts cost nothing to index.
+-- post_id rides along so the query is index-only.
+-- ============================================================
+
+CREATE INDEX idx_post_deleted_at
+    ON post (deleted_at, post_id)
+    WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,134 @@
+package dev.bored.stream.cache;
+
+import dev.bored.stream.config.StreamProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CircuitBreakingCache}: reporting outcomes to the
+ * breaker, bypassing Redis while it's open, and replaying the evictions
+ * that were skipped.
+ */
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakingCacheTest {
+
+    private static final RuntimeException DOWN = new RedisConnectionFailureException("down");
+
+    @Mock private Cache redis;
+    @Mock private ObjectProvider<MeterRegistry> meters;
+
+    private RedisCircuitBreaker breaker;
+    private CircuitBreakingCache cache;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        StreamProperties props = new StreamProperties();
+        props.getCaching().getCircuitBreaker().setFailureThreshold(1);
+        props.getCaching().getCircuitBreaker().setHalfOpenProbes(1);
+        breaker = new RedisCircuitBreaker(props, meters);
+        breaker.ticker = () -> now;
+        cache = new CircuitBreakingCache(redis, breaker);
+    }
+
+    /** Opens the breaker with one failed read. */
+    private void trip() {
+        when(redis.get("k")).thenThrow(DOWN);
+        assertThatThrownBy(() -> cache.get("k")).isSameAs(DOWN);
+        assertThat(breaker.state()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void failuresPropagate_andOpenTheBreaker() {
+        trip();
+
+        assertThat(cache.get("k")).isNull();
+        verify(redis, times(1)).get("k");
+    }
+
+    @Test
+    void loaderFailure_doesNotCountAgainstRedis() {
+        Callable<String> loader = () -> {
+            throw new IllegalStateException("db");
+        };
+        when(redis.get("k", loader)).thenThrow(new Cache.ValueRetrievalException("k", loader, new IllegalStateException()));
+
+        assertThatThrownBy(() -> cache.get("k", loader)).isInstanceOf(Cache.ValueRetrievalException.class);
+        assertThat(breaker.state()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void open_loadsDirectly_andSkipsWrites() {
+        trip();
+
+        assertThat(cache.get("k", () -> "from-db")).isEqualTo("from-db");
+        cache.put("k", "v");
+
+        verify(redis, never()).get(any(), any(Callable.class));
+        verify(redis, never()).put(any(), any());
+    }
+
+    @Test
+    void open_wrapsLoaderFailures_likeACache() {
+        trip();
+
+        assertThatThrownBy(() -> cache.get("k", () -> {
+            throw new IllegalStateException("db");
+        })).isInstanceOf(Cache.ValueRetrievalException.class);
+    }
+
+    @Test
+    void skippedEvictions_areReplayed_whenRedisIsBack() {
+        trip();
+        cache.evict("a");
+        cache.evict("b");
+        assertThat(cache.hasPending()).isTrue();
+        verify(redis, never()).evict(any());
+
+        now += TimeUnit.MINUTES.toNanos(1);
+        doReturn(null).when(redis).get("k");
+        cache.get("k");
+
+        verify(redis).evict("a");
+        verify(redis).evict("b");
+        assertThat(cache.hasPending()).isFalse();
+        assertThat(breaker.state()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedEviction_isOwed_andClearReplacesOwedKeys() {
+        doThrow(DOWN).when(redis).evict("a");
+
+        assertThatThrownBy(() -> cache.evict("a")).isSameAs(DOWN);
+        assertThat(cache.hasPending()).isTrue();
+        cache.clear();
+
+        now += TimeUnit.MINUTES.toNanos(1);
+        when(redis.get("k")).thenReturn(null);
+        cache.get("k");
+
+        verify(redis, times(1)).clear();
+        verify(redis, times(1)).evict("a");
+        assertThat(cache.hasPending()).isFalse();
+    }
+}
@@ -0,0 +1,130 @@
+package dev.bored.stream.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CoalescingCache}: who loads on a miss, waiting on
+ * another instance's load, taking over when it ends empty-handed, and the
+ * fallback when it never lands.
+ */
+@ExtendWith(MockitoExtension.class)
+class CoalescingCacheTest {
+
+    @Mock private LoadLock lock;
+
+    private ConcurrentMapCache shared;
+    private CoalescingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        shared = new ConcurrentMapCache("post-by-id", false);
+        cache = new CoalescingCache(shared, lock, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void hit_skipsTheLock() {
+        shared.put(1L, "one");
+
+        assertThat(cache.get(1L, () -> "loaded")).isEqualTo("one");
+        verifyNoInteractions(lock);
+    }
+
+    @Test
+    void miss_loadsUnderTheLock_andReleasesIt() {
+        when(lock.tryAcquire(eq("post-by-id::1"), anyString())).thenReturn(true);
+
+        assertThat(cache.get(1L, () -> "loaded")).isEqualTo("loaded");
+
+        assertThat(shared.get(1L).get()).isEqualTo("loaded");
+        verify(lock).release(eq("post-by-id::1"), anyString());
+    }
+
+    @Test
+    void miss_releasesTheLock_whenLoadFails() {
+        when(lock.tryAcquire(eq("post-by-id::1"), anyString())).thenReturn(true);
+
+        assertThatThrownBy(() -> cache.get(1L, () -> {
+            throw new IllegalStateException("db down");
+        })).hasRootCauseMessage("db down");
+        verify(lock).release(eq("post-by-id::1"), anyString());
+    }
+
+    @Test
+    void miss_waitsForOtherInstancesLoad_insteadOfLoading() throws Exception {
+        when(lock.tryAcquire(eq("post-by-id::1"), anyString())).thenReturn(false);
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> reader = CompletableFuture.supplyAsync(
+                () -> cache.get(1L, () -> "local-" + loads.incrementAndGet()));
+        Thread.sleep(30);
+        shared.put(1L, "remote");
+
+        assertThat(reader.get(5, TimeUnit.SECONDS)).isEqualTo("remote");
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void miss_loadsItself_whenOtherInstancesLoadNeverLands() {
+        CoalescingCache impatient = new CoalescingCache(shared, lock, Duration.ofMillis(30));
+        when(lock.tryAcquire(eq("post-by-id::1"), anyString())).thenReturn(false);
+
+        assertThat(impatient.get(1L, () -> "loaded")).isEqualTo("loaded");
+        assertThat(shared.get(1L).get()).isEqualTo("loaded");
+    }
+
+    @Test
+    void miss_asksTheSharedTierOnce_beforeLoading() {
+        ConcurrentMapCache spied = spy(shared);
+        CoalescingCache counting = new CoalescingCache(spied, lock, Duration.ofSeconds(2));
+        when(lock.tryAcquire(eq("post-by-id::1"), anyString())).thenReturn(true);
+
+        assertThat(counting.get(1L, () -> "loaded")).isEqualTo("loaded");
+
+        verify(spied, times(1)).get(1L);
+        verify(spied, never()).get(eq(1L), any(Callable.class));
+        verify(spied).put(1L, "loaded");
+    }
+
+    @Test
+    void miss_loadsAtOnce_whenTheHolderReleasesWithoutAValue() {
+        // Held on the first try, free on the next: the holder's load failed.
+        when(lock.tryAcquire(eq("post-by-id::1"), anyString())).thenReturn(false, true);
+        long start = System.nanoTime();
+
+        assertThat(cache.get(1L, () -> "loaded")).isEqualTo("loaded");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        verify(lock).release(eq("post-by-id::1"), anyString());
+    }
+
+    @Test
+    void miss_doesNotStoreNull() {
+        when(lock.tryAcquire(eq("post-by-id::1"), anyString())).thenReturn(true);
+
+        assertThat(cache.get(1L, () -> null)).isNull();
+        assertThat(shared.get(1L)).isNull();
+    }
+}
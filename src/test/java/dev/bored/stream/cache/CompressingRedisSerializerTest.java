@@ -0,0 +1,92 @@
+package dev.bored.stream.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link CompressingRedisSerializer}: the threshold, the
+ * header byte, coexistence with plain entries and the metrics.
+ */
+class CompressingRedisSerializerTest {
+
+    /** Stores {@code byte[]} values as they are. */
+    private static final RedisSerializer<Object> BYTES = new RedisSerializer<>() {
+        @Override
+        public byte[] serialize(Object value) {
+            return (byte[]) value;
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) {
+            return bytes;
+        }
+    };
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final CompressingRedisSerializer serializer =
+            new CompressingRedisSerializer(BYTES, 1024, 1, "feed-posts-all", meters);
+
+    private static byte[] repetitive(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) ('a' + i % 7);
+        }
+        bytes[0] = 0x01;
+        return bytes;
+    }
+
+    @Test
+    void smallValues_areStoredAsTheyAre() {
+        byte[] small = repetitive(100);
+
+        assertThat(serializer.serialize(small)).isSameAs(small);
+        assertThat(meters.get(CompressingRedisSerializer.TIME_METRIC).tag("op", "compress").timer().count())
+                .isZero();
+    }
+
+    @Test
+    void largeValues_areCompressedBehindHeader_andRoundTrip() {
+        byte[] large = repetitive(50_000);
+
+        byte[] stored = serializer.serialize(large);
+
+        assertThat(stored[0]).isEqualTo(CompressingRedisSerializer.FORMAT_DEFLATE);
+        assertThat(stored.length).isLessThan(large.length / 10);
+        assertThat((byte[]) serializer.deserialize(stored)).isEqualTo(large);
+        assertThat(meters.get(CompressingRedisSerializer.RATIO_METRIC).summary().max()).isGreaterThan(10);
+        assertThat(meters.get(CompressingRedisSerializer.TIME_METRIC).tag("op", "decompress").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void incompressibleValues_areStoredAsTheyAre() {
+        byte[] noise = new byte[4096];
+        new Random(42).nextBytes(noise);
+        noise[0] = 0x01;
+
+        assertThat(serializer.serialize(noise)).isSameAs(noise);
+    }
+
+    @Test
+    void plainEntries_passThroughOnRead() {
+        byte[] plain = repetitive(5000);
+
+        assertThat((byte[]) serializer.deserialize(plain)).isSameAs(plain);
+    }
+
+    @Test
+    void corruptCompressedEntry_isASerializationError() {
+        byte[] stored = serializer.serialize(repetitive(50_000));
+        byte[] truncated = Arrays.copyOf(stored, stored.length / 2);
+
+        assertThatThrownBy(() -> serializer.deserialize(truncated)).isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,60 @@
+package dev.bored.stream.cache;
+
+import dev.bored.stream.config.StreamProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link EdgeCacheHeaders}: per-route policies and the
+ * surrogate-key header.
+ */
+class EdgeCacheHeadersTest {
+
+    private StreamProperties props;
+    private EdgeCacheHeaders edge;
+
+    @BeforeEach
+    void setUp() {
+        props = new StreamProperties();
+        StreamProperties.EdgePolicy policy = new StreamProperties.EdgePolicy();
+        policy.setSharedMaxAge(Duration.ofMinutes(1));
+        policy.setStaleWhileRevalidate(Duration.ofMinutes(5));
+        policy.setStaleIfError(Duration.ofDays(1));
+        props.getEdgeCaching().getRoutes().put(EdgeCacheHeaders.FEED_ROUTE, policy);
+        edge = new EdgeCacheHeaders(props);
+    }
+
+    @Test
+    void headers_useTheRoutePolicy_andJoinKeys() {
+        HttpHeaders headers = edge.headers(EdgeCacheHeaders.FEED_ROUTE, "feed", "feed-post-1");
+
+        assertThat(headers.getCacheControl())
+                .isEqualTo("max-age=0, public, s-maxage=60, stale-if-error=86400, stale-while-revalidate=300");
+        assertThat(headers.getFirst("Surrogate-Key")).isEqualTo("feed feed-post-1");
+    }
+
+    @Test
+    void headers_withoutPolicy_sendOnlyKeys_underTheConfiguredHeader() {
+        props.getEdgeCaching().setSurrogateKeyHeader("Cache-Tag");
+        edge = new EdgeCacheHeaders(props);
+
+        HttpHeaders headers = edge.headers(EdgeCacheHeaders.POST_ROUTE, EdgeCacheHeaders.postKey(7L));
+
+        assertThat(headers.getCacheControl()).isNull();
+        assertThat(headers.getFirst("Cache-Tag")).isEqualTo("post-7");
+    }
+
+    @Test
+    void zeroStaleWindows_areLeftOut() {
+        StreamProperties.EdgePolicy policy = new StreamProperties.EdgePolicy();
+        policy.setMaxAge(Duration.ofSeconds(10));
+        policy.setStaleWhileRevalidate(Duration.ZERO);
+
+        assertThat(EdgeCacheHeaders.cacheControl(policy).getHeaderValue()).isEqualTo("max-age=10, public");
+    }
+}
@@ -0,0 +1,113 @@
+package dev.bored.stream.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link GenerationalCache}: versioned keys, clearing by
+ * bumping the generation, and degrading when the store fails.
+ */
+class GenerationalCacheTest {
+
+    private ConcurrentMapCache shared;
+    private GenerationStore store;
+    private GenerationalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        shared = spy(new ConcurrentMapCache("feed-posts-all", false));
+        store = GenerationStore.local();
+        cache = new GenerationalCache(shared, store, Duration.ofHours(1));
+    }
+
+    @Test
+    void keys_carryTheGeneration() {
+        cache.put("all", "v1");
+
+        assertThat(shared.get("g0:all").get()).isEqualTo("v1");
+        assertThat(cache.get("all").get()).isEqualTo("v1");
+    }
+
+    @Test
+    void clear_bumpsGeneration_withoutDeletingKeys() {
+        cache.put("all", "v1");
+        cache.put("page-2", "p2");
+
+        cache.clear();
+
+        assertThat(cache.get("all")).isNull();
+        assertThat(cache.get("page-2")).isNull();
+        assertThat(store.current("feed-posts-all")).isEqualTo(1);
+        // Superseded entries stay until the L2 TTL drops them.
+        assertThat(shared.get("g0:all")).isNotNull();
+        verify(shared, never()).clear();
+    }
+
+    @Test
+    void getWithLoader_loadsUnderCurrentGeneration() {
+        cache.clear();
+
+        assertThat(cache.get("all", () -> "v2")).isEqualTo("v2");
+        assertThat(shared.get("g1:all").get()).isEqualTo("v2");
+    }
+
+    @Test
+    void remoteClear_isSeen_afterForgetGeneration() {
+        cache.put("all", "v1");
+        store.next("feed-posts-all");
+
+        // Still trusting the generation it read.
+        assertThat(cache.get("all")).isNotNull();
+
+        cache.forgetGeneration();
+        assertThat(cache.get("all")).isNull();
+    }
+
+    @Test
+    void generation_isReRead_afterRefreshInterval() throws InterruptedException {
+        GenerationalCache quick = new GenerationalCache(shared, store, Duration.ofMillis(10));
+        quick.put("all", "v1");
+        store.next("feed-posts-all");
+
+        Thread.sleep(30);
+
+        assertThat(quick.get("all")).isNull();
+    }
+
+    @Test
+    void unreadableStore_keepsLastKnownGeneration() {
+        GenerationStore flaky = mock(GenerationStore.class);
+        when(flaky.current("feed-posts-all")).thenReturn(3L).thenThrow(new IllegalStateException("down"));
+        GenerationalCache degraded = new GenerationalCache(shared, flaky, Duration.ZERO);
+
+        degraded.put("all", "v1");
+
+        assertThat(shared.get("g3:all")).isNotNull();
+        assertThat(degraded.get("all").get()).isEqualTo("v1");
+    }
+
+    @Test
+    void clear_fallsBackToDeletingKeys_whenBumpFails() {
+        GenerationStore broken = mock(GenerationStore.class);
+        doThrow(new IllegalStateException("down")).when(broken).next("feed-posts-all");
+        Cache degraded = new GenerationalCache(shared, broken, Duration.ofHours(1));
+        degraded.put("all", "v1");
+
+        degraded.clear();
+
+        verify(shared).clear();
+        assertThat(degraded.get("all")).isNull();
+    }
+}
@@ -0,0 +1,55 @@
+package dev.bored.stream.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link LocalCdnPurger} and the after-commit deferral
+ * in {@link CdnPurger#purgeAfterCommit}.
+ */
+class LocalCdnPurgerTest {
+
+    private final LocalCdnPurger purger = new LocalCdnPurger();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void purgeAfterCommit_outsideTransaction_purgesNow() {
+        purger.purgeAfterCommit("feed", "feed-post-1");
+
+        assertThat(purger.purged()).containsExactly("feed", "feed-post-1");
+    }
+
+    @Test
+    void purgeAfterCommit_insideTransaction_waitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        purger.purgeAfterCommit("posts");
+        assertThat(purger.purged()).isEmpty();
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(purger.purged()).containsExactly("posts");
+    }
+
+    @Test
+    void purged_keepsOnlyTheMostRecentKeys() {
+        for (int i = 0; i < LocalCdnPurger.HISTORY + 1; i++) {
+            purger.purge(List.of("post-" + i));
+        }
+
+        assertThat(purger.purged()).hasSize(LocalCdnPurger.HISTORY).first().isEqualTo("post-1");
+    }
+}
@@ -0,0 +1,118 @@
+package dev.bored.stream.cache;
+
+import dev.bored.stream.config.StreamProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link RedisCircuitBreaker}: opening after consecutive
+ * failures, the half-open probe trickle, and the exported state.
+ */
+class RedisCircuitBreakerTest {
+
+    private static final RuntimeException DOWN = new RedisConnectionFailureException("down");
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private StreamProperties props;
+    private RedisCircuitBreaker breaker;
+    private long now;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        props = new StreamProperties();
+        StreamProperties.CircuitBreaker config = props.getCaching().getCircuitBreaker();
+        config.setFailureThreshold(3);
+        config.setOpenDuration(Duration.ofSeconds(30));
+        config.setHalfOpenProbes(2);
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(meters);
+        breaker = new RedisCircuitBreaker(props, provider);
+        breaker.ticker = () -> now;
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure(DOWN);
+        }
+    }
+
+    @Test
+    void opens_afterConsecutiveFailures_only() {
+        fail(2);
+        breaker.tryAcquire();
+        breaker.onSuccess();
+        fail(2);
+        assertThat(breaker.state()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+
+        fail(1);
+
+        assertThat(breaker.state()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(meters.counter(RedisCircuitBreaker.REJECTED_METRIC).count()).isEqualTo(1);
+        assertThat(meters.get(RedisCircuitBreaker.STATE_METRIC).gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void halfOpen_admitsLimitedProbes_andClosesAfterEnoughSuccesses() {
+        fail(3);
+        now += TimeUnit.SECONDS.toNanos(30);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.state()).isEqualTo(RedisCircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void halfOpen_reopensOnProbeFailure() {
+        fail(3);
+        now += TimeUnit.SECONDS.toNanos(30);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure(DOWN);
+
+        assertThat(breaker.state()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.status().retryInMs()).isEqualTo(30_000);
+    }
+
+    @Test
+    void disabled_neverOpens() {
+        props.getCaching().getCircuitBreaker().setEnabled(false);
+
+        fail(10);
+
+        assertThat(breaker.state()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void status_reportsStreak_whileClosed() {
+        fail(2);
+
+        RedisCircuitBreaker.Status status = breaker.status();
+
+        assertThat(status.state()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(status.consecutiveFailures()).isEqualTo(2);
+        assertThat(status.retryInMs()).isNull();
+    }
+}
@@ -0,0 +1,95 @@
+package dev.bored.stream.cache;
+
+import dev.bored.stream.config.StreamProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link RedisGenerationStore}: GET and INCR on the
+ * per-cache counter key, and the circuit breaker.
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisGenerationStoreTest {
+
+    private static final String KEY = "stream-svc::cache-gen::feed-posts-all";
+
+    @Mock private ObjectProvider<StringRedisTemplate> provider;
+    @Mock private StringRedisTemplate template;
+    @Mock private ValueOperations<String, String> ops;
+    @Mock private ObjectProvider<MeterRegistry> meters;
+
+    private StreamProperties props;
+    private RedisGenerationStore store;
+
+    @BeforeEach
+    void setUp() {
+        props = new StreamProperties();
+        props.getCaching().getCircuitBreaker().setFailureThreshold(1);
+        CacheProperties cache = new CacheProperties();
+        cache.getRedis().setKeyPrefix("stream-svc::");
+        store = new RedisGenerationStore(provider, new RedisCircuitBreaker(props, meters), new RedisKeys(cache));
+    }
+
+    @Test
+    void current_isZero_untilFirstBump() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.opsForValue()).thenReturn(ops);
+        when(ops.get(KEY)).thenReturn(null);
+
+        assertThat(store.current("feed-posts-all")).isZero();
+    }
+
+    @Test
+    void current_readsCounter() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.opsForValue()).thenReturn(ops);
+        when(ops.get(KEY)).thenReturn("42");
+
+        assertThat(store.current("feed-posts-all")).isEqualTo(42);
+    }
+
+    @Test
+    void next_incrementsCounter() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.opsForValue()).thenReturn(ops);
+        when(ops.increment(KEY)).thenReturn(43L);
+
+        assertThat(store.next("feed-posts-all")).isEqualTo(43);
+    }
+
+    @Test
+    void withoutRedis_currentIsZero_andNextFails() {
+        when(provider.getIfAvailable()).thenReturn(null);
+
+        assertThat(store.current("feed-posts-all")).isZero();
+        assertThatThrownBy(() -> store.next("feed-posts-all")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void failsFast_withoutCallingRedis_onceBreakerOpens() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.opsForValue()).thenReturn(ops);
+        when(ops.get(KEY)).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThatThrownBy(() -> store.current("feed-posts-all")).isInstanceOf(RedisConnectionFailureException.class);
+        assertThatThrownBy(() -> store.current("feed-posts-all"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("circuit open");
+        verify(ops, times(1)).get(KEY);
+    }
+}
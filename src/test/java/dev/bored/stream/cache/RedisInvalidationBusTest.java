@@ -0,0 +1,129 @@
+package dev.bored.stream.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.bored.stream.config.StreamProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link RedisInvalidationBus}: coalescing of pending
+ * events, and applying peers' messages and relayed messages. Publishing needs a live Redis and
+ * is not covered here.
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisInvalidationBusTest {
+
+    @Mock private ObjectProvider<RedisConnectionFactory> redisConnectionFactory;
+    @Mock private ObjectProvider<CacheManager> cacheManagerProvider;
+    @Mock private TwoTierCacheManager cacheManager;
+    @Mock private ObjectProvider<MeterRegistry> meters;
+
+    private RedisInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        StreamProperties props = new StreamProperties();
+        bus = new RedisInvalidationBus(redisConnectionFactory, cacheManagerProvider,
+                new RedisCircuitBreaker(props, meters), props, new RedisKeys(new CacheProperties()));
+    }
+
+    private String message(String origin, String eventsJson) {
+        return "{\"origin\":\"" + origin + "\",\"events\":" + eventsJson + "}";
+    }
+
+    @Test
+    void isInert_withoutRedis() {
+        when(redisConnectionFactory.getIfAvailable()).thenReturn(null);
+        bus.start();
+
+        bus.invalidated("post-by-id", "1");
+        bus.relay("post-events", null);
+
+        assertThat(bus.isRunning()).isTrue();
+        assertThat(bus.drainPending()).isEmpty();
+        assertThat(bus.drainRelays()).isEmpty();
+        bus.stop();
+        assertThat(bus.isRunning()).isFalse();
+    }
+
+    @Test
+    void coalesce_dropsDuplicates_andKeyEventsForClearedCaches() {
+        List<RedisInvalidationBus.Event> events = List.of(
+                new RedisInvalidationBus.Event("post-by-id", "1"),
+                new RedisInvalidationBus.Event("post-by-id", "1"),
+                new RedisInvalidationBus.Event("post-by-id", "2"),
+                new RedisInvalidationBus.Event("feed-posts-all", "all"),
+                new RedisInvalidationBus.Event("feed-posts-all", null));
+
+        assertThat(RedisInvalidationBus.coalesce(events)).containsExactly(
+                new RedisInvalidationBus.Event("post-by-id", "1"),
+                new RedisInvalidationBus.Event("post-by-id", "2"),
+                new RedisInvalidationBus.Event("feed-posts-all", null));
+    }
+
+    @Test
+    void onMessage_appliesPeerEvents_toLocalL1() {
+        when(cacheManagerProvider.getIfAvailable()).thenReturn(cacheManager);
+
+        bus.onMessage(message("peer",
+                "[{\"cache\":\"post-by-id\",\"key\":\"7\"},{\"cache\":\"feed-posts-all\",\"key\":null}]"));
+
+        verify(cacheManager).evictLocal("post-by-id", "7");
+        verify(cacheManager).evictLocal("feed-posts-all", null);
+    }
+
+    @Test
+    void onMessage_ignoresOwnMessages() {
+        bus.onMessage(message(bus.instanceId(), "[{\"cache\":\"post-by-id\",\"key\":\"7\"}]"));
+
+        verifyNoInteractions(cacheManagerProvider);
+    }
+
+    @Test
+    void onMessage_ignoresMalformedPayload() {
+        bus.onMessage("not json");
+
+        verifyNoInteractions(cacheManagerProvider);
+    }
+
+    @Test
+    void onMessage_handsPeerRelays_toTheirListener_inOrder() {
+        List<JsonNode> received = new ArrayList<>();
+        bus.onRelay("post-events", received::add);
+
+        bus.onMessage("{\"origin\":\"peer\",\"events\":[],\"relayed\":["
+                + "{\"topic\":\"post-events\",\"body\":{\"n\":1}},"
+                + "{\"topic\":\"elsewhere\",\"body\":{\"n\":2}},"
+                + "{\"topic\":\"post-events\",\"body\":{\"n\":3}}]}");
+
+        assertThat(received).extracting(n -> n.path("n").asInt()).containsExactly(1, 3);
+        verifyNoInteractions(cacheManagerProvider);
+    }
+
+    @Test
+    void onMessage_doesNotRelayOwnMessages() {
+        List<JsonNode> received = new ArrayList<>();
+        bus.onRelay("post-events", received::add);
+
+        bus.onMessage("{\"origin\":\"" + bus.instanceId() + "\",\"events\":[],\"relayed\":["
+                + "{\"topic\":\"post-events\",\"body\":{\"n\":1}}]}");
+
+        assertThat(received).isEmpty();
+    }
+}
@@ -0,0 +1,31 @@
+package dev.bored.stream.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link RedisKeys}: names follow the cache entries'
+ * configured prefix.
+ */
+class RedisKeysTest {
+
+    @Test
+    void prefixed_usesTheCacheKeyPrefix() {
+        CacheProperties cache = new CacheProperties();
+        cache.getRedis().setKeyPrefix("other-svc::");
+
+        assertThat(new RedisKeys(cache).prefixed("load-lock::")).isEqualTo("other-svc::load-lock::");
+    }
+
+    @Test
+    void prefixed_isBare_whenTheCacheUsesNoPrefix() {
+        CacheProperties cache = new CacheProperties();
+        cache.getRedis().setKeyPrefix("stream-svc::");
+        cache.getRedis().setUseKeyPrefix(false);
+
+        assertThat(new RedisKeys(cache).prefixed("cache-gen::")).isEqualTo("cache-gen::");
+        assertThat(new RedisKeys(new CacheProperties()).prefixed("cache-gen::")).isEqualTo("cache-gen::");
+    }
+}
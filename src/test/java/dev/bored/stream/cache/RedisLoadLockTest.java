@@ -0,0 +1,106 @@
+package dev.bored.stream.cache;
+
+import dev.bored.stream.config.StreamProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link RedisLoadLock}: the SET NX outcome mapping, the
+ * token-checked release, failing open and skipping Redis while the
+ * circuit breaker is open.
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisLoadLockTest {
+
+    private static final String KEY = "stream-svc::load-lock::post-by-id::1";
+
+    @Mock private ObjectProvider<StringRedisTemplate> provider;
+    @Mock private StringRedisTemplate template;
+    @Mock private ValueOperations<String, String> ops;
+    @Mock private ObjectProvider<MeterRegistry> meters;
+
+    private RedisLoadLock lock;
+
+    @BeforeEach
+    void setUp() {
+        StreamProperties props = new StreamProperties();
+        props.getCaching().setLoadLockTtl(Duration.ofSeconds(3));
+        props.getCaching().getCircuitBreaker().setFailureThreshold(1);
+        CacheProperties cache = new CacheProperties();
+        cache.getRedis().setKeyPrefix("stream-svc::");
+        lock = new RedisLoadLock(provider, new RedisCircuitBreaker(props, meters), props, new RedisKeys(cache));
+    }
+
+    @Test
+    void tryAcquire_isTrue_withoutRedis() {
+        when(provider.getIfAvailable()).thenReturn(null);
+
+        assertThat(lock.tryAcquire("post-by-id::1", "t")).isTrue();
+    }
+
+    @Test
+    void tryAcquire_isTrue_whenWeSetTheKey() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.opsForValue()).thenReturn(ops);
+        when(ops.setIfAbsent(KEY, "t", Duration.ofSeconds(3))).thenReturn(true);
+
+        assertThat(lock.tryAcquire("post-by-id::1", "t")).isTrue();
+    }
+
+    @Test
+    void tryAcquire_isFalse_whenSomeoneElseHoldsIt() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.opsForValue()).thenReturn(ops);
+        when(ops.setIfAbsent(KEY, "t", Duration.ofSeconds(3))).thenReturn(false);
+
+        assertThat(lock.tryAcquire("post-by-id::1", "t")).isFalse();
+    }
+
+    @Test
+    void tryAcquire_failsOpen_whenRedisErrors() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(lock.tryAcquire("post-by-id::1", "t")).isTrue();
+    }
+
+    @Test
+    void release_runsCompareAndDelete_andSwallowsErrors() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.execute(RedisLoadLock.RELEASE, List.of(KEY), "t"))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        lock.release("post-by-id::1", "t");
+
+        verify(template).execute(RedisLoadLock.RELEASE, List.of(KEY), "t");
+    }
+
+    @Test
+    void tryAcquire_skipsRedis_onceBreakerOpens() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(lock.tryAcquire("post-by-id::1", "t")).isTrue();
+        assertThat(lock.tryAcquire("post-by-id::1", "t")).isTrue();
+        lock.release("post-by-id::1", "t");
+
+        verify(template, times(1)).opsForValue();
+    }
+}
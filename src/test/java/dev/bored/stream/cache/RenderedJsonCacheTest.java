@@ -0,0 +1,133 @@
+package dev.bored.stream.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.bored.stream.config.StreamProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link RenderedJsonCache} and {@link RenderedJson}:
+ * rendering once per cached value, the gzip threshold, ETags, and
+ * picking the encoding from {@code Accept-Encoding}.
+ */
+class RenderedJsonCacheTest {
+
+    private ValueTags valueTags;
+    private RenderedJsonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        StreamProperties props = new StreamProperties();
+        props.getRenderedJson().setGzipThreshold(DataSize.ofBytes(64));
+        valueTags = new ValueTags();
+        cache = new RenderedJsonCache(new ObjectMapper(), valueTags, props);
+    }
+
+    @Test
+    void render_isReused_forTheSameOrAnEqualValue() {
+        List<String> value = new ArrayList<>(List.of("a"));
+        List<String> deserializedCopy = new ArrayList<>(value);
+
+        RenderedJson first = cache.render("feed", "all", value);
+
+        assertThat(cache.render("feed", "all", value)).isSameAs(first);
+        assertThat(cache.render("feed", "all", deserializedCopy)).isSameAs(first);
+        assertThat(new String(first.json(), StandardCharsets.UTF_8)).isEqualTo("[\"a\"]");
+    }
+
+    @Test
+    void render_isRedone_whenTheValueChanged() {
+        RenderedJson first = cache.render("feed", "all", new ArrayList<>(List.of("a")));
+
+        RenderedJson changed = cache.render("feed", "all", new ArrayList<>(List.of("b")));
+
+        assertThat(new String(changed.json(), StandardCharsets.UTF_8)).isEqualTo("[\"b\"]");
+        assertThat(cache.render("feed", "all", new ArrayList<>(List.of("a")))).isNotSameAs(first);
+    }
+
+    @Test
+    void render_keepsEntriesApart_byCacheAndKey() {
+        List<String> value = new ArrayList<>(List.of("a"));
+
+        RenderedJson first = cache.render("post", 1L, value);
+
+        assertThat(cache.render("post", "1", value)).isSameAs(first);
+        assertThat(cache.render("post", 2L, value)).isNotSameAs(first);
+        assertThat(cache.render("feed", 1L, value)).isNotSameAs(first);
+    }
+
+    @Test
+    void etag_isQuotedAndDependsOnContentOnly() {
+        RenderedJson a = cache.render("c", 1, new ArrayList<>(List.of("a")));
+        RenderedJson sameContent = cache.render("c", 2, new ArrayList<>(List.of("a")));
+        RenderedJson other = cache.render("c", 3, new ArrayList<>(List.of("b")));
+
+        assertThat(a.etag()).startsWith("\"").endsWith("\"").hasSize(24);
+        assertThat(sameContent.etag()).isEqualTo(a.etag());
+        assertThat(other.etag()).isNotEqualTo(a.etag());
+    }
+
+    @Test
+    void etag_isTheOneStoredWithTheValue() {
+        List<String> value = new ArrayList<>(List.of("a"));
+        byte[] stored = new byte[ValueTags.DIGEST_LENGTH];
+        valueTags.remember(value, stored);
+
+        assertThat(cache.render("c", 1, value).etag()).isEqualTo(ValueTags.format(stored));
+    }
+
+    @Test
+    void render_gzipsOnlyFromThreshold() throws IOException {
+        RenderedJson small = cache.render("c", 1, new ArrayList<>(List.of("a")));
+        RenderedJson large = cache.render("c", 2, new ArrayList<>(Collections.nCopies(50, "abc")));
+
+        assertThat(small.gzip()).isNull();
+        assertThat(large.gzip()).isNotNull();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(large.gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(large.json());
+        }
+    }
+
+    @Test
+    void toResponse_sendsGzip_onlyWhenAcceptedAndAvailable() {
+        RenderedJson rendered = new RenderedJson(new byte[] {1}, new byte[] {2}, "\"abc\"");
+
+        ResponseEntity<byte[]> gzipped = rendered.toResponse("deflate, gzip;q=0.5");
+        ResponseEntity<byte[]> plain = rendered.toResponse(null);
+        ResponseEntity<byte[]> noCopy = new RenderedJson(new byte[] {1}, null, "\"abc\"").toResponse("gzip");
+
+        assertThat(gzipped.getBody()).containsExactly(2);
+        assertThat(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeaders().getETag()).isEqualTo("\"abc-gz\"");
+        assertThat(plain.getBody()).containsExactly(1);
+        assertThat(plain.getHeaders().getETag()).isEqualTo("\"abc\"");
+        assertThat(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(noCopy.getBody()).containsExactly(1);
+        assertThat(plain.getHeaders().getFirst(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    void acceptsGzip_honoursWildcardAndQZero() {
+        assertThat(RenderedJson.acceptsGzip("gzip")).isTrue();
+        assertThat(RenderedJson.acceptsGzip("GZIP, br")).isTrue();
+        assertThat(RenderedJson.acceptsGzip("*")).isTrue();
+        assertThat(RenderedJson.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(RenderedJson.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(RenderedJson.acceptsGzip("br, gzip; q=0.000")).isFalse();
+        assertThat(RenderedJson.acceptsGzip("identity")).isFalse();
+        assertThat(RenderedJson.acceptsGzip(null)).isFalse();
+    }
+}
@@ -0,0 +1,139 @@
+package dev.bored.stream.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import dev.bored.stream.dto.CodeLineDTO;
+import dev.bored.stream.dto.CodeSegmentDTO;
+import dev.bored.stream.dto.CodeSnippetDTO;
+import dev.bored.stream.dto.FeedPostDTO;
+import dev.bored.stream.dto.PostAuthorDTO;
+import dev.bored.stream.dto.PostDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link SmileCacheValueSerializer}: round trips, the
+ * format byte, the stored ETag digest, and reading entries written by
+ * earlier formats.
+ */
+class SmileCacheValueSerializerTest {
+
+    private static final JavaType FEED_LIST =
+            TypeFactory.defaultInstance().constructCollectionType(List.class, FeedPostDTO.class);
+
+    private final GenericJackson2JsonRedisSerializer legacy = new GenericJackson2JsonRedisSerializer();
+    private final SmileCacheValueSerializer feedSerializer = new SmileCacheValueSerializer(FEED_LIST, legacy);
+
+    /** Mutable lists, as the mapper builds them; the legacy format can't read {@code List.of}. */
+    @SafeVarargs
+    private static <T> List<T> list(T... items) {
+        return new ArrayList<>(Arrays.asList(items));
+    }
+
+    private static List<FeedPostDTO> feed() {
+        CodeSnippetDTO snippet = CodeSnippetDTO.builder()
+                .lines(list(CodeLineDTO.builder()
+                        .segments(list(
+                                CodeSegmentDTO.builder().text("const").type("keyword").build(),
+                                CodeSegmentDTO.builder().text(" x = 1;").type("plain").build()))
+                        .build()))
+                .build();
+        return list(
+                FeedPostDTO.builder().postId(1L).id("1").author("bored").contentType("code")
+                        .codeSnippet(snippet).hashtags(list("#regret")).sortOrder(1).build(),
+                FeedPostDTO.builder().postId(2L).id("2").author("bored").contentType("image").sortOrder(2).build());
+    }
+
+    @Test
+    void roundTrip_feedList_behindFormatByte() {
+        List<FeedPostDTO> feed = feed();
+
+        byte[] bytes = feedSerializer.serialize(feed);
+
+        assertThat(bytes[0]).isEqualTo(SmileCacheValueSerializer.FORMAT_SMILE_V2);
+        assertThat(feedSerializer.deserialize(bytes)).isEqualTo(feed);
+    }
+
+    @Test
+    void roundTrip_postWithInstantAndAuthor() {
+        SmileCacheValueSerializer serializer = new SmileCacheValueSerializer(
+                TypeFactory.defaultInstance().constructType(PostDTO.class), legacy);
+        PostDTO post = PostDTO.builder()
+                .postId(7L)
+                .caption("shipped on a friday")
+                .createdAt(Instant.parse("2026-10-17T09:30:00.123Z"))
+                .author(PostAuthorDTO.builder().userId(UUID.randomUUID()).handle("bored").build())
+                .build();
+
+        Object read = serializer.deserialize(serializer.serialize(post));
+
+        assertThat(read).usingRecursiveComparison().isEqualTo(post);
+    }
+
+    @Test
+    void deserialize_tagsTheValue_withTheDigestStoredInTheEntry() {
+        ValueTags tags = new ValueTags();
+        SmileCacheValueSerializer serializer = new SmileCacheValueSerializer(FEED_LIST, legacy, tags);
+        byte[] bytes = feedSerializer.serialize(feed());
+        byte[] stored = new byte[ValueTags.DIGEST_LENGTH];
+        Arrays.fill(stored, (byte) 7);
+        System.arraycopy(stored, 0, bytes, 1, stored.length);
+
+        Object read = serializer.deserialize(bytes);
+
+        assertThat(tags.tagOf(read)).isEqualTo(ValueTags.format(stored));
+    }
+
+    @Test
+    void storedTag_matchesTheTagComputedForAnUntaggedCopy() {
+        ValueTags tags = new ValueTags();
+        SmileCacheValueSerializer serializer = new SmileCacheValueSerializer(FEED_LIST, legacy, tags);
+        List<FeedPostDTO> written = feed();
+
+        Object read = serializer.deserialize(serializer.serialize(written));
+
+        assertThat(tags.tagOf(read)).isEqualTo(tags.tagOf(written)).isEqualTo(new ValueTags().tagOf(feed()));
+    }
+
+    @Test
+    void deserialize_readsUntaggedSmileEntries() throws Exception {
+        List<FeedPostDTO> feed = feed();
+        byte[] body = SmileCacheValueSerializer.SMILE.writerFor(FEED_LIST).writeValueAsBytes(feed);
+        byte[] bytes = new byte[body.length + 1];
+        bytes[0] = SmileCacheValueSerializer.FORMAT_SMILE_V1;
+        System.arraycopy(body, 0, bytes, 1, body.length);
+
+        assertThat(feedSerializer.deserialize(bytes)).isEqualTo(feed);
+    }
+
+    @Test
+    void deserialize_readsLegacyJsonEntries() {
+        List<FeedPostDTO> feed = feed();
+
+        assertThat(feedSerializer.deserialize(legacy.serialize(feed))).isEqualTo(feed);
+    }
+
+    @Test
+    void deserialize_treatsUnknownFormatAsMiss() {
+        assertThat(feedSerializer.deserialize(new byte[] {0x7f, 0x00})).isNull();
+        assertThat(feedSerializer.deserialize(new byte[0])).isNull();
+        assertThat(feedSerializer.deserialize(null)).isNull();
+    }
+
+    @Test
+    void serialize_fallsBackToLegacy_forOtherValueTypes() {
+        byte[] bytes = feedSerializer.serialize(NullValue.INSTANCE);
+
+        assertThat(bytes[0]).isEqualTo((byte) '{');
+        assertThat(feedSerializer.deserialize(bytes)).isEqualTo(NullValue.INSTANCE);
+    }
+}
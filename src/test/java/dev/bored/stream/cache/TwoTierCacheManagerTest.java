@@ -0,0 +1,133 @@
+package dev.bored.stream.cache;
+
+import dev.bored.stream.config.StreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link TwoTierCacheManager}: per-cache L1 settings,
+ * delegation to the L2 manager, load coalescing and applying remote
+ * evictions.
+ */
+class TwoTierCacheManagerTest {
+
+    @Test
+    void getCache_wrapsL2Cache_andReusesInstance() {
+        StreamProperties.Caching settings = new StreamProperties.Caching();
+        TwoTierCacheManager manager = new TwoTierCacheManager(
+                new ConcurrentMapCacheManager(), settings, InvalidationPublisher.NONE);
+
+        Cache cache = manager.getCache("post-by-id");
+
+        assertThat(cache).isInstanceOf(TwoTierCache.class);
+        assertThat(cache.getName()).isEqualTo("post-by-id");
+        assertThat(manager.getCache("post-by-id")).isSameAs(cache);
+        assertThat(manager.getCacheNames()).containsExactly("post-by-id");
+    }
+
+    @Test
+    void getCache_returnsNull_whenL2DoesNotKnowTheName() {
+        ConcurrentMapCacheManager fixed = new ConcurrentMapCacheManager("feed-posts-all");
+        TwoTierCacheManager manager = new TwoTierCacheManager(
+                fixed, new StreamProperties.Caching(), InvalidationPublisher.NONE);
+
+        assertThat(manager.getCache("unknown")).isNull();
+    }
+
+    @Test
+    void l1For_prefersPerCacheSettings() {
+        StreamProperties.Caching settings = new StreamProperties.Caching();
+        StreamProperties.L1 small = new StreamProperties.L1();
+        small.setMaximumSize(1);
+        small.setTtl(Duration.ofSeconds(5));
+        settings.getL1().put("feed-posts-all", small);
+
+        assertThat(settings.l1For("feed-posts-all")).isSameAs(small);
+        assertThat(settings.l1For("post-by-id")).isSameAs(settings.getL1Defaults());
+    }
+
+    @Test
+    void perCacheMaximumSize_boundsL1() {
+        StreamProperties.Caching settings = new StreamProperties.Caching();
+        StreamProperties.L1 tiny = new StreamProperties.L1();
+        tiny.setMaximumSize(1);
+        settings.getL1().put("feed-posts-all", tiny);
+        TwoTierCacheManager manager = new TwoTierCacheManager(
+                new ConcurrentMapCacheManager(), settings, InvalidationPublisher.NONE);
+        TwoTierCache cache = (TwoTierCache) manager.getCache("feed-posts-all");
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+
+        assertThat(cache.localSize()).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void evictLocal_touchesOnlyTheNamedCachesL1() {
+        TwoTierCacheManager manager = new TwoTierCacheManager(
+                new ConcurrentMapCacheManager(), new StreamProperties.Caching(), InvalidationPublisher.NONE);
+        TwoTierCache posts = (TwoTierCache) manager.getCache("post-by-id");
+        TwoTierCache feed = (TwoTierCache) manager.getCache("feed-posts-all");
+        posts.put(1L, "one");
+        posts.put(2L, "two");
+        feed.put("all", "page");
+
+        manager.evictLocal("post-by-id", "1");
+        assertThat(posts.localSize()).isEqualTo(1);
+        assertThat(feed.localSize()).isEqualTo(1);
+
+        manager.evictLocal("feed-posts-all", null);
+        assertThat(feed.localSize()).isZero();
+
+        // Unknown caches are ignored rather than created.
+        manager.evictLocal("never-used", "x");
+        assertThat(manager.getCacheNames()).containsExactlyInAnyOrder("post-by-id", "feed-posts-all");
+    }
+
+    @Test
+    void loadLock_coalescesL2Misses() {
+        LoadLock lock = mock(LoadLock.class);
+        when(lock.tryAcquire(eq("post-by-id::1"), anyString())).thenReturn(true);
+        TwoTierCacheManager manager = new TwoTierCacheManager(new ConcurrentMapCacheManager(),
+                new StreamProperties.Caching(), InvalidationPublisher.NONE, lock, GenerationStore.local(),
+                null, new SimpleMeterRegistry());
+
+        assertThat(manager.getCache("post-by-id").get(1L, () -> "one")).isEqualTo("one");
+
+        verify(lock).release(eq("post-by-id::1"), anyString());
+    }
+
+    @Test
+    void generationalCaches_clearByBumpingGeneration_andForgetItOnRemoteClear() {
+        StreamProperties.Caching settings = new StreamProperties.Caching();
+        settings.getGenerational().add("feed-posts-all");
+        settings.setGenerationRefresh(Duration.ofHours(1));
+        GenerationStore store = GenerationStore.local();
+        ConcurrentMapCacheManager shared = new ConcurrentMapCacheManager();
+        TwoTierCacheManager manager = new TwoTierCacheManager(shared, settings, InvalidationPublisher.NONE,
+                LoadLock.NONE, store, null, new SimpleMeterRegistry());
+        Cache feed = manager.getCache("feed-posts-all");
+        feed.put("all", "v1");
+
+        feed.clear();
+        assertThat(store.current("feed-posts-all")).isEqualTo(1);
+        assertThat(shared.getCache("feed-posts-all").get("g0:all")).isNotNull();
+
+        feed.put("all", "v2");
+        store.next("feed-posts-all");
+        manager.evictLocal("feed-posts-all", null);
+        assertThat(feed.get("all")).isNull();
+    }
+}
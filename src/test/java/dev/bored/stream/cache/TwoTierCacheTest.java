@@ -0,0 +1,276 @@
+package dev.bored.stream.cache;
+
+import dev.bored.stream.config.StreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+/**
+ * Unit tests for {@link TwoTierCache}, with a {@link ConcurrentMapCache}
+ * standing in for Redis as L2.
+ */
+class TwoTierCacheTest {
+
+    private ConcurrentMapCache l2;
+    private TwoTierCache cache;
+
+    @BeforeEach
+    void setUp() {
+        l2 = spy(new ConcurrentMapCache("posts", false));
+        cache = new TwoTierCache("posts", 100, Duration.ofMinutes(1), l2);
+    }
+
+    @Test
+    void get_promotesL2Hit_intoL1() {
+        l2.put(1L, "one");
+
+        assertThat(cache.get(1L).get()).isEqualTo("one");
+        assertThat(cache.get(1L).get()).isEqualTo("one");
+
+        // Second read served from L1.
+        verify(l2, times(1)).get(1L);
+        assertThat(cache.localSize()).isEqualTo(1);
+    }
+
+    @Test
+    void get_returnsNull_onMissInBothTiers() {
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(1L, String.class)).isNull();
+    }
+
+    @Test
+    void getTyped_rejectsWrongType() {
+        cache.put(1L, "one");
+
+        assertThat(cache.get(1L, String.class)).isEqualTo("one");
+        assertThatThrownBy(() -> cache.get(1L, Integer.class)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void getWithLoader_loadsOnce_andFillsBothTiers() {
+        AtomicInteger loads = new AtomicInteger();
+
+        String first = cache.get(1L, () -> "v" + loads.incrementAndGet());
+        String second = cache.get(1L, () -> "v" + loads.incrementAndGet());
+
+        assertThat(first).isEqualTo("v1");
+        assertThat(second).isEqualTo("v1");
+        assertThat(loads).hasValue(1);
+        assertThat(l2.get(1L).get()).isEqualTo("v1");
+    }
+
+    @Test
+    void put_writesBothTiers() {
+        cache.put(1L, "one");
+
+        assertThat(l2.get(1L).get()).isEqualTo("one");
+        assertThat(cache.localSize()).isEqualTo(1);
+    }
+
+    @Test
+    void putIfAbsent_keepsExistingL2Value_inL1() {
+        l2.put(1L, "old");
+
+        Cache.ValueWrapper existing = cache.putIfAbsent(1L, "new");
+
+        assertThat(existing.get()).isEqualTo("old");
+        assertThat(cache.get(1L).get()).isEqualTo("old");
+    }
+
+    @Test
+    void evict_clearsBothTiers() {
+        cache.put(1L, "one");
+
+        cache.evict(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.localSize()).isZero();
+    }
+
+    @Test
+    void evict_clearsL1_evenWhenL2Fails() {
+        Cache broken = mock(Cache.class);
+        doThrow(new IllegalStateException("redis down")).when(broken).evict(1L);
+        TwoTierCache tiered = new TwoTierCache("posts", 100, Duration.ofMinutes(1), broken);
+        tiered.put(1L, "one");
+
+        assertThatThrownBy(() -> tiered.evict(1L)).hasMessage("redis down");
+        assertThat(tiered.localSize()).isZero();
+    }
+
+    @Test
+    void evictIfPresent_andInvalidate_clearL1() {
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+
+        assertThat(cache.evictIfPresent(1L)).isTrue();
+        cache.invalidate();
+
+        assertThat(cache.localSize()).isZero();
+        assertThat(l2.get(2L)).isNull();
+    }
+
+    @Test
+    void clear_emptiesBothTiers() {
+        cache.put(1L, "one");
+
+        cache.clear();
+
+        assertThat(cache.localSize()).isZero();
+        assertThat(l2.get(1L)).isNull();
+    }
+
+    @Test
+    void l1Entries_expireAfterTtl() throws InterruptedException {
+        TwoTierCache shortLived = new TwoTierCache("posts", 100, Duration.ofMillis(20), l2);
+        shortLived.put(1L, "one");
+
+        Thread.sleep(50);
+
+        assertThat(shortLived.localSize()).isZero();
+        // Still served, now from L2.
+        assertThat(shortLived.get(1L).get()).isEqualTo("one");
+    }
+
+    @Test
+    void evictionsAndClears_arePublished_butPutsAreNot() {
+        InvalidationPublisher publisher = mock(InvalidationPublisher.class);
+        TwoTierCache published = new TwoTierCache("posts", 100, Duration.ofMinutes(1), l2, publisher);
+
+        published.put(1L, "one");
+        published.evict(1L);
+        published.evictIfPresent(2L);
+        published.clear();
+
+        verify(publisher).invalidated("posts", "1");
+        verify(publisher).invalidated("posts", "2");
+        verify(publisher).invalidated("posts", null);
+        verifyNoMoreInteractions(publisher);
+    }
+
+    @Test
+    void evictLocal_dropsL1Entry_byStringKey_andLeavesL2() {
+        cache.put(1L, "one");
+
+        cache.evictLocal("1");
+
+        assertThat(cache.localSize()).isZero();
+        assertThat(l2.get(1L).get()).isEqualTo("one");
+    }
+
+    @Test
+    void clearLocal_dropsAllL1Entries_andLeavesL2() {
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+
+        cache.clearLocal();
+
+        assertThat(cache.localSize()).isZero();
+        assertThat(l2.get(2L).get()).isEqualTo("two");
+    }
+
+    private TwoTierCache staleWhileRevalidate(Executor refresher, SimpleMeterRegistry meters) {
+        StreamProperties.L1 settings = new StreamProperties.L1();
+        settings.setStaleWhileRevalidate(true);
+        return new TwoTierCache("posts", settings, l2, InvalidationPublisher.NONE, refresher, meters);
+    }
+
+    @Test
+    void staleWhileRevalidate_servesEvictedValue_andRefreshesInBackground() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        List<Runnable> tasks = new ArrayList<>();
+        TwoTierCache swr = staleWhileRevalidate(tasks::add, meters);
+        swr.put("all", "v1");
+        swr.clear();
+
+        assertThat(swr.get("all", () -> "v2")).isEqualTo("v1");
+        assertThat(swr.get("all", () -> "v3")).isEqualTo("v1");
+        // One refresh per key, however many readers saw the stale value.
+        assertThat(tasks).hasSize(1);
+
+        tasks.get(0).run();
+
+        assertThat(swr.get("all", () -> "v4")).isEqualTo("v2");
+        assertThat(l2.get("all").get()).isEqualTo("v2");
+        assertThat(meters.counter(TwoTierCache.STALE_SERVED_METRIC, "cache", "posts").count()).isEqualTo(2);
+    }
+
+    @Test
+    void staleWhileRevalidate_discardsRefresh_overtakenByAnotherEviction() {
+        List<Runnable> tasks = new ArrayList<>();
+        TwoTierCache swr = staleWhileRevalidate(tasks::add, new SimpleMeterRegistry());
+        swr.put("all", "v1");
+        swr.evict("all");
+        assertThat(swr.get("all", () -> "v2")).isEqualTo("v1");
+
+        swr.evict("all");
+        tasks.get(0).run();
+
+        assertThat(l2.get("all")).isNull();
+        // Still stale, and the next read schedules a fresh reload.
+        assertThat(swr.get("all", () -> "v3")).isEqualTo("v1");
+        assertThat(tasks).hasSize(2);
+    }
+
+    @Test
+    void staleWhileRevalidate_keepsServingStale_whenRefreshFails() {
+        TwoTierCache swr = staleWhileRevalidate(Runnable::run, new SimpleMeterRegistry());
+        swr.put("all", "v1");
+        swr.clear();
+
+        Object served = swr.get("all", () -> {
+            throw new IllegalStateException("db down");
+        });
+
+        assertThat(served).isEqualTo("v1");
+        assertThat(swr.get("all", () -> "v2")).isEqualTo("v1");
+        // The successful refresh above is now installed.
+        assertThat(swr.get("all", () -> "v3")).isEqualTo("v2");
+    }
+
+    @Test
+    void staleWhileRevalidate_appliesToRemoteEvictions() {
+        List<Runnable> tasks = new ArrayList<>();
+        TwoTierCache swr = staleWhileRevalidate(tasks::add, new SimpleMeterRegistry());
+        swr.put("all", "v1");
+
+        swr.evictLocal("all");
+
+        assertThat(swr.get("all", () -> "v2")).isEqualTo("v1");
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    void staleWhileRevalidate_loadsInline_whenNothingStale() {
+        List<Runnable> tasks = new ArrayList<>();
+        TwoTierCache swr = staleWhileRevalidate(tasks::add, new SimpleMeterRegistry());
+
+        assertThat(swr.get("all", () -> "v1")).isEqualTo("v1");
+        assertThat(tasks).isEmpty();
+    }
+
+    @Test
+    void withoutStaleWhileRevalidate_evictedValueIsGone() {
+        cache.put("all", "v1");
+        cache.clear();
+
+        assertThat(cache.get("all", () -> "v2")).isEqualTo("v2");
+    }
+}
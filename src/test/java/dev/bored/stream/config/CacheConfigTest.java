@@ -0,0 +1,168 @@
+package dev.bored.stream.config;
+
+import dev.bored.stream.cache.GenerationStore;
+import dev.bored.stream.cache.InvalidationPublisher;
+import dev.bored.stream.cache.LoadLock;
+import dev.bored.stream.cache.LocalCdnPurger;
+import dev.bored.stream.cache.RedisCircuitBreaker;
+import dev.bored.stream.cache.SmileCacheValueSerializer;
+import dev.bored.stream.cache.TwoTierCacheManager;
+import dev.bored.stream.cache.ValueTags;
+import dev.bored.stream.dto.CodeLineDTO;
+import dev.bored.stream.dto.CodeSegmentDTO;
+import dev.bored.stream.dto.CodeSnippetDTO;
+import dev.bored.stream.dto.FeedPostDTO;
+import dev.bored.stream.service.CacheNames;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CacheConfig}: which manager is built with and
+ * without a Redis connection factory, and Redis value serialization.
+ */
+class CacheConfigTest {
+
+    private final CacheConfig config = new CacheConfig();
+
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectProvider<T> provider(T value) {
+        ObjectProvider<T> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(value);
+        return provider;
+    }
+
+    @Test
+    void cacheManager_isInProcessOnly_withoutRedis() {
+        CacheManager manager = config.cacheManager(provider(null), new CacheProperties(),
+                provider(null), new StreamProperties(), InvalidationPublisher.NONE, LoadLock.NONE,
+                GenerationStore.local(), new RedisCircuitBreaker(new StreamProperties(), provider(null)),
+                provider(null));
+
+        assertThat(manager).isInstanceOf(ConcurrentMapCacheManager.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cacheManager_isTwoTier_withRedis() {
+        ObjectProvider<RedisCacheManagerBuilderCustomizer> customizers = mock(ObjectProvider.class);
+        when(customizers.orderedStream()).thenReturn(Stream.of(
+                config.redisValueSerializationCustomizer(new StreamProperties(), provider(null), new ValueTags())));
+
+        CacheManager manager = config.cacheManager(provider(mock(RedisConnectionFactory.class)),
+                new CacheProperties(), customizers, new StreamProperties(), InvalidationPublisher.NONE,
+                LoadLock.NONE, GenerationStore.local(),
+                new RedisCircuitBreaker(new StreamProperties(), provider(null)), provider(null));
+
+        assertThat(manager).isInstanceOf(TwoTierCacheManager.class);
+        assertThat(manager.getCache("post-by-id")).isNotNull();
+    }
+
+    @Test
+    void cdnPurger_fallsBackToTheLocalStandIn() {
+        StreamProperties props = new StreamProperties();
+        StreamProperties.EdgePolicy policy = new StreamProperties.EdgePolicy();
+        policy.setSharedMaxAge(Duration.ofMinutes(5));
+        props.getEdgeCaching().getRoutes().put("post", policy);
+
+        assertThat(config.cdnPurger(props)).isInstanceOf(LocalCdnPurger.class);
+    }
+
+    @Test
+    void valueSerialization_usesSmileForTypedCaches_andJsonElsewhere() {
+        RedisCacheManager.RedisCacheManagerBuilder builder =
+                RedisCacheManager.builder(mock(RedisConnectionFactory.class));
+
+        config.redisValueSerializationCustomizer(new StreamProperties(), provider(null), new ValueTags()).customize(builder);
+
+        RedisCacheConfiguration feed = builder.getCacheConfigurationFor(CacheNames.FEED_POSTS_ALL).orElseThrow();
+        assertThat(feed.getValueSerializationPair().write(sampleFeed(1)).get(0)).isEqualTo((byte) 0x03);
+        assertThat(builder.getCacheConfigurationFor("some-other-cache")).isEmpty();
+    }
+
+    @Test
+    void valueSerialization_keepsTheBuildersPrefixAndNullHandling() {
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(mock(RedisConnectionFactory.class))
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .prefixCacheNameWith("stream-svc::")
+                        .disableCachingNullValues());
+
+        config.redisValueSerializationCustomizer(new StreamProperties(), provider(null), new ValueTags()).customize(builder);
+
+        RedisCacheConfiguration defaults = builder.cacheConfiguration();
+        RedisCacheConfiguration feed = builder.getCacheConfigurationFor(CacheNames.FEED_POSTS_ALL).orElseThrow();
+        assertThat(defaults.getKeyPrefixFor("other")).isEqualTo("stream-svc::other::");
+        assertThat(feed.getKeyPrefixFor(CacheNames.FEED_POSTS_ALL))
+                .isEqualTo("stream-svc::" + CacheNames.FEED_POSTS_ALL + "::");
+        assertThat(defaults.getAllowCacheNullValues()).isFalse();
+        assertThat(feed.getAllowCacheNullValues()).isFalse();
+    }
+
+    @Test
+    void valueSerialization_isJsonEverywhere_whenConfigured() {
+        StreamProperties props = new StreamProperties();
+        props.getCaching().setValueFormat(StreamProperties.ValueFormat.JSON);
+        RedisCacheManager.RedisCacheManagerBuilder builder =
+                RedisCacheManager.builder(mock(RedisConnectionFactory.class));
+
+        config.redisValueSerializationCustomizer(props, provider(null), new ValueTags()).customize(builder);
+
+        assertThat(builder.getCacheConfigurationFor(CacheNames.FEED_POSTS_ALL)).isEmpty();
+    }
+
+    /**
+     * Size comparison on a realistic feed page: the format this change
+     * replaced against the one it introduced.
+     */
+    @Test
+    void smileFeedPayload_isLessThanHalfTheLegacyJson() {
+        List<FeedPostDTO> feed = sampleFeed(20);
+        SmileCacheValueSerializer smile = new SmileCacheValueSerializer(
+                CacheConfig.CACHE_VALUE_TYPES.get(CacheNames.FEED_POSTS_ALL), CacheConfig.jsonSerializer());
+
+        byte[] json = CacheConfig.jsonSerializer().serialize(feed);
+        byte[] binary = smile.serialize(feed);
+
+        assertThat(binary.length).isLessThan(json.length / 2);
+        assertThat(smile.deserialize(binary)).isEqualTo(feed);
+    }
+
+    private static List<FeedPostDTO> sampleFeed(int posts) {
+        List<FeedPostDTO> feed = new ArrayList<>();
+        for (long i = 1; i <= posts; i++) {
+            List<CodeLineDTO> lines = new ArrayList<>();
+            for (int l = 0; l < 6; l++) {
+                lines.add(CodeLineDTO.builder().segments(new ArrayList<>(List.of(
+                        CodeSegmentDTO.builder().text("const").type("keyword").build(),
+                        CodeSegmentDTO.builder().text(" regret" + l).type("variable").build(),
+                        CodeSegmentDTO.builder().text(" = ").type("operator").build(),
+                        CodeSegmentDTO.builder().text("\"friday deploy\"").type("string").build())))
+                        .build());
+            }
+            feed.add(FeedPostDTO.builder()
+                    .postId(i).id(String.valueOf(i)).author("Bored Developer").avatar("B")
+                    .timestamp("2h ago").location("prod").contentType("code")
+                    .codeSnippet(CodeSnippetDTO.builder().lines(lines).build())
+                    .caption("It worked on my machine")
+                    .hashtags(new ArrayList<>(List.of("#regret", "#prod")))
+                    .sortOrder((int) i)
+                    .build());
+        }
+        return feed;
+    }
+}
@@ -2,12 +2,17 @@ package dev.bored.stream.config;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
- * Unit tests for {@link SecurityConfig#forwardedFirstBearerResolver()}.
+ * Unit tests for {@link SecurityConfig#forwardedFirstBearerResolver()}
+ * and {@link SecurityConfig#authorOnly}.
  *
  * <p>Ensures Spring Security reads the caller's Supabase JWT from
  * {@code X-Forwarded-Authorization} (set by the API Gateway) when routed
@@ -16,6 +21,8 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 class SecurityConfigTest {
 
+    private static final String AUTHOR = "5f0c8e9a-1b2c-4d3e-8f90-a1b2c3d4e5f6";
+
     private final BearerTokenResolver resolver = new SecurityConfig().forwardedFirstBearerResolver();
 
     @Test
@@ -81,4 +88,31 @@ class SecurityConfigTest {
 
         assertThat(resolver.resolve(req)).isNull();
     }
+
+    @Test
+    void authorOnly_grantsTheAuthor_only() {
+        AuthorizationManager<RequestAuthorizationContext> manager = SecurityConfig.authorOnly(AUTHOR);
+
+        assertThat(manager.authorize(() -> new TestingAuthenticationToken(AUTHOR, null, "ROLE_USER"), null)
+                .isGranted()).isTrue();
+        assertThat(manager.authorize(() -> new TestingAuthenticationToken("someone-else", null, "ROLE_USER"), null)
+                .isGranted()).isFalse();
+        assertThat(manager.authorize(() -> null, null).isGranted()).isFalse();
+    }
+
+    @Test
+    void authorOnly_matchesTheCanonicalSubject_whateverTheConfiguredForm() {
+        AuthorizationManager<RequestAuthorizationContext> manager =
+                SecurityConfig.authorOnly(" " + AUTHOR.toUpperCase() + " ");
+
+        assertThat(manager.authorize(() -> new TestingAuthenticationToken(AUTHOR, null, "ROLE_USER"), null)
+                .isGranted()).isTrue();
+    }
+
+    @Test
+    void authorOnly_failsFast_onBlankOrMalformedId() {
+        assertThatThrownBy(() -> SecurityConfig.authorOnly(" ")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> SecurityConfig.authorOnly(null)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> SecurityConfig.authorOnly("author")).isInstanceOf(IllegalStateException.class);
+    }
 }
@@ -3,7 +3,11 @@ package dev.bored.stream.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.bored.common.exception.CommonExceptionHandler;
 import dev.bored.common.exception.GenericException;
+import dev.bored.stream.cache.EdgeCacheHeaders;
+import dev.bored.stream.cache.RenderedJsonCache;
+import dev.bored.stream.cache.ValueTags;
 import dev.bored.stream.config.SecurityConfig;
+import dev.bored.stream.config.StreamProperties;
 import dev.bored.stream.dto.CodeLineDTO;
 import dev.bored.stream.dto.CodeSegmentDTO;
 import dev.bored.stream.dto.CodeSnippetDTO;
@@ -15,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithAnonymousUser;
@@ -22,9 +27,12 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
 import java.util.Collections;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -32,7 +40,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(FeedPostController.class)
-@Import({SecurityConfig.class, CommonExceptionHandler.class})
+@Import({SecurityConfig.class, CommonExceptionHandler.class, RenderedJsonCache.class, ValueTags.class,
+        EdgeCacheHeaders.class, StreamProperties.class})
 @WithMockUser
 class FeedPostControllerTest {
 
@@ -87,7 +96,8 @@ class FeedPostControllerTest {
         mockMvc.perform(get("/api/v1/feed"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].author").value("sethi"))
-                .andExpect(jsonPath("$[0].contentType").value("code"));
+                .andExpect(jsonPath("$[0].contentType").value("code"))
+                .andExpect(header().string("Surrogate-Key", "feed"));
     }
 
     @Test
@@ -99,6 +109,37 @@ class FeedPostControllerTest {
                 .andExpect(jsonPath("$").isEmpty());
     }
 
+    @Test
+    void getAllPosts_ShouldSendGzippedBody_WhenAccepted() throws Exception {
+        when(feedPostService.getAllPosts()).thenReturn(Collections.nCopies(20, testDTO));
+
+        byte[] gzipped = mockMvc.perform(get("/api/v1/feed").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            FeedPostDTO[] posts = objectMapper.readValue(in.readAllBytes(), FeedPostDTO[].class);
+            assertThat(posts).hasSize(20);
+        }
+    }
+
+    @Test
+    void getAllPosts_ShouldReturn304_WhenIfNoneMatchHitsETag() throws Exception {
+        when(feedPostService.getAllPosts()).thenReturn(List.of(testDTO));
+        String etag = mockMvc.perform(get("/api/v1/feed"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/feed").header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/api/v1/feed").header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void getPostById_ShouldReturnDTO() throws Exception {
         when(feedPostService.getPostById(1L)).thenReturn(testDTO);
@@ -3,25 +3,34 @@ package dev.bored.stream.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.bored.common.exception.CommonExceptionHandler;
 import dev.bored.common.exception.GenericException;
+import dev.bored.stream.cache.EdgeCacheHeaders;
+import dev.bored.stream.cache.RenderedJsonCache;
+import dev.bored.stream.cache.ValueTags;
 import dev.bored.stream.config.SecurityConfig;
 import dev.bored.stream.config.StreamProperties;
 import dev.bored.stream.dto.CreatePostRequest;
 import dev.bored.stream.dto.PostAuthorDTO;
+import dev.bored.stream.dto.PostChangesDTO;
 import dev.bored.stream.dto.PostDTO;
+import dev.bored.stream.dto.PostPageDTO;
 import dev.bored.stream.exception.AuthorizationExceptionHandler;
 import dev.bored.stream.interceptor.JwtUserSyncInterceptor;
+import dev.bored.stream.service.PostEventStream;
 import dev.bored.stream.service.PostService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 // `import java.util.UUID;` is used by the AUTHOR_UUID literals below.
@@ -29,6 +38,7 @@ import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -38,7 +48,10 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -55,7 +68,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Import({SecurityConfig.class,
          CommonExceptionHandler.class,
          AuthorizationExceptionHandler.class,
-         StreamProperties.class})
+         StreamProperties.class,
+         RenderedJsonCache.class,
+         ValueTags.class,
+         EdgeCacheHeaders.class})
 class PostControllerTest {
 
     private static final String AUTHOR_UUID = "00000000-0000-0000-0000-000000000099";
@@ -65,6 +81,7 @@ class PostControllerTest {
     @Autowired private ObjectMapper objectMapper;
 
     @MockitoBean private PostService postService;
+    @MockitoBean private PostEventStream postEventStream;
     @MockitoBean private JwtUserSyncInterceptor jwtUserSyncInterceptor;
 
     @BeforeEach
@@ -163,6 +180,88 @@ class PostControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    // ── listPosts ───────────────────────────────────────────────────────
+
+    @Test
+    void listPosts_public_returnsPageWithCursor() throws Exception {
+        when(postService.listPosts(isNull(), eq(20))).thenReturn(PostPageDTO.builder()
+                .items(List.of(sampleDTO()))
+                .nextCursor("abc")
+                .build());
+
+        mockMvc.perform(get("/api/v1/feed/v2").with(anonymous()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].postId").value(42))
+                .andExpect(jsonPath("$.nextCursor").value("abc"))
+                .andExpect(header().string("Surrogate-Key", "posts"));
+    }
+
+    @Test
+    void listPosts_passesCursorAndLimitThrough() throws Exception {
+        when(postService.listPosts("abc", 5)).thenReturn(PostPageDTO.builder()
+                .items(List.of())
+                .build());
+
+        mockMvc.perform(get("/api/v1/feed/v2")
+                        .param("before", "abc")
+                        .param("limit", "5")
+                        .with(anonymous()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void listPosts_badCursor_returns400() throws Exception {
+        when(postService.listPosts("bad", 20))
+                .thenThrow(new GenericException("Invalid feed cursor", HttpStatus.BAD_REQUEST));
+
+        mockMvc.perform(get("/api/v1/feed/v2").param("before", "bad").with(anonymous()))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ── changesSince ────────────────────────────────────────────────────
+
+    @Test
+    void changesSince_public_passesTokenThrough() throws Exception {
+        when(postService.changesSince("tok")).thenReturn(PostChangesDTO.builder()
+                .created(List.of(sampleDTO()))
+                .deleted(List.of(7L))
+                .nextToken("next")
+                .build());
+
+        mockMvc.perform(get("/api/v1/feed/v2/changes").param("since", "tok").with(anonymous()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created[0].postId").value(42))
+                .andExpect(jsonPath("$.deleted[0]").value(7))
+                .andExpect(jsonPath("$.nextToken").value("next"))
+                .andExpect(jsonPath("$.resync").value(false));
+    }
+
+    // ── streamEvents ────────────────────────────────────────────────────
+
+    @Test
+    void streamEvents_public_passesLastEventIdThrough() throws Exception {
+        when(postEventStream.subscribe("abc-3")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/feed/v2/stream")
+                        .header("Last-Event-ID", "abc-3")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .with(anonymous()))
+                .andExpect(request().asyncStarted());
+
+        verify(postEventStream).subscribe("abc-3");
+    }
+
+    @Test
+    void streamEvents_overCapacity_returns503() throws Exception {
+        when(postEventStream.subscribe(isNull()))
+                .thenThrow(new GenericException("busy", HttpStatus.SERVICE_UNAVAILABLE));
+
+        mockMvc.perform(get("/api/v1/feed/v2/stream").with(anonymous()))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     // ── getPostById ─────────────────────────────────────────────────────
 
     @Test
@@ -175,6 +274,31 @@ class PostControllerTest {
                 .andExpect(jsonPath("$.caption").value("hello world"));
     }
 
+    @Test
+    void getPostById_sendsRoutePolicy_andSurrogateKey() throws Exception {
+        when(postService.getPostById(42L)).thenReturn(sampleDTO());
+
+        mockMvc.perform(get("/api/v1/feed/v2/42").with(anonymous()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL,
+                        "max-age=0, public, s-maxage=300, stale-while-revalidate=60"))
+                .andExpect(header().string("Surrogate-Key", "post-42"));
+    }
+
+    @Test
+    void getPostById_returns304_whenIfNoneMatchHitsETag() throws Exception {
+        when(postService.getPostById(42L)).thenReturn(sampleDTO());
+        String etag = mockMvc.perform(get("/api/v1/feed/v2/42").with(anonymous()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/feed/v2/42").with(anonymous())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
     @Test
     void getPostById_notFound_returns404() throws Exception {
         when(postService.getPostById(99L))
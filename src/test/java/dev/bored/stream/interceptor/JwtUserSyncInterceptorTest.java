@@ -1,6 +1,14 @@
 package dev.bored.stream.interceptor;
 
+import dev.bored.stream.config.StreamProperties;
+import dev.bored.stream.controller.PostController;
+import dev.bored.stream.dto.CreatePostRequest;
+import dev.bored.stream.entity.AppUser;
+import dev.bored.stream.repository.AppUserRepository;
+import dev.bored.stream.service.AppUserProfileCache;
 import dev.bored.stream.service.AppUserService;
+import dev.bored.stream.service.AppUserSyncQueue;
+import dev.bored.stream.service.UserSyncMarker;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.AfterEach;
@@ -9,19 +17,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.method.HandlerMethod;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -30,12 +46,16 @@ import static org.mockito.Mockito.when;
  *   <li>An authenticated JWT triggers an upsert</li>
  *   <li>An anonymous request is left alone</li>
  *   <li>Service exceptions never block the request</li>
+ *   <li>A user accepted by the write-behind queue isn't synced inline</li>
+ *   <li>Only handlers marked {@link RequiresUserSync} trigger a sync</li>
+ *   <li>Non-deferrable handlers are written before they run, never queued</li>
  * </ol>
  */
 @ExtendWith(MockitoExtension.class)
 class JwtUserSyncInterceptorTest {
 
     @Mock private AppUserService appUserService;
+    @Mock private AppUserSyncQueue appUserSyncQueue;
     @Mock private HttpServletRequest request;
     @Mock private HttpServletResponse response;
 
@@ -46,6 +66,34 @@ class JwtUserSyncInterceptorTest {
         SecurityContextHolder.clearContext();
     }
 
+    /** Stand-in controllers: one opted in per method, one per class. */
+    static class SampleController {
+        @RequiresUserSync
+        public void write() { }
+
+        public void read() { }
+
+        @RequiresUserSync(deferrable = false)
+        public void create() { }
+    }
+
+    @RequiresUserSync
+    static class SyncedController {
+        public void anything() { }
+    }
+
+    private static HandlerMethod handler(Object bean, String method) {
+        try {
+            return new HandlerMethod(bean, bean.getClass().getMethod(method));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HandlerMethod syncedHandler() {
+        return handler(new SampleController(), "write");
+    }
+
     private static Jwt aJwt() {
         return Jwt.withTokenValue("test")
                 .header("alg", "ES256")
@@ -59,7 +107,7 @@ class JwtUserSyncInterceptorTest {
         Jwt jwt = aJwt();
         SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
 
-        boolean proceed = interceptor.preHandle(request, response, new Object());
+        boolean proceed = interceptor.preHandle(request, response, syncedHandler());
 
         assertThat(proceed).isTrue();
         verify(appUserService, times(1)).upsertFromJwt(jwt);
@@ -70,7 +118,7 @@ class JwtUserSyncInterceptorTest {
         SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
                 "key", "anonymous", List.of(new SimpleGrantedAuthority("ROLE_ANONYMOUS"))));
 
-        boolean proceed = interceptor.preHandle(request, response, new Object());
+        boolean proceed = interceptor.preHandle(request, response, syncedHandler());
 
         assertThat(proceed).isTrue();
         verify(appUserService, never()).upsertFromJwt(any());
@@ -79,7 +127,7 @@ class JwtUserSyncInterceptorTest {
     @Test
     void preHandle_skipsUpsertWhenNoAuthentication() {
         // SecurityContext starts clean per @AfterEach
-        boolean proceed = interceptor.preHandle(request, response, new Object());
+        boolean proceed = interceptor.preHandle(request, response, syncedHandler());
 
         assertThat(proceed).isTrue();
         verify(appUserService, never()).upsertFromJwt(any());
@@ -91,10 +139,105 @@ class JwtUserSyncInterceptorTest {
         SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
         when(appUserService.upsertFromJwt(jwt)).thenThrow(new RuntimeException("boom"));
 
-        boolean proceed = interceptor.preHandle(request, response, new Object());
+        boolean proceed = interceptor.preHandle(request, response, syncedHandler());
 
         // Critical: even when the upsert blows up, we let the handler run.
         assertThat(proceed).isTrue();
         verify(appUserService, times(1)).upsertFromJwt(jwt);
     }
+
+    @Test
+    void preHandle_skipsInlineUpsert_whenQueuedForWriteBehind() {
+        Jwt jwt = aJwt();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+        when(appUserSyncQueue.offer(jwt)).thenReturn(true);
+
+        boolean proceed = interceptor.preHandle(request, response, syncedHandler());
+
+        assertThat(proceed).isTrue();
+        verify(appUserService, never()).upsertFromJwt(any());
+    }
+
+    @Test
+    void preHandle_skipsSync_forHandlersWithoutAnnotation() {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(aJwt()));
+
+        boolean proceed = interceptor.preHandle(request, response, handler(new SampleController(), "read"));
+
+        assertThat(proceed).isTrue();
+        verifyNoInteractions(appUserService, appUserSyncQueue);
+    }
+
+    @Test
+    void preHandle_skipsSync_forNonMethodHandlers() {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(aJwt()));
+
+        boolean proceed = interceptor.preHandle(request, response, new Object());
+
+        assertThat(proceed).isTrue();
+        verifyNoInteractions(appUserService, appUserSyncQueue);
+    }
+
+    @Test
+    void preHandle_honoursClassLevelAnnotation() {
+        Jwt jwt = aJwt();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+
+        interceptor.preHandle(request, response, handler(new SyncedController(), "anything"));
+
+        verify(appUserService).upsertFromJwt(jwt);
+    }
+
+    @Test
+    void preHandle_flushesInsteadOfQueueing_forNonDeferrableHandler() {
+        Jwt jwt = aJwt();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+
+        boolean proceed = interceptor.preHandle(request, response, handler(new SampleController(), "create"));
+
+        assertThat(proceed).isTrue();
+        verify(appUserSyncQueue).flushNow(jwt);
+        verify(appUserSyncQueue, never()).offer(any());
+        verifyNoInteractions(appUserService);
+    }
+
+    /**
+     * A new author whose handle is taken, creating a post in write-behind
+     * mode: the collision and its retry happen here, each upsert outside
+     * any transaction, before the handler's own transaction opens.
+     */
+    @Test
+    void preHandle_writesNewAuthorThroughHandleCollision_beforeCreatePost_inWriteBehindMode() throws Exception {
+        AppUserRepository repository = mock(AppUserRepository.class);
+        AppUserService service = new AppUserService(repository, new AppUserProfileCache(), mock(UserSyncMarker.class));
+        StreamProperties props = new StreamProperties();
+        props.getUserSync().setMode(StreamProperties.Mode.WRITE_BEHIND);
+        AppUserSyncQueue queue = new AppUserSyncQueue(service, props);
+        JwtUserSyncInterceptor realInterceptor = new JwtUserSyncInterceptor(service, queue);
+        HandlerMethod createPost = new HandlerMethod(mock(PostController.class),
+                PostController.class.getMethod("createPost", Jwt.class, CreatePostRequest.class));
+
+        Jwt jwt = aJwt();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+        when(repository.findHandlesStartingWith("alice")).thenReturn(List.of("alice"));
+        when(repository.upsert(any(), anyString(), anyString(), any())).thenAnswer(inv -> {
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+            if (inv.getArgument(1).equals("alice")) {
+                throw new DataIntegrityViolationException("handle taken");
+            }
+            AppUser row = new AppUser();
+            row.setUserId(inv.getArgument(0));
+            row.setHandle(inv.getArgument(1));
+            row.setDisplayName(inv.getArgument(2));
+            return Optional.of(row);
+        });
+
+        boolean proceed = realInterceptor.preHandle(request, response, createPost);
+
+        assertThat(proceed).isTrue();
+        UUID sub = UUID.fromString(jwt.getSubject());
+        verify(repository).upsert(sub, "alice", "alice", null);
+        verify(repository).upsert(sub, "alice1", "alice", null);
+        assertThat(queue.size()).isZero();
+    }
 }
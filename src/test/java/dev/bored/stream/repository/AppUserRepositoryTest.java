@@ -67,4 +67,20 @@ class AppUserRepositoryTest {
         assertThat(appUserRepository.existsByHandle("carol")).isTrue();
         assertThat(appUserRepository.existsByHandle("missing")).isFalse();
     }
+
+    @Test
+    void findHandlesStartingWith_returnsOnlyTheSuffixSpace() {
+        appUserRepository.saveAndFlush(buildUser("dave", "Dave"));
+        appUserRepository.saveAndFlush(buildUser("dave1", "Dave"));
+        appUserRepository.saveAndFlush(buildUser("dave12", "Dave"));
+        appUserRepository.saveAndFlush(buildUser("davey", "Davey"));
+        appUserRepository.saveAndFlush(buildUser("dave07", "Dave"));
+        appUserRepository.saveAndFlush(buildUser("dave12345", "Dave"));
+        appUserRepository.saveAndFlush(buildUser("adave", "Adave"));
+
+        // Only the base and base-plus-number candidates come back.
+        assertThat(appUserRepository.findHandlesStartingWith("dave"))
+                .containsExactlyInAnyOrder("dave", "dave1", "dave12");
+        assertThat(appUserRepository.findHandlesStartingWith("erin")).isEmpty();
+    }
 }
@@ -5,8 +5,10 @@ import dev.bored.stream.entity.Post;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,13 +16,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * Slice tests for {@link PostRepository}. Exercises JPA round-trip
- * persistence and the soft-delete-aware lookup.
+ * persistence, the soft-delete-aware lookups (including the author
+ * join) and the keyset feed pages.
  */
 @DataJpaTest
 class PostRepositoryTest {
 
     @Autowired private PostRepository postRepository;
     @Autowired private AppUserRepository appUserRepository;
+    @Autowired private TestEntityManager entityManager;
 
     private AppUser anAuthor() {
         AppUser u = new AppUser();
@@ -77,4 +81,125 @@ class PostRepositoryTest {
         Optional<Post> found = postRepository.findByPostIdAndDeletedAtIsNull(999_999L);
         assertThat(found).isEmpty();
     }
+
+    // ── findLiveWithAuthor ──────────────────────────────────────────────
+
+    @Test
+    void findLiveWithAuthor_joinsAuthorRow() {
+        AppUser author = anAuthor();
+        Post saved = postRepository.saveAndFlush(aPost(author.getUserId()));
+
+        Optional<PostWithAuthor> found = postRepository.findLiveWithAuthor(saved.getPostId());
+
+        assertThat(found).isPresent();
+        assertThat(found.get().post().getCaption()).isEqualTo("hello world");
+        assertThat(found.get().author().getHandle()).isEqualTo(author.getHandle());
+    }
+
+    @Test
+    void findLiveWithAuthor_skipsTombstonedPost() {
+        AppUser author = anAuthor();
+        Post saved = postRepository.saveAndFlush(aPost(author.getUserId()));
+        saved.setDeletedAt(Instant.now());
+        postRepository.saveAndFlush(saved);
+
+        assertThat(postRepository.findLiveWithAuthor(saved.getPostId())).isEmpty();
+    }
+
+    // ── keyset feed pages ───────────────────────────────────────────────
+
+    @Test
+    void findLivePage_returnsNewestFirst_andSkipsTombstones() {
+        AppUser author = anAuthor();
+        Post first = postRepository.saveAndFlush(aPost(author.getUserId()));
+        Post second = postRepository.saveAndFlush(aPost(author.getUserId()));
+        Post deleted = postRepository.saveAndFlush(aPost(author.getUserId()));
+        deleted.setDeletedAt(Instant.now());
+        postRepository.saveAndFlush(deleted);
+
+        List<Post> page = postRepository.findLivePage(10);
+
+        assertThat(page).extracting(Post::getPostId)
+                .containsExactly(second.getPostId(), first.getPostId());
+    }
+
+    @Test
+    void findNewestLiveIds_returnsNewestFirst_skipsTombstones_andRespectsLimit() {
+        AppUser author = anAuthor();
+        Post first = postRepository.saveAndFlush(aPost(author.getUserId()));
+        Post second = postRepository.saveAndFlush(aPost(author.getUserId()));
+        Post deleted = postRepository.saveAndFlush(aPost(author.getUserId()));
+        deleted.setDeletedAt(Instant.now());
+        postRepository.saveAndFlush(deleted);
+
+        assertThat(postRepository.findNewestLiveIds(10)).containsExactly(second.getPostId(), first.getPostId());
+        assertThat(postRepository.findNewestLiveIds(1)).containsExactly(second.getPostId());
+    }
+
+    @Test
+    void findAllLiveIds_skipsTombstones_whileMaxPostIdCountsThem() {
+        assertThat(postRepository.findMaxPostId()).isZero();
+        AppUser author = anAuthor();
+        Post live = postRepository.saveAndFlush(aPost(author.getUserId()));
+        Post deleted = postRepository.saveAndFlush(aPost(author.getUserId()));
+        deleted.setDeletedAt(Instant.now());
+        postRepository.saveAndFlush(deleted);
+
+        assertThat(postRepository.findAllLiveIds()).containsExactly(live.getPostId());
+        assertThat(postRepository.findMaxPostId()).isEqualTo(deleted.getPostId());
+    }
+
+    @Test
+    void findLivePage_respectsLimit() {
+        AppUser author = anAuthor();
+        postRepository.saveAndFlush(aPost(author.getUserId()));
+        postRepository.saveAndFlush(aPost(author.getUserId()));
+
+        assertThat(postRepository.findLivePage(1)).hasSize(1);
+    }
+
+    @Test
+    void findLivePageBefore_continuesStrictlyAfterCursor() {
+        AppUser author = anAuthor();
+        Post first = postRepository.saveAndFlush(aPost(author.getUserId()));
+        Post second = postRepository.saveAndFlush(aPost(author.getUserId()));
+        Post third = postRepository.saveAndFlush(aPost(author.getUserId()));
+        // Read timestamps back at column precision, exactly as a real
+        // client's cursor would carry them.
+        entityManager.clear();
+
+        List<Post> firstPage = postRepository.findLivePage(2);
+        assertThat(firstPage).extracting(Post::getPostId)
+                .containsExactly(third.getPostId(), second.getPostId());
+
+        Post last = firstPage.get(1);
+        List<Post> nextPage = postRepository.findLivePageBefore(last.getCreatedAt(), last.getPostId(), 2);
+
+        assertThat(nextPage).extracting(Post::getPostId).containsExactly(first.getPostId());
+    }
+
+    // ── delta sync ──────────────────────────────────────────────────────
+
+    @Test
+    void deltaQueries_splitCreatesFromDeletes_afterTheGivenTime() {
+        AppUser author = anAuthor();
+        Post before = postRepository.saveAndFlush(aPost(author.getUserId()));
+        Instant since = Instant.now().minusSeconds(3600);
+        Post created = postRepository.saveAndFlush(aPost(author.getUserId()));
+        Post deleted = postRepository.saveAndFlush(aPost(author.getUserId()));
+        deleted.setDeletedAt(Instant.now());
+        postRepository.saveAndFlush(deleted);
+        // created_at is not updatable through JPA; backdate it directly.
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE post SET created_at = :t WHERE post_id = :id")
+                .setParameter("t", since.minusSeconds(3600))
+                .setParameter("id", before.getPostId())
+                .executeUpdate();
+        entityManager.clear();
+
+        assertThat(postRepository.findLiveCreatedAfter(since, 10)).extracting(Post::getPostId)
+                .containsExactly(created.getPostId());
+        assertThat(postRepository.findIdsDeletedAfter(since, 10)).containsExactly(deleted.getPostId());
+        assertThat(postRepository.findIdsDeletedAfter(Instant.now().plusSeconds(60), 10)).isEmpty();
+    }
 }
@@ -1,5 +1,7 @@
 package dev.bored.stream.service;
 
+import dev.bored.common.exception.GenericException;
+import dev.bored.stream.dto.AppUserSnapshot;
 import dev.bored.stream.entity.AppUser;
 import dev.bored.stream.repository.AppUserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,27 +10,40 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.jwt.Jwt;
 
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
  * Unit tests for {@link AppUserService}. Each test exercises one specific
  * behaviour: claim-resolution fallbacks, handle sanitisation, the
- * Caffeine fast-path, and the race-recovery on insert.
+ * profile-cache fast-path, and the race-recovery on insert.
  */
 @ExtendWith(MockitoExtension.class)
 class AppUserServiceTest {
@@ -36,6 +51,8 @@ class AppUserServiceTest {
     private static final UUID SUB = UUID.fromString("00000000-0000-0000-0000-000000000001");
 
     @Mock private AppUserRepository appUserRepository;
+    @Spy private AppUserProfileCache profileCache = new AppUserProfileCache();
+    @Mock private UserSyncMarker syncMarker;
     @InjectMocks private AppUserService appUserService;
 
     private static Jwt jwt(Map<String, Object> claims) {
@@ -55,146 +72,407 @@ class AppUserServiceTest {
         return u;
     }
 
+    /** Claims that resolve to exactly what {@link #persistedUser()} holds. */
+    private static Map<String, Object> aliceClaims() {
+        return Map.of("name", "Alice", "picture", "https://old.example.com/a.png");
+    }
+
     @BeforeEach
     void resetCache() {
-        // Each test gets a fresh service so the Caffeine cache doesn't leak
-        // state between tests. @InjectMocks rebuilds it before each test.
+        // Each test gets a fresh service and profile cache so cached
+        // snapshots don't leak between tests. @Spy / @InjectMocks rebuild
+        // both before each test.
+    }
+
+    /** Stubs the native upsert to echo back the row it was asked to write. */
+    private void upsertEchoes() {
+        when(appUserRepository.upsert(any(), anyString(), anyString(), any()))
+                .thenAnswer(inv -> Optional.of(row(inv.getArgument(1), inv.getArgument(2), inv.getArgument(3))));
+    }
+
+    private static AppUser row(String handle, String displayName, String avatarUrl) {
+        AppUser u = new AppUser();
+        u.setUserId(SUB);
+        u.setHandle(handle);
+        u.setDisplayName(displayName);
+        u.setAvatarUrl(avatarUrl);
+        return u;
     }
 
     // ── upsertFromJwt: insert path ──────────────────────────────────────
 
     @Test
     void upsertFromJwt_insertsNewUser_withDerivedHandleFromEmail() {
-        when(appUserRepository.findById(SUB)).thenReturn(Optional.empty());
-        when(appUserRepository.existsByHandle(anyString())).thenReturn(false);
-        when(appUserRepository.save(any(AppUser.class))).thenAnswer(inv -> inv.getArgument(0));
+        upsertEchoes();
 
-        AppUser saved = appUserService.upsertFromJwt(jwt(Map.of(
+        AppUserSnapshot saved = appUserService.upsertFromJwt(jwt(Map.of(
                 "email", "alice@example.com",
                 "name", "Alice"
         )));
 
-        ArgumentCaptor<AppUser> captor = ArgumentCaptor.forClass(AppUser.class);
-        verify(appUserRepository).save(captor.capture());
-        AppUser written = captor.getValue();
-        assertThat(written.getUserId()).isEqualTo(SUB);
-        assertThat(written.getHandle()).isEqualTo("alice");
-        assertThat(written.getDisplayName()).isEqualTo("Alice");
-        assertThat(saved.getHandle()).isEqualTo("alice");
+        // One statement, no collision probing up front.
+        verify(appUserRepository, times(1)).upsert(SUB, "alice", "Alice", null);
+        verify(appUserRepository, never()).findHandlesStartingWith(anyString());
+        assertThat(saved.handle()).isEqualTo("alice");
+        assertThat(saved.displayName()).isEqualTo("Alice");
     }
 
     @Test
     void upsertFromJwt_appendsSuffix_whenHandleCollides() {
-        when(appUserRepository.findById(SUB)).thenReturn(Optional.empty());
-        when(appUserRepository.existsByHandle("alice")).thenReturn(true);
-        when(appUserRepository.existsByHandle("alice1")).thenReturn(true);
-        when(appUserRepository.existsByHandle("alice2")).thenReturn(false);
-        when(appUserRepository.save(any(AppUser.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(appUserRepository.upsert(SUB, "alice", "alice", null))
+                .thenThrow(new DataIntegrityViolationException("handle taken"));
+        when(appUserRepository.findHandlesStartingWith("alice")).thenReturn(List.of("alice", "alice1"));
+        when(appUserRepository.upsert(SUB, "alice2", "alice", null))
+                .thenReturn(Optional.of(row("alice2", "alice", null)));
 
-        AppUser saved = appUserService.upsertFromJwt(jwt(Map.of("email", "alice@example.com")));
+        AppUserSnapshot saved = appUserService.upsertFromJwt(jwt(Map.of("email", "alice@example.com")));
 
-        assertThat(saved.getHandle()).isEqualTo("alice2");
+        assertThat(saved.handle()).isEqualTo("alice2");
+        verify(appUserRepository, never()).existsByHandle(anyString());
     }
 
     @Test
     void upsertFromJwt_fallsBackToUuidPrefix_whenSanitizationYieldsEmpty() {
-        when(appUserRepository.findById(SUB)).thenReturn(Optional.empty());
-        when(appUserRepository.existsByHandle(anyString())).thenReturn(false);
-        when(appUserRepository.save(any(AppUser.class))).thenAnswer(inv -> inv.getArgument(0));
+        upsertEchoes();
 
         // No email, no name, no metadata → base handle is empty → UUID prefix
-        AppUser saved = appUserService.upsertFromJwt(jwt(Map.of()));
+        AppUserSnapshot saved = appUserService.upsertFromJwt(jwt(Map.of()));
 
-        assertThat(saved.getHandle()).isEqualTo("u00000000");
+        assertThat(saved.handle()).isEqualTo("u00000000");
     }
 
     // ── upsertFromJwt: update path ─────────────────────────────────────
 
     @Test
     void upsertFromJwt_updatesExistingUser_keepsHandleSticky() {
-        AppUser existing = persistedUser();
-        when(appUserRepository.findById(SUB)).thenReturn(Optional.of(existing));
-        when(appUserRepository.save(any(AppUser.class))).thenAnswer(inv -> inv.getArgument(0));
+        // The DB already holds "alice"; the statement ignores the offered
+        // handle on conflict and returns the stored one.
+        when(appUserRepository.upsert(SUB, "alice-updated", "Alice Updated", "https://new.example.com/a.png"))
+                .thenReturn(Optional.of(row("alice", "Alice Updated", "https://new.example.com/a.png")));
 
-        AppUser saved = appUserService.upsertFromJwt(jwt(Map.of(
+        AppUserSnapshot saved = appUserService.upsertFromJwt(jwt(Map.of(
                 "name", "Alice Updated",
                 "picture", "https://new.example.com/a.png"
         )));
 
         // Handle stays the same, display name + avatar refreshed
-        assertThat(saved.getHandle()).isEqualTo("alice");
-        assertThat(saved.getDisplayName()).isEqualTo("Alice Updated");
-        assertThat(saved.getAvatarUrl()).isEqualTo("https://new.example.com/a.png");
+        assertThat(saved.handle()).isEqualTo("alice");
+        assertThat(saved.displayName()).isEqualTo("Alice Updated");
+        assertThat(saved.avatarUrl()).isEqualTo("https://new.example.com/a.png");
+    }
+
+    @Test
+    void upsertFromJwt_rereadsRow_whenUpsertReturnsNothing() {
+        // Concurrent insert committed after the statement's snapshot.
+        when(appUserRepository.upsert(any(), anyString(), anyString(), any())).thenReturn(Optional.empty());
+        when(appUserRepository.findById(SUB)).thenReturn(Optional.of(persistedUser()));
+
+        AppUserSnapshot saved = appUserService.upsertFromJwt(jwt(Map.of("email", "alice@example.com")));
+
+        assertThat(saved.handle()).isEqualTo("alice");
+    }
+
+    @Test
+    void upsertFromJwt_throws500_whenRowCannotBeFound() {
+        when(appUserRepository.upsert(any(), anyString(), anyString(), any())).thenReturn(Optional.empty());
+        when(appUserRepository.findById(SUB)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> appUserService.upsertFromJwt(jwt(Map.of("email", "alice@example.com"))))
+                .isInstanceOfSatisfying(GenericException.class, ex ->
+                        assertThat(ex.getStatus()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR));
     }
 
     // ── upsertFromJwt: caching ─────────────────────────────────────────
 
     @Test
-    void upsertFromJwt_skipsRepositorySave_onSecondCallWithinTtl() {
-        AppUser existing = persistedUser();
-        when(appUserRepository.findById(SUB)).thenReturn(Optional.of(existing));
-        when(appUserRepository.save(any(AppUser.class))).thenAnswer(inv -> inv.getArgument(0));
+    void upsertFromJwt_doesNoDatabaseIo_onSecondCallWithinTtl() {
+        upsertEchoes();
 
         appUserService.upsertFromJwt(jwt(Map.of("name", "Alice")));   // first call: writes
-        appUserService.upsertFromJwt(jwt(Map.of("name", "Alice")));   // second call: cache hit
+        AppUserSnapshot second = appUserService.upsertFromJwt(jwt(Map.of("name", "Alice")));   // cache hit
 
-        verify(appUserRepository, times(1)).save(any(AppUser.class));
-        // findById is called both times — once for the slow path, once
-        // through the cache fast path to retrieve the row to return.
-        verify(appUserRepository, times(2)).findById(SUB);
+        // The repeat request is served entirely from the profile cache.
+        verify(appUserRepository, times(1)).upsert(any(), anyString(), anyString(), any());
+        verify(appUserRepository, never()).findById(any());
+        assertThat(second.handle()).isEqualTo("alice");
     }
 
     @Test
-    void upsertFromJwt_recoversFromCachePoisoning_whenRowMissing() {
-        // First call: write the row, cache marks it as freshly synced
-        when(appUserRepository.findById(SUB))
-                .thenReturn(Optional.empty())              // 1st call: missing → insert
-                .thenReturn(Optional.empty())              // 2nd call: cache hit then row missing
-                .thenReturn(Optional.empty());             // re-sync slow path also missing
-        when(appUserRepository.existsByHandle(anyString())).thenReturn(false);
-        when(appUserRepository.save(any(AppUser.class))).thenAnswer(inv -> inv.getArgument(0));
+    void upsertFromJwt_usesSnapshotCachedByReadPath() {
+        // A read path (e.g. PostService author hydration) already cached
+        // this user — the sync path must not hit the DB either.
+        profileCache.put(persistedUser());
+
+        AppUserSnapshot saved = appUserService.upsertFromJwt(jwt(aliceClaims()));
+
+        assertThat(saved.handle()).isEqualTo("alice");
+        verifyNoInteractions(appUserRepository);
+    }
+
+    @Test
+    void upsertFromJwt_resyncsImmediately_whenClaimsChangeWithinTtl() {
+        profileCache.put(persistedUser());
+        when(appUserRepository.upsert(SUB, "alice-new", "Alice New", "https://old.example.com/a.png"))
+                .thenReturn(Optional.of(row("alice", "Alice New", "https://old.example.com/a.png")));
+
+        AppUserSnapshot saved = appUserService.upsertFromJwt(jwt(Map.of(
+                "name", "Alice New", "picture", "https://old.example.com/a.png")));
+
+        assertThat(saved.displayName()).isEqualTo("Alice New");
+    }
+
+    @Test
+    void upsertFromJwt_onlyRereads_whenSnapshotExpiredButFingerprintMatches() {
+        upsertEchoes();
+        appUserService.upsertFromJwt(jwt(aliceClaims()));
+        profileCache.invalidate(SUB);   // snapshot aged out, fingerprint still known
+        when(appUserRepository.findById(SUB)).thenReturn(Optional.of(persistedUser()));
+
+        AppUserSnapshot again = appUserService.upsertFromJwt(jwt(aliceClaims()));
+
+        assertThat(again.displayName()).isEqualTo("Alice");
+        verify(appUserRepository, times(1)).upsert(any(), anyString(), anyString(), any());
+        verify(appUserRepository).findById(SUB);
+    }
+
+    @Test
+    void upsertFromJwt_resyncs_afterCacheInvalidation() {
+        upsertEchoes();
 
         appUserService.upsertFromJwt(jwt(Map.of("email", "alice@example.com")));
+        profileCache.invalidate(SUB);   // e.g. after a manual DB wipe
         appUserService.upsertFromJwt(jwt(Map.of("email", "alice@example.com")));
 
-        // Two saves total — the cache fast-path detected the missing row
-        // and fell through, triggering a fresh insert.
-        verify(appUserRepository, times(2)).save(any(AppUser.class));
+        verify(appUserRepository, times(2)).upsert(any(), anyString(), anyString(), any());
     }
 
-    // ── upsertFromJwt: race recovery ───────────────────────────────────
+    // ── upsertFromJwt: cluster-wide marker ─────────────────────────────
 
     @Test
-    void upsertFromJwt_recoversFromConcurrentInsertRace() {
-        AppUser concurrentlyInserted = persistedUser();
-        when(appUserRepository.findById(SUB))
-                .thenReturn(Optional.empty())                      // 1st: nothing yet
-                .thenReturn(Optional.of(concurrentlyInserted));    // 2nd (race recovery): now exists
-        when(appUserRepository.existsByHandle(anyString())).thenReturn(false);
-        when(appUserRepository.save(any(AppUser.class)))
-                .thenThrow(new DataIntegrityViolationException("dup"));
+    void upsertFromJwt_readsInsteadOfWriting_whenAnotherInstanceSyncedSameClaims() {
+        long fp = AppUserSnapshot.fingerprint("Alice", "https://old.example.com/a.png");
+        when(syncMarker.claimedElsewhere(SUB, fp)).thenReturn(true);
+        when(appUserRepository.findById(SUB)).thenReturn(Optional.of(persistedUser()));
+
+        AppUserSnapshot saved = appUserService.upsertFromJwt(jwt(aliceClaims()));
+
+        assertThat(saved.handle()).isEqualTo("alice");
+        verify(appUserRepository, never()).upsert(any(), anyString(), anyString(), any());
+        // Remembered locally: the next request doesn't ask Redis again.
+        appUserService.upsertFromJwt(jwt(aliceClaims()));
+        verify(syncMarker, times(1)).claimedElsewhere(any(), anyLong());
+    }
+
+    @Test
+    void upsertFromJwt_writesAnyway_whenClaimedRowNotCommittedYet() {
+        when(syncMarker.claimedElsewhere(any(), anyLong())).thenReturn(true);
+        when(appUserRepository.findById(SUB)).thenReturn(Optional.empty());
+        upsertEchoes();
+
+        appUserService.upsertFromJwt(jwt(aliceClaims()));
 
-        AppUser saved = appUserService.upsertFromJwt(jwt(Map.of("email", "alice@example.com")));
+        verify(appUserRepository).upsert(SUB, "alice", "Alice", "https://old.example.com/a.png");
+    }
+
+    @Test
+    void upsertFromJwt_releasesMarker_whenWriteFails() {
+        when(appUserRepository.upsert(any(), anyString(), anyString(), any()))
+                .thenThrow(new RuntimeException("db down"));
+
+        assertThatThrownBy(() -> appUserService.upsertFromJwt(jwt(aliceClaims()))).hasMessage("db down");
+
+        verify(syncMarker).release(SUB, AppUserSnapshot.fingerprint("Alice", "https://old.example.com/a.png"));
+    }
+
+    // ── upsertFromJwt: handle collisions ───────────────────────────────
 
-        assertThat(saved.getHandle()).isEqualTo("alice");
+    @Test
+    void upsertFromJwt_propagatesException_whenEveryGeneratedHandleCollides() {
+        when(appUserRepository.upsert(any(), anyString(), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("dup"));
+        when(appUserRepository.findHandlesStartingWith("alice")).thenReturn(List.of());
+
+        assertThatThrownBy(() -> appUserService.upsertFromJwt(jwt(Map.of("email", "alice@example.com"))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(profileCache.getIfPresent(SUB)).isNull();
+        // The base, then each generated attempt with a freshly read index.
+        verify(appUserRepository, times(1 + AppUserService.UNIQUE_HANDLE_ATTEMPTS))
+                .upsert(any(), anyString(), anyString(), any());
+        verify(appUserRepository, times(AppUserService.UNIQUE_HANDLE_ATTEMPTS)).findHandlesStartingWith("alice");
     }
 
     @Test
-    void upsertFromJwt_propagatesException_whenRaceRecoveryAlsoMisses() {
-        when(appUserRepository.findById(SUB))
-                .thenReturn(Optional.empty())
-                .thenReturn(Optional.empty());
-        when(appUserRepository.existsByHandle(anyString())).thenReturn(false);
-        DataIntegrityViolationException original = new DataIntegrityViolationException("dup");
-        when(appUserRepository.save(any(AppUser.class))).thenThrow(original);
+    void upsertFromJwt_retriesWithRereadIndex_afterStaleIndexCollision() {
+        when(appUserRepository.findHandlesStartingWith("alice"))
+                .thenReturn(List.of("alice"))
+                .thenReturn(List.of("alice", "alice1"));
+        when(appUserRepository.upsert(any(), anyString(), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("dup"))
+                .thenThrow(new DataIntegrityViolationException("alice1 claimed elsewhere"))
+                .thenAnswer(inv -> Optional.of(row(inv.getArgument(1), inv.getArgument(2), inv.getArgument(3))));
+
+        AppUserSnapshot saved = appUserService.upsertFromJwt(jwt(Map.of("email", "alice@example.com")));
+
+        // The stale entry was dropped, so the retry re-read it and skipped alice1.
+        assertThat(saved.handle()).isEqualTo("alice2");
+        verify(appUserRepository, times(2)).findHandlesStartingWith("alice");
+    }
+
+    // ── upsertFromJwt: single flight ───────────────────────────────────
+
+    /** Spins until {@code t} is parked, i.e. blocked on the leader's future. */
+    private static void awaitParked(Thread t) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (t.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(t.getState()).isEqualTo(Thread.State.WAITING);
+    }
 
+    private void syncCapturing(Jwt token, AtomicReference<Throwable> error) {
         try {
-            appUserService.upsertFromJwt(jwt(Map.of("email", "alice@example.com")));
-        } catch (DataIntegrityViolationException e) {
-            assertThat(e).isSameAs(original);
-            return;
+            appUserService.upsertFromJwt(token);
+        } catch (RuntimeException e) {
+            error.set(e);
         }
-        throw new AssertionError("expected DataIntegrityViolationException");
+    }
+
+    @Test
+    void upsertFromJwt_coalescesConcurrentCallsForSameUser() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(appUserRepository.upsert(any(), anyString(), anyString(), any())).thenAnswer(inv -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(row(inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+        });
+        Jwt token = jwt(Map.of("email", "alice@example.com"));
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<AppUserSnapshot>> results = new ArrayList<>();
+            results.add(pool.submit(() -> appUserService.upsertFromJwt(token)));
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> appUserService.upsertFromJwt(token)));
+            }
+            release.countDown();
+
+            for (Future<AppUserSnapshot> r : results) {
+                assertThat(r.get(5, TimeUnit.SECONDS).handle()).isEqualTo("alice");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(appUserRepository, times(1)).upsert(any(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void upsertFromJwt_sharesLeaderFailure_withWaitingCallers() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RuntimeException boom = new RuntimeException("db down");
+        when(appUserRepository.upsert(any(), anyString(), anyString(), any())).thenAnswer(inv -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw boom;
+        });
+        Jwt token = jwt(Map.of("email", "alice@example.com"));
+        AtomicReference<Throwable> leaderError = new AtomicReference<>();
+        AtomicReference<Throwable> followerError = new AtomicReference<>();
+        Thread leader = new Thread(() -> syncCapturing(token, leaderError));
+        Thread follower = new Thread(() -> syncCapturing(token, followerError));
+
+        leader.start();
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        follower.start();
+        awaitParked(follower);
+        release.countDown();
+        leader.join(5_000);
+        follower.join(5_000);
+
+        assertThat(leaderError.get()).isSameAs(boom);
+        assertThat(followerError.get()).isSameAs(boom);
+        verify(appUserRepository, times(1)).upsert(any(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void upsertFromJwt_runsFreshSync_afterPreviousOneFailed() {
+        when(appUserRepository.upsert(any(), anyString(), anyString(), any()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(Optional.of(row("alice", "alice", null)));
+        Jwt token = jwt(Map.of("email", "alice@example.com"));
+
+        assertThatThrownBy(() -> appUserService.upsertFromJwt(token)).hasMessage("db down");
+
+        assertThat(appUserService.upsertFromJwt(token).handle()).isEqualTo("alice");
+    }
+
+    // ── upsertAll (write-behind batches) ───────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upsertAll_writesOneBatch_forUncachedUsers_andCachesRows() {
+        UUID other = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        profileCache.put(persistedUser());
+        Jwt cachedUser = jwt(aliceClaims());
+        Jwt newUser = Jwt.withTokenValue("test").header("alg", "ES256")
+                .subject(other.toString()).claim("email", "bob@example.com").build();
+        AppUser bob = row("bob", "bob", null);
+        bob.setUserId(other);
+        when(appUserRepository.findAllById(any())).thenReturn(List.of(bob));
+
+        appUserService.upsertAll(List.of(cachedUser, newUser));
+
+        ArgumentCaptor<List<AppUser>> batch = ArgumentCaptor.forClass(List.class);
+        verify(appUserRepository).upsertAll(batch.capture());
+        assertThat(batch.getValue()).extracting(AppUser::getUserId).containsExactly(other);
+        assertThat(batch.getValue().get(0).getHandle()).isEqualTo("bob");
+        assertThat(profileCache.getIfPresent(other)).isNotNull();
+    }
+
+    @Test
+    void upsertAll_doesNothing_whenEveryUserIsCached() {
+        profileCache.put(persistedUser());
+
+        appUserService.upsertAll(List.of(jwt(aliceClaims())));
+
+        verifyNoInteractions(appUserRepository);
+    }
+
+    @Test
+    void upsertAll_fallsBackToSingleUpserts_onHandleCollision() {
+        doThrow(new DataIntegrityViolationException("handle taken"))
+                .when(appUserRepository).upsertAll(any());
+        upsertEchoes();
+
+        appUserService.upsertAll(List.of(jwt(Map.of("email", "alice@example.com"))));
+
+        verify(appUserRepository).upsert(SUB, "alice", "alice", null);
+        assertThat(profileCache.getIfPresent(SUB)).isNotNull();
+        verify(appUserRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void upsertAll_keepsGoing_whenOneFallbackFails() {
+        doThrow(new DataIntegrityViolationException("handle taken"))
+                .when(appUserRepository).upsertAll(any());
+        when(appUserRepository.upsert(any(), anyString(), anyString(), any()))
+                .thenThrow(new RuntimeException("db down"));
+
+        appUserService.upsertAll(List.of(jwt(Map.of("email", "alice@example.com"))));
+
+        assertThat(profileCache.getIfPresent(SUB)).isNull();
+    }
+
+    @Test
+    void needsSync_comparesClaimsFingerprint() {
+        Jwt token = jwt(aliceClaims());
+        assertThat(appUserService.needsSync(token)).isTrue();
+
+        profileCache.put(persistedUser());
+
+        assertThat(appUserService.needsSync(token)).isFalse();
+        assertThat(appUserService.needsSync(jwt(Map.of("name", "Alice")))).isTrue();
     }
 
     // ── resolveDisplayName ─────────────────────────────────────────────
@@ -324,16 +602,41 @@ class AppUserServiceTest {
 
     @Test
     void generateUniqueHandle_returnsBase_whenUnused() {
-        when(appUserRepository.existsByHandle("alice")).thenReturn(false);
+        when(appUserRepository.findHandlesStartingWith("alice")).thenReturn(List.of());
         String handle = appUserService.generateUniqueHandle(
                 jwt(Map.of("email", "alice@example.com")), SUB);
         assertThat(handle).isEqualTo("alice");
     }
 
+    @Test
+    void generateUniqueHandle_picksLowestFreeSuffix() {
+        // alice2 is the gap; unrelated handles sharing the prefix are ignored.
+        when(appUserRepository.findHandlesStartingWith("alice"))
+                .thenReturn(List.of("alice", "alice1", "alice3", "alicebob", "alice02", "alice-x"));
+        String handle = appUserService.generateUniqueHandle(
+                jwt(Map.of("email", "alice@example.com")), SUB);
+        assertThat(handle).isEqualTo("alice2");
+    }
+
+    @Test
+    void generateUniqueHandle_reusesIndex_acrossSignUps() {
+        when(appUserRepository.findHandlesStartingWith("alice")).thenReturn(List.of("alice"));
+        Jwt token = jwt(Map.of("email", "alice@example.com"));
+
+        assertThat(appUserService.generateUniqueHandle(token, SUB)).isEqualTo("alice1");
+        assertThat(appUserService.generateUniqueHandle(token, SUB)).isEqualTo("alice2");
+        verify(appUserRepository, times(1)).findHandlesStartingWith("alice");
+    }
+
     @Test
     void generateUniqueHandle_fallsBackAfterMaxSuffix() {
         // Every candidate in the suffix space is taken -> UUID fallback.
-        when(appUserRepository.existsByHandle(anyString())).thenReturn(true);
+        List<String> taken = new ArrayList<>();
+        taken.add("alice");
+        for (int i = 1; i <= 1000; i++) {
+            taken.add("alice" + i);
+        }
+        when(appUserRepository.findHandlesStartingWith("alice")).thenReturn(taken);
         String handle = appUserService.generateUniqueHandle(
                 jwt(Map.of("email", "alice@example.com")), SUB);
         assertThat(handle).isEqualTo("u00000000");
@@ -341,29 +644,51 @@ class AppUserServiceTest {
 
     @Test
     void generateUniqueHandle_handlesNameClaimAsBase() {
-        when(appUserRepository.existsByHandle("john-doe")).thenReturn(false);
+        when(appUserRepository.findHandlesStartingWith("john-doe")).thenReturn(List.of());
         String handle = appUserService.generateUniqueHandle(
                 jwt(Map.of("name", "John Doe")), SUB);
         assertThat(handle).isEqualTo("john-doe");
     }
 
-    // ── unused but kept for confidence ─────────────────────────────────
+    // ── suffixOf ───────────────────────────────────────────────────────
 
     @Test
-    void recentSyncCache_doesNotShareAcrossInstants() {
-        // Sanity: confirm the service's internal cache field exists and
-        // isn't accidentally null. We exercise it by performing one
-        // upsert, which puts an entry in the cache.
-        when(appUserRepository.findById(SUB)).thenReturn(Optional.empty());
-        when(appUserRepository.existsByHandle(anyString())).thenReturn(false);
-        when(appUserRepository.save(any(AppUser.class))).thenAnswer(inv -> inv.getArgument(0));
+    void suffixOf_parsesOnlyGeneratableSuffixes() {
+        assertThat(AppUserService.suffixOf("john", "john")).isZero();
+        assertThat(AppUserService.suffixOf("john", "john7")).isEqualTo(7);
+        assertThat(AppUserService.suffixOf("john", "john1000")).isEqualTo(1000);
+        assertThat(AppUserService.suffixOf("john", "john1001")).isEqualTo(-1);
+        assertThat(AppUserService.suffixOf("john", "john99999")).isEqualTo(-1);
+        assertThat(AppUserService.suffixOf("john", "john07")).isEqualTo(-1);
+        assertThat(AppUserService.suffixOf("john", "johnny")).isEqualTo(-1);
+        assertThat(AppUserService.suffixOf("john", "john1a")).isEqualTo(-1);
+    }
+
+    // ── claims fingerprint ─────────────────────────────────────────────
+
+    @Test
+    void fingerprint_separatesFieldsAndNullAvatar() {
+        long base = AppUserSnapshot.fingerprint("Alice", "https://a.example.com/x.png");
+
+        assertThat(AppUserSnapshot.fingerprint("Alice", "https://a.example.com/x.png")).isEqualTo(base);
+        assertThat(AppUserSnapshot.fingerprint("Alicia", "https://a.example.com/x.png")).isNotEqualTo(base);
+        assertThat(AppUserSnapshot.fingerprint("ab", "c")).isNotEqualTo(AppUserSnapshot.fingerprint("a", "bc"));
+        assertThat(AppUserSnapshot.fingerprint("Alice", null)).isNotEqualTo(AppUserSnapshot.fingerprint("Alice", ""));
+        assertThat(AppUserSnapshot.from(persistedUser()).fingerprint())
+                .isEqualTo(AppUserSnapshot.fingerprint("Alice", "https://old.example.com/a.png"));
+    }
+
+    // ── profile cache population ───────────────────────────────────────
+
+    @Test
+    void upsertFromJwt_populatesSharedProfileCache() {
+        upsertEchoes();
 
-        Instant before = Instant.now();
         appUserService.upsertFromJwt(jwt(Map.of("email", "x@example.com")));
-        Instant after = Instant.now();
 
-        // No assertion failure = pass. Bounds check just to use `before`/`after`.
-        assertThat(before).isBeforeOrEqualTo(after);
+        AppUserSnapshot cached = profileCache.getIfPresent(SUB);
+        assertThat(cached).isNotNull();
+        assertThat(cached.handle()).isEqualTo("x");
         verify(appUserRepository, never()).deleteById(any());
     }
 }
@@ -0,0 +1,199 @@
+package dev.bored.stream.service;
+
+import dev.bored.stream.config.StreamProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AppUserSyncQueue}: mode gating, deduplication,
+ * the capacity bound, batching, forced flushes and the shutdown drain.
+ */
+@ExtendWith(MockitoExtension.class)
+class AppUserSyncQueueTest {
+
+    @Mock private AppUserService appUserService;
+
+    private StreamProperties props;
+    private AppUserSyncQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        props = new StreamProperties();
+        props.getUserSync().setMode(StreamProperties.Mode.WRITE_BEHIND);
+        props.getUserSync().setQueueCapacity(3);
+        props.getUserSync().setBatchSize(2);
+        // Long enough that the background flusher never races the test.
+        props.getUserSync().setFlushInterval(Duration.ofHours(1));
+        queue = new AppUserSyncQueue(appUserService, props);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue.isRunning()) {
+            queue.stop();
+        }
+    }
+
+    private static Jwt jwt(UUID sub, String name) {
+        return Jwt.withTokenValue("test")
+                .header("alg", "ES256")
+                .subject(sub.toString())
+                .claim("name", name)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Jwt>> capturedBatches() {
+        ArgumentCaptor<Collection<Jwt>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(appUserService, atLeastOnce()).upsertAll(captor.capture());
+        List<List<Jwt>> batches = new ArrayList<>();
+        captor.getAllValues().forEach(b -> batches.add(new ArrayList<>(b)));
+        return batches;
+    }
+
+    @Test
+    void offer_refuses_inSyncMode() {
+        props.getUserSync().setMode(StreamProperties.Mode.SYNC);
+        queue.start();
+
+        assertThat(queue.offer(jwt(UUID.randomUUID(), "a"))).isFalse();
+        verifyNoInteractions(appUserService);
+    }
+
+    @Test
+    void offer_refuses_beforeStart() {
+        assertThat(queue.offer(jwt(UUID.randomUUID(), "a"))).isFalse();
+    }
+
+    @Test
+    void offer_acceptsWithoutQueueing_whenUserAlreadyInSync() {
+        queue.start();
+        Jwt token = jwt(UUID.randomUUID(), "a");
+        when(appUserService.needsSync(token)).thenReturn(false);
+
+        assertThat(queue.offer(token)).isTrue();
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void offer_deduplicatesByUser_keepingNewestClaims() {
+        queue.start();
+        UUID sub = UUID.randomUUID();
+        Jwt older = jwt(sub, "old");
+        Jwt newer = jwt(sub, "new");
+        when(appUserService.needsSync(any())).thenReturn(true);
+
+        queue.offer(older);
+        queue.offer(newer);
+        assertThat(queue.size()).isEqualTo(1);
+
+        queue.drain();
+        assertThat(capturedBatches()).containsExactly(List.of(newer));
+    }
+
+    @Test
+    void offer_refusesNewUsers_whenFull() {
+        queue.start();
+        when(appUserService.needsSync(any())).thenReturn(true);
+        Jwt first = jwt(UUID.randomUUID(), "a");
+        queue.offer(first);
+        queue.offer(jwt(UUID.randomUUID(), "b"));
+        queue.offer(jwt(UUID.randomUUID(), "c"));
+
+        assertThat(queue.offer(jwt(UUID.randomUUID(), "d"))).isFalse();
+        // A user already queued can still refresh their entry.
+        assertThat(queue.offer(first)).isTrue();
+        assertThat(queue.size()).isEqualTo(3);
+    }
+
+    @Test
+    void drain_writesInBatchesOfConfiguredSize() {
+        queue.start();
+        when(appUserService.needsSync(any())).thenReturn(true);
+        queue.offer(jwt(UUID.randomUUID(), "a"));
+        queue.offer(jwt(UUID.randomUUID(), "b"));
+        queue.offer(jwt(UUID.randomUUID(), "c"));
+
+        queue.drain();
+
+        assertThat(capturedBatches()).extracting(List::size).containsExactly(2, 1);
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void flushBatch_swallowsFailures() {
+        queue.start();
+        when(appUserService.needsSync(any())).thenReturn(true);
+        queue.offer(jwt(UUID.randomUUID(), "a"));
+        doThrow(new RuntimeException("db down")).when(appUserService).upsertAll(any());
+
+        assertThat(queue.flushBatch()).isEqualTo(1);
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void flushNow_writesCallerInline_andDropsPendingEntry() {
+        queue.start();
+        Jwt token = jwt(UUID.randomUUID(), "a");
+        when(appUserService.needsSync(token)).thenReturn(true);
+        queue.offer(token);
+
+        queue.flushNow(token);
+
+        verify(appUserService).upsertFromJwt(token);
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void flushNow_writesInline_inSyncModeToo() {
+        props.getUserSync().setMode(StreamProperties.Mode.SYNC);
+        Jwt token = jwt(UUID.randomUUID(), "a");
+
+        queue.flushNow(token);
+
+        verify(appUserService).upsertFromJwt(token);
+    }
+
+    @Test
+    void stopWithCallback_drainsQueue_thenSignalsCompletion() throws InterruptedException {
+        queue.start();
+        when(appUserService.needsSync(any())).thenReturn(true);
+        queue.offer(jwt(UUID.randomUUID(), "a"));
+        CountDownLatch flushed = new CountDownLatch(1);
+        doAnswer(inv -> {
+            flushed.countDown();
+            return null;
+        }).when(appUserService).upsertAll(any());
+        CountDownLatch done = new CountDownLatch(1);
+
+        queue.stop(done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(flushed.getCount()).isZero();
+        assertThat(queue.isRunning()).isFalse();
+        assertThat(queue.offer(jwt(UUID.randomUUID(), "late"))).isFalse();
+    }
+}
@@ -0,0 +1,104 @@
+package dev.bored.stream.service;
+
+import dev.bored.common.exception.GenericException;
+import dev.bored.stream.config.StreamProperties;
+import dev.bored.stream.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CacheWarmup}: what gets loaded, the budget, and
+ * the readiness health it reports along the way.
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheWarmupTest {
+
+    @Mock private FeedPostService feedPostService;
+    @Mock private PostService postService;
+    @Mock private PostRepository postRepository;
+
+    private StreamProperties props;
+    private CacheWarmup warmup;
+
+    @BeforeEach
+    void setUp() {
+        props = new StreamProperties();
+        props.getWarmup().setRecentPosts(3);
+        props.getWarmup().setParallelism(2);
+        warmup = new CacheWarmup(feedPostService, postService, postRepository, props);
+    }
+
+    @Test
+    void health_isOutOfService_untilWarmupRan() {
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    }
+
+    @Test
+    void disabled_isUpImmediately_andLoadsNothing() {
+        props.getWarmup().setEnabled(false);
+
+        warmup.onApplicationReady();
+
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.UP);
+        verifyNoInteractions(feedPostService, postService, postRepository);
+    }
+
+    @Test
+    void run_loadsFeedAndNewestPosts_thenReportsUp() {
+        when(postRepository.findNewestLiveIds(3)).thenReturn(List.of(3L, 2L, 1L));
+        when(postService.getPostById(2L))
+                .thenThrow(new GenericException("Post not found with id: 2", HttpStatus.NOT_FOUND));
+
+        warmup.run();
+
+        verify(feedPostService).getAllPosts();
+        verify(postService).getPostById(3L);
+        verify(postService).getPostById(1L);
+        Health health = warmup.health();
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails())
+                .containsEntry("state", "done")
+                .containsEntry("loaded", 3)
+                .containsEntry("failed", 1);
+    }
+
+    @Test
+    void run_givesUpAtBudget_andStillReportsUp() {
+        props.getWarmup().setBudget(Duration.ofMillis(50));
+        CountDownLatch never = new CountDownLatch(1);
+        when(postRepository.findNewestLiveIds(3)).thenReturn(List.of(1L));
+        when(postService.getPostById(1L)).thenAnswer(inv -> {
+            never.await();
+            return null;
+        });
+
+        warmup.run();
+
+        assertThat(warmup.state()).isEqualTo(CacheWarmup.State.OUT_OF_BUDGET);
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void run_reportsUp_whenIdLookupFails() {
+        when(postRepository.findNewestLiveIds(3)).thenThrow(new IllegalStateException("db down"));
+
+        warmup.run();
+
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.UP);
+    }
+}
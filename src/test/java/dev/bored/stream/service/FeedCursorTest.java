@@ -0,0 +1,75 @@
+package dev.bored.stream.service;
+
+import dev.bored.common.exception.GenericException;
+import dev.bored.stream.entity.Post;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link FeedCursor}: the encode/decode round-trip and
+ * rejection of tokens we didn't issue.
+ */
+class FeedCursorTest {
+
+    @Test
+    void encodeDecode_roundTrips() {
+        FeedCursor cursor = new FeedCursor(Instant.parse("2026-04-25T10:00:00.123456Z"), 42L);
+
+        FeedCursor decoded = FeedCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    void encode_isUrlSafe() {
+        String token = new FeedCursor(Instant.parse("2026-04-25T10:00:00Z"), 42L).encode();
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void after_pointsAtLastPost() {
+        Post post = new Post();
+        post.setPostId(7L);
+        post.setCreatedAt(Instant.parse("2026-04-25T10:00:00Z"));
+
+        assertThat(FeedCursor.after(post))
+                .isEqualTo(new FeedCursor(Instant.parse("2026-04-25T10:00:00Z"), 7L));
+    }
+
+    @Test
+    void decode_rejectsNonBase64() {
+        assertBadRequest("***");
+    }
+
+    @Test
+    void decode_rejectsMissingSeparator() {
+        assertBadRequest(b64("2026-04-25T10:00:00Z"));
+    }
+
+    @Test
+    void decode_rejectsBadTimestamp() {
+        assertBadRequest(b64("yesterday,42"));
+    }
+
+    @Test
+    void decode_rejectsBadPostId() {
+        assertBadRequest(b64("2026-04-25T10:00:00Z,forty-two"));
+    }
+
+    private static String b64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertBadRequest(String token) {
+        assertThatThrownBy(() -> FeedCursor.decode(token))
+                .isInstanceOfSatisfying(GenericException.class, ex ->
+                        assertThat(ex.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -1,6 +1,7 @@
 package dev.bored.stream.service;
 
 import dev.bored.common.exception.GenericException;
+import dev.bored.stream.cache.CdnPurger;
 import dev.bored.stream.dto.FeedPostDTO;
 import dev.bored.stream.entity.FeedPost;
 import dev.bored.stream.mapper.FeedPostMapper;
@@ -30,6 +31,9 @@ class FeedPostServiceTest {
     @Mock
     private FeedPostMapper feedPostMapper;
 
+    @Mock
+    private CdnPurger cdnPurger;
+
     @InjectMocks
     private FeedPostService feedPostService;
 
@@ -103,6 +107,7 @@ class FeedPostServiceTest {
         when(feedPostMapper.toDTO(testEntity)).thenReturn(testDTO);
 
         assertEquals("sethi", feedPostService.addPost(testDTO).getAuthor());
+        verify(cdnPurger).purgeAfterCommit("feed");
     }
 
     @Test
@@ -114,6 +119,7 @@ class FeedPostServiceTest {
         when(feedPostMapper.toDTO(testEntity)).thenReturn(testDTO);
 
         assertEquals("sethi", feedPostService.updatePost(1L, testDTO).getAuthor());
+        verify(cdnPurger).purgeAfterCommit("feed", "feed-post-1");
     }
 
     @Test
@@ -121,6 +127,7 @@ class FeedPostServiceTest {
         when(feedPostRepository.findById(999L)).thenReturn(Optional.empty());
         assertThrows(GenericException.class, () -> feedPostService.updatePost(999L, testDTO));
         verify(feedPostRepository, never()).save(any());
+        verifyNoInteractions(cdnPurger);
     }
 
     @Test
@@ -128,11 +135,13 @@ class FeedPostServiceTest {
         when(feedPostRepository.existsById(1L)).thenReturn(true);
         assertTrue(feedPostService.deletePost(1L));
         verify(feedPostRepository).deleteById(1L);
+        verify(cdnPurger).purgeAfterCommit("feed", "feed-post-1");
     }
 
     @Test
     void deletePost_ShouldThrow_WhenNotFound() {
         when(feedPostRepository.existsById(999L)).thenReturn(false);
         assertThrows(GenericException.class, () -> feedPostService.deletePost(999L));
+        verifyNoInteractions(cdnPurger);
     }
 }
@@ -0,0 +1,175 @@
+package dev.bored.stream.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.bored.common.exception.GenericException;
+import dev.bored.stream.cache.RedisInvalidationBus;
+import dev.bored.stream.config.StreamProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Unit tests for {@link PostEventStream}: live delivery, {@code Last-Event-ID}
+ * replay and reset, the subscriber cap, and relaying to other instances. Connections go through a
+ * standalone {@link MockMvc} so frames land in a real response.
+ */
+class PostEventStreamTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private StreamProperties props;
+    private RedisInvalidationBus bus;
+    private PostEventStream stream;
+    private MockMvc mockMvc;
+
+    @RestController
+    static class StreamController {
+
+        private final PostEventStream stream;
+
+        StreamController(PostEventStream stream) {
+            this.stream = stream;
+        }
+
+        @GetMapping("/stream")
+        SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return stream.subscribe(lastEventId);
+        }
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        props = new StreamProperties();
+        props.getLiveStream().setReplaySize(4);
+        bus = mock(RedisInvalidationBus.class);
+        stream = new PostEventStream(props, mock(ObjectProvider.class), bus, objectMapper);
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(stream)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.stop();
+    }
+
+    private MockHttpServletResponse connect(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/stream");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    /** Waits for the drain thread to write {@code text}. */
+    private static String awaitContent(MockHttpServletResponse response, String text) throws Exception {
+        for (int i = 0; i < 200; i++) {
+            String content = response.getContentAsString();
+            if (content.contains(text)) {
+                return content;
+            }
+            Thread.sleep(10);
+        }
+        return response.getContentAsString();
+    }
+
+    @Test
+    void connectedClients_receiveNewEvents() throws Exception {
+        MockHttpServletResponse response = connect(null);
+
+        stream.postDeleted(7L);
+
+        String content = awaitContent(response, "\"postId\":7");
+        assertThat(content).contains("event:post-deleted", "id:" + stream.lastEventId(), "\"postId\":7");
+    }
+
+    @Test
+    void lastEventId_replaysOnlyWhatWasMissed() throws Exception {
+        stream.postDeleted(1L);
+        String seen = stream.lastEventId();
+        stream.postDeleted(2L);
+        stream.postDeleted(3L);
+
+        String content = awaitContent(connect(seen), "\"postId\":3");
+
+        assertThat(content).contains("\"postId\":2", "\"postId\":3").doesNotContain("\"postId\":1");
+    }
+
+    @Test
+    void lastEventId_fromAnotherEpochOrBeyondTheRing_getsReset() throws Exception {
+        stream.postDeleted(1L);
+        String evicted = stream.lastEventId();
+        for (long id = 2; id <= 6; id++) {
+            stream.postDeleted(id);
+        }
+
+        assertThat(awaitContent(connect("elsewhere-1"), "event:reset")).contains("event:reset");
+        assertThat(awaitContent(connect(evicted), "event:reset"))
+                .contains("event:reset", "id:" + stream.lastEventId())
+                .doesNotContain("post-deleted");
+    }
+
+    @Test
+    void subscribe_beyondCap_isRefusedWith503() {
+        props.getLiveStream().setMaxSubscribers(1);
+        stream.subscribe(null);
+
+        assertThatThrownBy(() -> stream.subscribe(null))
+                .isInstanceOfSatisfying(GenericException.class,
+                        ex -> assertThat(ex.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(stream.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void writes_areRelayedToOtherInstances() {
+        stream.postDeleted(7L);
+
+        ArgumentCaptor<JsonNode> message = ArgumentCaptor.forClass(JsonNode.class);
+        verify(bus).relay(eq(PostEventStream.RELAY_TOPIC), message.capture());
+        assertThat(message.getValue().path("name").asText()).isEqualTo(PostEventStream.DELETED);
+        assertThat(message.getValue().path("data").path("postId").asLong()).isEqualTo(7L);
+    }
+
+    @Test
+    void relayedEvents_reachThisInstancesClients() throws Exception {
+        verify(bus).onRelay(eq(PostEventStream.RELAY_TOPIC), any());
+        MockHttpServletResponse response = connect(null);
+
+        stream.onRelayed(objectMapper.readTree("{\"name\":\"post-deleted\",\"data\":{\"postId\":9}}"));
+
+        String content = awaitContent(response, "\"postId\":9");
+        assertThat(content).contains("event:post-deleted", "id:" + stream.lastEventId(), "\"postId\":9");
+    }
+
+    @Test
+    void relayedEvents_withUnknownName_areIgnored() throws Exception {
+        String before = stream.lastEventId();
+
+        stream.onRelayed(objectMapper.readTree("{\"name\":\"reset\",\"data\":{}}"));
+
+        assertThat(stream.lastEventId()).isEqualTo(before);
+    }
+}
@@ -0,0 +1,201 @@
+package dev.bored.stream.service;
+
+import dev.bored.stream.config.StreamProperties;
+import dev.bored.stream.repository.PostRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link PostIdFilter}: pass-through until the bitmap is
+ * trusted and above its mark, bitmap answers, the negative cache,
+ * commit-time updates, and creates interleaved across instances.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostIdFilterTest {
+
+    @Mock private PostRepository postRepository;
+
+    private StreamProperties props;
+    private PostIdFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        props = new StreamProperties();
+        filter = new PostIdFilter(postRepository, props);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /** Two rebuilds over the same rows, so the bitmap is trusted up to {@code maxId}. */
+    private void buildWith(long maxId, Long... liveIds) {
+        rebuildWith(filter, maxId, liveIds);
+        filter.rebuild();
+    }
+
+    private void rebuildWith(PostIdFilter target, long maxId, Long... liveIds) {
+        when(postRepository.findMaxPostId()).thenReturn(maxId);
+        when(postRepository.findAllLiveIds()).thenReturn(List.of(liveIds));
+        target.rebuild();
+    }
+
+    @Test
+    void mightExist_passesEverything_beforeFirstBuild() {
+        assertThat(filter.isBuilt()).isFalse();
+        assertThat(filter.mightExist(7L)).isTrue();
+    }
+
+    @Test
+    void mightExist_rejectsNonPositiveIds() {
+        assertThat(filter.mightExist(0L)).isFalse();
+        assertThat(filter.mightExist(-3L)).isFalse();
+    }
+
+    @Test
+    void firstRebuild_onlySetsTheMark_forTheNextOne() {
+        rebuildWith(filter, 10, 2L);
+
+        assertThat(filter.isBuilt()).isTrue();
+        assertThat(filter.mightExist(3L)).isTrue();
+    }
+
+    @Test
+    void rebuild_passesIdsAboveThePreviousMax_thatMayStillBeCommitting() {
+        buildWith(10, 2L);
+        // 11 was assigned but not yet committed when 12 was read.
+        rebuildWith(filter, 12, 2L, 12L);
+
+        assertThat(filter.mightExist(11L)).isTrue();
+        assertThat(filter.mightExist(3L)).isFalse();
+
+        rebuildWith(filter, 12, 2L, 11L, 12L);
+        assertThat(filter.mightExist(11L)).isTrue();
+        assertThat(filter.mightExist(3L)).isFalse();
+    }
+
+    @Test
+    void mightExist_answersFromBitmap_upToMark() {
+        buildWith(10, 2L, 5L);
+
+        assertThat(filter.mightExist(2L)).isTrue();
+        assertThat(filter.mightExist(5L)).isTrue();
+        assertThat(filter.mightExist(3L)).isFalse();
+        assertThat(filter.mightExist(10L)).isFalse();
+        // Possibly created by another instance since the build.
+        assertThat(filter.mightExist(11L)).isTrue();
+    }
+
+    @Test
+    void rebuild_keepsPreviousSnapshot_onFailure() {
+        buildWith(3, 1L);
+        when(postRepository.findMaxPostId()).thenThrow(new IllegalStateException("db down"));
+
+        filter.rebuild();
+
+        assertThat(filter.mightExist(1L)).isTrue();
+        assertThat(filter.mightExist(2L)).isFalse();
+    }
+
+    @Test
+    void recordMissing_rejectsId_evenAboveMark() {
+        buildWith(3, 1L);
+
+        filter.recordMissing(50L);
+
+        assertThat(filter.mightExist(50L)).isFalse();
+    }
+
+    @Test
+    void markLive_passesId_andForgetsMissing() {
+        buildWith(3, 1L);
+        filter.recordMissing(4L);
+
+        filter.markLive(4L);
+
+        assertThat(filter.mightExist(4L)).isTrue();
+        assertThat(filter.mightExist(3L)).isFalse();
+    }
+
+    @Test
+    void markLive_passesId_belowMarkThatCommittedOutOfOrder() {
+        buildWith(3, 1L);
+
+        filter.markLive(2L);
+
+        assertThat(filter.mightExist(2L)).isTrue();
+    }
+
+    /**
+     * Two instances on the same snapshot; each creates a post and deletes
+     * one. Neither may reject the other's new post before its rebuild.
+     */
+    @Test
+    void localWrites_neverHideAnotherInstancesCreate() {
+        PostIdFilter other = new PostIdFilter(postRepository, props);
+        buildWith(100, 1L, 100L);
+        rebuildWith(other, 100, 1L, 100L);
+        other.rebuild();
+
+        filter.markLive(101L);
+        other.markLive(102L);
+        other.markDeleted(103L);
+        other.markDeleted(100L);
+
+        assertThat(other.mightExist(101L)).isTrue();
+        assertThat(filter.mightExist(102L)).isTrue();
+        assertThat(other.mightExist(100L)).isFalse();
+        assertThat(other.mightExist(103L)).isFalse();
+    }
+
+    @Test
+    void markDeleted_clearsBit() {
+        buildWith(3, 1L, 2L);
+
+        filter.markDeleted(2L);
+
+        assertThat(filter.mightExist(2L)).isFalse();
+        assertThat(filter.mightExist(1L)).isTrue();
+    }
+
+    @Test
+    void markDeleted_waitsForCommit_insideTransaction() {
+        buildWith(3, 1L, 2L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        filter.markDeleted(2L);
+        assertThat(filter.mightExist(2L)).isTrue();
+
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        syncs.forEach(TransactionSynchronization::afterCommit);
+        assertThat(filter.mightExist(2L)).isFalse();
+    }
+
+    @Test
+    void disabled_passesEverything_andNeverQueries() {
+        props.getExistenceFilter().setEnabled(false);
+        filter = new PostIdFilter(postRepository, props);
+        filter.start();
+        filter.recordMissing(9L);
+
+        assertThat(filter.mightExist(9L)).isTrue();
+        assertThat(filter.mightExist(-1L)).isTrue();
+        filter.stop();
+        verifyNoInteractions(postRepository);
+    }
+}
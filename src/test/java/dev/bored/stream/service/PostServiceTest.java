@@ -1,31 +1,41 @@
 package dev.bored.stream.service;
 
 import dev.bored.common.exception.GenericException;
+import dev.bored.stream.cache.CdnPurger;
+import dev.bored.stream.dto.AppUserSnapshot;
 import dev.bored.stream.dto.CreatePostRequest;
 import dev.bored.stream.dto.PostAuthorDTO;
+import dev.bored.stream.dto.PostChangesDTO;
 import dev.bored.stream.dto.PostDTO;
+import dev.bored.stream.dto.PostPageDTO;
 import dev.bored.stream.entity.AppUser;
 import dev.bored.stream.entity.Post;
 import dev.bored.stream.mapper.PostMapper;
 import dev.bored.stream.repository.AppUserRepository;
 import dev.bored.stream.repository.PostRepository;
+import dev.bored.stream.repository.PostWithAuthor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.jwt.Jwt;
 
 import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -39,11 +49,16 @@ class PostServiceTest {
     @Mock private PostRepository postRepository;
     @Mock private AppUserRepository appUserRepository;
     @Mock private PostMapper postMapper;
+    @Spy private AppUserProfileCache profileCache = new AppUserProfileCache();
+    @Mock private PostIdFilter postIdFilter;
+    @Mock private CdnPurger cdnPurger;
+    @Mock private PostEventStream postEvents;
 
     @InjectMocks private PostService postService;
 
     private Jwt authorJwt;
     private AppUser authorUser;
+    private AppUserSnapshot authorSnapshot;
     private Post entity;
     private PostDTO dto;
 
@@ -58,6 +73,7 @@ class PostServiceTest {
         authorUser.setUserId(AUTHOR_ID);
         authorUser.setHandle("seth");
         authorUser.setDisplayName("Seth");
+        authorSnapshot = AppUserSnapshot.from(authorUser);
 
         entity = new Post();
         entity.setPostId(42L);
@@ -99,7 +115,7 @@ class PostServiceTest {
             return p;
         });
         when(appUserRepository.findById(AUTHOR_ID)).thenReturn(Optional.of(authorUser));
-        when(postMapper.toDTO(any(Post.class), any(AppUser.class))).thenReturn(dto);
+        when(postMapper.toDTO(any(Post.class), any(AppUserSnapshot.class))).thenReturn(dto);
 
         PostDTO result = postService.createPost(authorJwt, req);
 
@@ -107,40 +123,221 @@ class PostServiceTest {
         verify(postRepository).save(captor.capture());
         assertThat(captor.getValue().getAuthorId()).isEqualTo(AUTHOR_ID);
         assertThat(result).isEqualTo(dto);
+        verify(postIdFilter).markLive(42L);
+        verify(cdnPurger).purgeAfterCommit("posts", "post-42");
+        verify(postEvents).postCreated(dto);
+    }
+
+    @Test
+    void createPost_readsAuthorFromProfileCache_whenPresent() {
+        profileCache.put(authorUser);
+        CreatePostRequest req = CreatePostRequest.builder().caption("hello").build();
+        when(postMapper.toEntity(req)).thenReturn(new Post());
+        when(postRepository.save(any(Post.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(postMapper.toDTO(any(Post.class), any(AppUserSnapshot.class))).thenReturn(dto);
+
+        postService.createPost(authorJwt, req);
+
+        verify(appUserRepository, never()).findById(any());
+    }
+
+    @Test
+    void createPost_throws500_whenAuthorRowMissing() {
+        CreatePostRequest req = CreatePostRequest.builder().caption("hello").build();
+        when(postMapper.toEntity(req)).thenReturn(new Post());
+        when(postRepository.save(any(Post.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(appUserRepository.findById(AUTHOR_ID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> postService.createPost(authorJwt, req))
+                .isInstanceOfSatisfying(GenericException.class, ex ->
+                        assertThat(ex.getStatus()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR));
     }
 
     // ── getPostById ─────────────────────────────────────────────────────
 
     @Test
     void getPostById_returnsHydratedDTO_whenLive() {
-        when(postRepository.findByPostIdAndDeletedAtIsNull(42L)).thenReturn(Optional.of(entity));
-        when(appUserRepository.findById(AUTHOR_ID)).thenReturn(Optional.of(authorUser));
-        when(postMapper.toDTO(entity, authorUser)).thenReturn(dto);
+        when(postIdFilter.mightExist(42L)).thenReturn(true);
+        when(postRepository.findLiveWithAuthor(42L))
+                .thenReturn(Optional.of(new PostWithAuthor(entity, authorUser)));
+        when(postMapper.toDTO(entity, authorSnapshot)).thenReturn(dto);
 
         PostDTO result = postService.getPostById(42L);
 
         assertThat(result).isEqualTo(dto);
+        // The join already carried the author — no second round trip —
+        // and the author is now warm for every other read path.
+        verify(appUserRepository, never()).findById(any());
+        assertThat(profileCache.getIfPresent(AUTHOR_ID)).isEqualTo(authorSnapshot);
     }
 
     @Test
     void getPostById_throws404_whenMissingOrTombstoned() {
-        when(postRepository.findByPostIdAndDeletedAtIsNull(99L)).thenReturn(Optional.empty());
+        when(postIdFilter.mightExist(99L)).thenReturn(true);
+        when(postRepository.findLiveWithAuthor(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> postService.getPostById(99L))
                 .isInstanceOfSatisfying(GenericException.class, ex ->
                         assertThat(ex.getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+        verify(postIdFilter).recordMissing(99L);
     }
 
     @Test
-    void getPostById_throws500_whenAuthorRowMissing() {
-        when(postRepository.findByPostIdAndDeletedAtIsNull(42L)).thenReturn(Optional.of(entity));
-        when(appUserRepository.findById(AUTHOR_ID)).thenReturn(Optional.empty());
+    void getPostById_throws404_withoutQuery_whenFilterRulesIdOut() {
+        when(postIdFilter.mightExist(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> postService.getPostById(99L))
+                .isInstanceOfSatisfying(GenericException.class, ex ->
+                        assertThat(ex.getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+        verify(postRepository, never()).findLiveWithAuthor(any());
+    }
+
+    // ── listPosts ───────────────────────────────────────────────────────
+
+    private Post postAt(long id, String createdAt) {
+        Post p = new Post();
+        p.setPostId(id);
+        p.setAuthorId(AUTHOR_ID);
+        p.setCaption("post " + id);
+        p.setCreatedAt(Instant.parse(createdAt));
+        return p;
+    }
+
+    @Test
+    void listPosts_firstPage_setsNextCursor_whenMoreRowsExist() {
+        Post newest = postAt(3L, "2026-04-25T12:00:00Z");
+        Post middle = postAt(2L, "2026-04-25T11:00:00Z");
+        Post oldest = postAt(1L, "2026-04-25T10:00:00Z");
+        when(postRepository.findLivePage(3)).thenReturn(List.of(newest, middle, oldest));
+        when(appUserRepository.findAllById(Set.of(AUTHOR_ID))).thenReturn(List.of(authorUser));
+        when(postMapper.toDTO(any(Post.class), any(AppUserSnapshot.class))).thenReturn(dto);
+
+        PostPageDTO page = postService.listPosts(null, 2);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getNextCursor()).isEqualTo(FeedCursor.after(middle).encode());
+        // One batched author query for the whole page, never per post.
+        verify(appUserRepository, times(1)).findAllById(any());
+        verify(appUserRepository, never()).findById(any());
+    }
+
+    @Test
+    void listPosts_lastPage_hasNoNextCursor() {
+        Post only = postAt(1L, "2026-04-25T10:00:00Z");
+        when(postRepository.findLivePage(21)).thenReturn(List.of(only));
+        when(appUserRepository.findAllById(Set.of(AUTHOR_ID))).thenReturn(List.of(authorUser));
+        when(postMapper.toDTO(only, authorSnapshot)).thenReturn(dto);
+
+        PostPageDTO page = postService.listPosts("  ", 20);
+
+        assertThat(page.getItems()).containsExactly(dto);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void listPosts_withCursor_queriesBeforeCursorPosition() {
+        FeedCursor cursor = new FeedCursor(Instant.parse("2026-04-25T11:00:00Z"), 2L);
+        when(postRepository.findLivePageBefore(cursor.createdAt(), 2L, 21)).thenReturn(List.of());
+
+        PostPageDTO page = postService.listPosts(cursor.encode(), 20);
+
+        assertThat(page.getItems()).isEmpty();
+        assertThat(page.getNextCursor()).isNull();
+        verify(postRepository, never()).findLivePage(anyInt());
+        // Empty page: no author query at all.
+        verify(appUserRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void listPosts_skipsAuthorQuery_whenAuthorsAreCached() {
+        profileCache.put(authorUser);
+        when(postRepository.findLivePage(21)).thenReturn(List.of(entity));
+        when(postMapper.toDTO(entity, authorSnapshot)).thenReturn(dto);
+
+        PostPageDTO page = postService.listPosts(null, 20);
+
+        assertThat(page.getItems()).containsExactly(dto);
+        verify(appUserRepository, never()).findAllById(any());
+    }
 
-        assertThatThrownBy(() -> postService.getPostById(42L))
+    @Test
+    void listPosts_throws500_whenAuthorRowMissing() {
+        when(postRepository.findLivePage(21)).thenReturn(List.of(entity));
+        when(appUserRepository.findAllById(Set.of(AUTHOR_ID))).thenReturn(List.of());
+
+        assertThatThrownBy(() -> postService.listPosts(null, 20))
                 .isInstanceOfSatisfying(GenericException.class, ex ->
                         assertThat(ex.getStatus()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR));
     }
 
+    @Test
+    void listPosts_clampsLimitIntoRange() {
+        when(postRepository.findLivePage(anyInt())).thenReturn(List.of());
+
+        postService.listPosts(null, 0);
+        postService.listPosts(null, 10_000);
+
+        verify(postRepository).findLivePage(2);
+        verify(postRepository).findLivePage(PostService.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void listPosts_throws400_onMalformedCursor() {
+        assertThatThrownBy(() -> postService.listPosts("not-a-cursor", 20))
+                .isInstanceOfSatisfying(GenericException.class, ex ->
+                        assertThat(ex.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    // ── changesSince ────────────────────────────────────────────────────
+
+    @Test
+    void changesSince_withoutToken_returnsOnlyAToken() {
+        PostChangesDTO changes = postService.changesSince(null);
+
+        assertThat(changes.getCreated()).isEmpty();
+        assertThat(changes.getDeleted()).isEmpty();
+        assertThat(ChangeToken.decode(changes.getNextToken()).since())
+                .isBefore(Instant.now().minus(PostService.CHANGES_OVERLAP).plusSeconds(1));
+        verify(postRepository, never()).findLiveCreatedAfter(any(), anyInt());
+    }
+
+    @Test
+    void changesSince_returnsCreatedAndDeleted_afterToken() {
+        Instant from = Instant.parse("2026-04-25T09:00:00Z");
+        when(postRepository.findLiveCreatedAfter(from, PostService.MAX_CHANGES + 1)).thenReturn(List.of(entity));
+        when(postRepository.findIdsDeletedAfter(from, PostService.MAX_CHANGES + 1)).thenReturn(List.of(7L));
+        when(appUserRepository.findAllById(Set.of(AUTHOR_ID))).thenReturn(List.of(authorUser));
+        when(postMapper.toDTO(entity, authorSnapshot)).thenReturn(dto);
+
+        PostChangesDTO changes = postService.changesSince(new ChangeToken(from).encode());
+
+        assertThat(changes.getCreated()).containsExactly(dto);
+        assertThat(changes.getDeleted()).containsExactly(7L);
+        assertThat(changes.isResync()).isFalse();
+        assertThat(ChangeToken.decode(changes.getNextToken()).since()).isAfter(from);
+    }
+
+    @Test
+    void changesSince_asksForResync_whenTooMuchChanged() {
+        Instant from = Instant.parse("2026-04-25T09:00:00Z");
+        when(postRepository.findLiveCreatedAfter(from, PostService.MAX_CHANGES + 1)).thenReturn(List.of());
+        when(postRepository.findIdsDeletedAfter(from, PostService.MAX_CHANGES + 1))
+                .thenReturn(Collections.nCopies(PostService.MAX_CHANGES + 1, 7L));
+
+        PostChangesDTO changes = postService.changesSince(new ChangeToken(from).encode());
+
+        assertThat(changes.isResync()).isTrue();
+        assertThat(changes.getDeleted()).isEmpty();
+        verify(appUserRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void changesSince_badToken_throws400() {
+        assertThatThrownBy(() -> postService.changesSince("not-a-token"))
+                .isInstanceOfSatisfying(GenericException.class, ex ->
+                        assertThat(ex.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
     // ── deletePost ──────────────────────────────────────────────────────
 
     @Test
@@ -153,6 +350,9 @@ class PostServiceTest {
         ArgumentCaptor<Post> captor = ArgumentCaptor.forClass(Post.class);
         verify(postRepository, times(1)).save(captor.capture());
         assertThat(captor.getValue().getDeletedAt()).isNotNull();
+        verify(postIdFilter).markDeleted(42L);
+        verify(cdnPurger).purgeAfterCommit("posts", "post-42");
+        verify(postEvents).postDeleted(42L);
     }
 
     @Test
@@ -0,0 +1,121 @@
+package dev.bored.stream.service;
+
+import dev.bored.stream.cache.RedisCircuitBreaker;
+import dev.bored.stream.cache.RedisKeys;
+import dev.bored.stream.config.StreamProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link UserSyncMarker}: the SET NX outcome mapping, the
+ * fail-open behaviour without or with a broken Redis, and skipping Redis
+ * while the circuit breaker is open.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserSyncMarkerTest {
+
+    private static final UUID SUB = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Mock private ObjectProvider<StringRedisTemplate> provider;
+    @Mock private StringRedisTemplate template;
+    @Mock private ValueOperations<String, String> ops;
+    @Mock private ObjectProvider<MeterRegistry> meters;
+
+    private UserSyncMarker marker;
+
+    @BeforeEach
+    void setUp() {
+        StreamProperties props = new StreamProperties();
+        props.getUserSync().setClusterMarkerTtl(Duration.ofMinutes(30));
+        props.getCaching().getCircuitBreaker().setFailureThreshold(1);
+        CacheProperties cache = new CacheProperties();
+        cache.getRedis().setKeyPrefix("stream-svc::");
+        marker = new UserSyncMarker(provider, new RedisCircuitBreaker(props, meters), props, new RedisKeys(cache));
+    }
+
+    @Test
+    void key_usesServicePrefixUserAndFingerprint() {
+        assertThat(marker.key(SUB, 255L))
+                .isEqualTo("stream-svc::user-synced::00000000-0000-0000-0000-000000000001:ff");
+    }
+
+    @Test
+    void claimedElsewhere_isFalse_withoutRedis() {
+        when(provider.getIfAvailable()).thenReturn(null);
+
+        assertThat(marker.claimedElsewhere(SUB, 1L)).isFalse();
+    }
+
+    @Test
+    void claimedElsewhere_isFalse_whenWeSetTheMarker() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.opsForValue()).thenReturn(ops);
+        when(ops.setIfAbsent(marker.key(SUB, 1L), "1", Duration.ofMinutes(30))).thenReturn(true);
+
+        assertThat(marker.claimedElsewhere(SUB, 1L)).isFalse();
+    }
+
+    @Test
+    void claimedElsewhere_isTrue_whenMarkerAlreadyExists() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.opsForValue()).thenReturn(ops);
+        when(ops.setIfAbsent(marker.key(SUB, 1L), "1", Duration.ofMinutes(30))).thenReturn(false);
+
+        assertThat(marker.claimedElsewhere(SUB, 1L)).isTrue();
+    }
+
+    @Test
+    void claimedElsewhere_failsOpen_whenRedisErrors() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(marker.claimedElsewhere(SUB, 1L)).isFalse();
+    }
+
+    @Test
+    void release_deletesMarker_andSwallowsErrors() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.delete(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        marker.release(SUB, 1L);
+
+        verify(template).delete(marker.key(SUB, 1L));
+    }
+
+    @Test
+    void release_isNoOp_withoutRedis() {
+        when(provider.getIfAvailable()).thenReturn(null);
+
+        marker.release(SUB, 1L);
+    }
+
+    @Test
+    void claimedElsewhere_skipsRedis_onceBreakerOpens() {
+        when(provider.getIfAvailable()).thenReturn(template);
+        when(template.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(marker.claimedElsewhere(SUB, 1L)).isFalse();
+        assertThat(marker.claimedElsewhere(SUB, 1L)).isFalse();
+        marker.release(SUB, 1L);
+
+        verify(template, times(1)).opsForValue();
+    }
+}